@@ -0,0 +1,216 @@
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * AutoRefreshScheduler keeps a Player up to date by refreshing it in the
+ * background. The interval adapts to the Player's activity:
+ * - When a refresh shows experience being gained, the interval is halved
+ * - When a refresh shows no change, or fails, the interval grows by half
+ * The interval always stays between a hard floor and a ceiling, and every
+ * delay is jittered so many schedulers don't fire in lockstep. An idle
+ * account ends up polled rarely while an active one stays close to live.
+ *
+ * Refreshes are timed on a shared ScheduledExecutorService and run on virtual
+ * threads, so a slow or unreachable API only delays the Player waiting on it
+ * and not every other scheduler. Callbacks are called on a background thread.
+ */
+public class AutoRefreshScheduler {
+    // Default shortest interval between refreshes, never undercut
+    public static final Duration DEFAULT_MIN_INTERVAL = Duration.ofSeconds(60);
+    // Default interval before any activity has been seen
+    public static final Duration DEFAULT_INITIAL_INTERVAL = Duration.ofMinutes(2);
+    // Default longest interval between refreshes
+    public static final Duration DEFAULT_MAX_INTERVAL = Duration.ofMinutes(30);
+
+    // Factor the interval grows by after a refresh without changes
+    private static final double BACKOFF_FACTOR = 1.5;
+    // Factor the interval shrinks by after a refresh with changes
+    private static final double TIGHTEN_FACTOR = 0.5;
+    // Fraction of the interval each delay is randomly moved by
+    private static final double JITTER = 0.1;
+
+    // Times the refreshes of all schedulers, only hands them off so it is
+    // never blocked. Daemon thread so it never keeps the app alive.
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "auto-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Runs each refresh on its own virtual thread, which never keeps the app
+    // alive either
+    private static final ExecutorService REFRESHER = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("auto-refresh-", 0).factory());
+
+    // The Player being refreshed
+    private final Player player;
+    // Called with the Player after every successful refresh
+    private final Consumer<Player> onRefresh;
+    // Called with the exception after every failed refresh
+    private final Consumer<Exception> onError;
+    // Interval limits, in milliseconds
+    private final long minIntervalMillis;
+    private final long initialIntervalMillis;
+    private final long maxIntervalMillis;
+    // Current interval before jitter, in milliseconds
+    private long intervalMillis;
+    // The next scheduled refresh, null when stopped
+    private ScheduledFuture<?> next;
+    // Bumped on every start and stop, so a refresh from an earlier run can
+    // tell it must not schedule another
+    private long generation;
+
+    /**
+     * Creates a new AutoRefreshScheduler with the default intervals. The
+     * scheduler does nothing until started.
+     *
+     * @param player    the Player to refresh
+     * @param onRefresh called with the Player after every successful refresh
+     * @param onError   called with the exception after every failed refresh
+     */
+    public AutoRefreshScheduler(Player player, Consumer<Player> onRefresh, Consumer<Exception> onError) {
+        this(player, onRefresh, onError, DEFAULT_MIN_INTERVAL, DEFAULT_INITIAL_INTERVAL, DEFAULT_MAX_INTERVAL);
+    }
+
+    /**
+     * Creates a new AutoRefreshScheduler with the provided intervals. The
+     * scheduler does nothing until started.
+     *
+     * @param player          the Player to refresh
+     * @param onRefresh       called with the Player after every successful
+     *                        refresh
+     * @param onError         called with the exception after every failed
+     *                        refresh
+     * @param minInterval     the shortest interval between refreshes
+     * @param initialInterval the interval before any activity has been seen
+     * @param maxInterval     the longest interval between refreshes
+     * @throws IllegalArgumentException if the intervals are not ordered
+     */
+    public AutoRefreshScheduler(Player player, Consumer<Player> onRefresh, Consumer<Exception> onError,
+            Duration minInterval, Duration initialInterval, Duration maxInterval) {
+        if (minInterval.isNegative() || minInterval.isZero()
+                || initialInterval.compareTo(minInterval) < 0
+                || maxInterval.compareTo(initialInterval) < 0) {
+            throw new IllegalArgumentException("Intervals must satisfy 0 < min <= initial <= max");
+        }
+
+        this.player = player;
+        this.onRefresh = onRefresh;
+        this.onError = onError;
+        this.minIntervalMillis = minInterval.toMillis();
+        this.initialIntervalMillis = initialInterval.toMillis();
+        this.maxIntervalMillis = maxInterval.toMillis();
+        this.intervalMillis = this.initialIntervalMillis;
+    }
+
+    // Player Getter
+    public Player getPlayer() {
+        return this.player;
+    }
+
+    // Current Interval Getter, before jitter
+    public synchronized Duration getInterval() {
+        return Duration.ofMillis(this.intervalMillis);
+    }
+
+    // Whether the scheduler is running
+    public synchronized boolean isRunning() {
+        return this.next != null;
+    }
+
+    /**
+     * Starts refreshing the Player, first after the initial interval. Does
+     * nothing if already running.
+     */
+    public synchronized void start() {
+        if (this.next == null) {
+            this.generation++;
+            this.intervalMillis = this.initialIntervalMillis;
+            scheduleNext();
+        }
+    }
+
+    /**
+     * Stops refreshing the Player. A refresh already in progress completes,
+     * but its callbacks are not called.
+     */
+    public synchronized void stop() {
+        if (this.next != null) {
+            this.next.cancel(false);
+            this.next = null;
+            this.generation++;
+        }
+    }
+
+    /**
+     * Refreshes the Player, adapts the interval to whether experience changed
+     * and schedules the next refresh. Runs on a virtual thread.
+     *
+     * @param generation the run this refresh was scheduled by
+     */
+    private void refresh(long generation) {
+        long before = totalExperience();
+        Exception error = null;
+        try {
+            // The interval floor already limits the request rate, and a cached
+            // response would look like inactivity
+            this.player.refreshSkills(true);
+        } catch (Exception e) {
+            error = e;
+        }
+        boolean changed = error == null && totalExperience() != before;
+
+        synchronized (this) {
+            // Stopped, and maybe started again, while the refresh was running
+            if (this.generation != generation) {
+                return;
+            }
+
+            if (changed) {
+                this.intervalMillis = Math.max(this.minIntervalMillis,
+                        (long) (this.intervalMillis * TIGHTEN_FACTOR));
+            } else {
+                this.intervalMillis = Math.min(this.maxIntervalMillis,
+                        (long) (this.intervalMillis * BACKOFF_FACTOR));
+            }
+            scheduleNext();
+        }
+
+        if (error == null) {
+            this.onRefresh.accept(this.player);
+        } else {
+            this.onError.accept(error);
+        }
+    }
+
+    /**
+     * Schedules the next refresh after the current interval, moved randomly by
+     * up to JITTER in either direction but never below the floor.
+     */
+    private void scheduleNext() {
+        double jitter = 1 + ThreadLocalRandom.current().nextDouble(-JITTER, JITTER);
+        long delay = Math.max(this.minIntervalMillis, (long) (this.intervalMillis * jitter));
+        long generation = this.generation;
+        this.next = EXECUTOR.schedule(() -> REFRESHER.execute(() -> refresh(generation)),
+                delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sums the experience of every skill, used to detect any change
+     *
+     * @return the total experience of the Player's skills
+     */
+    private long totalExperience() {
+        SkillData skills = this.player.getSkillData();
+        long total = 0;
+        for (int i = 0; i < skills.getSkillCount(); i++) {
+            total += skills.getExperience(i);
+        }
+        return total;
+    }
+}
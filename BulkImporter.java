@@ -0,0 +1,217 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * BulkImporter loads every saved Player under a directory, such as the day
+ * folders of saved_players, and groups them into a PlayerTimeline per
+ * username.
+ *
+ * Files are read and decoded in parallel on a ForkJoinPool: the file list is
+ * split in halves until each task has only a few files left. By default the
+ * pool is one owned by BulkImporter rather than the common pool, so blocking
+ * file reads never hold up other work on the common pool, such as the
+ * CompletableFutures the GUI runs there. A file that
+ * can't be loaded is reported in the ImportResult and does not stop the rest.
+ *
+ * readMetadata lists a directory the same way but only reads the header of
+ * every file, for browsing saves without loading them.
+ */
+public class BulkImporter {
+    // Most files a task loads itself before splitting
+    private static final int FILES_PER_TASK = 4;
+    // Default pool files are loaded on, shared by every BulkImporter. Its
+    // worker threads are daemon threads, so it never needs shutting down.
+    private static final ForkJoinPool IMPORT_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+            pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("bulk-import-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+    // Time spent importing directories
+    private static final Metrics.Histogram IMPORT_TIME = Metrics.timer(
+            "bulk_import_seconds", "Time importing directories of saved players");
+
+    // The pool files are loaded on
+    private final ForkJoinPool pool;
+
+    // 0-arg constructor, loads files on the importer's own ForkJoinPool
+    public BulkImporter() {
+        this(IMPORT_POOL);
+    }
+
+    /**
+     * Creates a new BulkImporter loading files on the given pool
+     *
+     * @param pool the pool to load files on
+     */
+    public BulkImporter(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Loads every .osrs file under a directory, including subdirectories, and
+     * groups the Players by username.
+     *
+     * @param directory the directory to import
+     * @return the timelines and the files that failed to load
+     * @throws IOException if the directory can't be walked
+     */
+    public ImportResult importDirectory(Path directory) throws IOException {
+        long start = System.nanoTime();
+        List<Path> files = listFiles(directory);
+        List<Loaded<Player>> loaded = this.pool.invoke(new ReadTask<>(files, 0, files.size(), PlayerFile::read));
+
+        Map<String, List<Player>> byUsername = new HashMap<>();
+        Map<Path, Exception> failures = new TreeMap<>();
+        for (Loaded<Player> file : loaded) {
+            if (file.error != null) {
+                failures.put(file.path, file.error);
+            } else {
+                byUsername.computeIfAbsent(HiscoreCache.normalize(file.value.getUsername()),
+                        key -> new ArrayList<>()).add(file.value);
+            }
+        }
+
+        Map<String, PlayerTimeline> timelines = new TreeMap<>();
+        for (Map.Entry<String, List<Player>> entry : byUsername.entrySet()) {
+            timelines.put(entry.getKey(), new PlayerTimeline(entry.getValue()));
+        }
+
+        IMPORT_TIME.recordSince(start);
+        return new ImportResult(timelines, failures, files.size(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Reads the metadata of every .osrs file under a directory, including
+     * subdirectories, without loading the Players. Files that can't be read
+     * are left out.
+     *
+     * @param directory the directory to list
+     * @return the metadata of every readable file, in path order
+     * @throws IOException if the directory can't be walked
+     */
+    public List<PlayerMetadata> readMetadata(Path directory) throws IOException {
+        List<Path> files = listFiles(directory);
+        List<Loaded<PlayerMetadata>> read = this.pool.invoke(
+                new ReadTask<>(files, 0, files.size(), PlayerFile::readMetadata));
+
+        List<PlayerMetadata> metadata = new ArrayList<>(read.size());
+        for (Loaded<PlayerMetadata> file : read) {
+            if (file.error == null) {
+                metadata.add(file.value);
+            }
+        }
+        return metadata;
+    }
+
+    /**
+     * Finds every .osrs file under a directory
+     *
+     * @param directory the directory to walk
+     * @return the files, in path order
+     * @throws IOException if the directory can't be walked
+     */
+    private static List<Path> listFiles(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(path -> path.toString().endsWith(PlayerFile.EXTENSION) && Files.isRegularFile(path))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Reads one file, such as PlayerFile::read
+     *
+     * @param <T> the type read from the file
+     */
+    @FunctionalInterface
+    private interface FileReader<T> {
+        T read(Path path) throws Exception;
+    }
+
+    /**
+     * A file and the value read from it, or the reason it failed
+     *
+     * @param <T> the type read from the file
+     */
+    private static class Loaded<T> {
+        private final Path path;
+        private final T value;
+        private final Exception error;
+
+        private Loaded(Path path, T value, Exception error) {
+            this.path = path;
+            this.value = value;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Reads a slice of the file list, splitting it in halves while it is
+     * larger than FILES_PER_TASK
+     *
+     * @param <T> the type read from each file
+     */
+    private static class ReadTask<T> extends RecursiveTask<List<Loaded<T>>> {
+        private static final long serialVersionUID = 1L;
+        // All files being read
+        private final List<Path> files;
+        // The slice this task reads, from inclusive to exclusive
+        private final int from;
+        private final int to;
+        // Reads each file
+        private final transient FileReader<T> reader;
+
+        private ReadTask(List<Path> files, int from, int to, FileReader<T> reader) {
+            this.files = files;
+            this.from = from;
+            this.to = to;
+            this.reader = reader;
+        }
+
+        @Override
+        protected List<Loaded<T>> compute() {
+            if (this.to - this.from <= FILES_PER_TASK) {
+                List<Loaded<T>> loaded = new ArrayList<>(this.to - this.from);
+                for (int i = this.from; i < this.to; i++) {
+                    loaded.add(read(this.files.get(i)));
+                }
+                return loaded;
+            }
+
+            int middle = (this.from + this.to) >>> 1;
+            ReadTask<T> left = new ReadTask<>(this.files, this.from, middle, this.reader);
+            left.fork();
+            List<Loaded<T>> loaded = new ReadTask<>(this.files, middle, this.to, this.reader).compute();
+            List<Loaded<T>> leftLoaded = left.join();
+            leftLoaded.addAll(loaded);
+            return leftLoaded;
+        }
+
+        /**
+         * Reads one file, catching any failure
+         *
+         * @param path the file to read
+         * @return the value read or the failure
+         */
+        private Loaded<T> read(Path path) {
+            try {
+                return new Loaded<>(path, this.reader.read(path), null);
+            } catch (Exception e) {
+                return new Loaded<>(path, null, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExperienceRateEstimator measures how fast a Player is gaining experience in
+ * each skill from the snapshots seen on refresh, in experience/hour.
+ *
+ * Two streaming estimates are kept per skill, each updated in constant time
+ * per snapshot without rescanning history:
+ * - An exponential moving average of the rate between consecutive snapshots,
+ *   decayed by the time between them, so recent activity counts the most.
+ * - The slope of a least-squares line through the snapshots in a sliding
+ *   window, kept as running sums that are adjusted as samples enter and leave
+ *   the window. This is steadier than the average when refreshes are uneven.
+ */
+public class ExperienceRateEstimator {
+    // Default time for the moving average to halve the weight of old activity
+    public static final long DEFAULT_HALF_LIFE_MILLIS = TimeUnit.HOURS.toMillis(1);
+    // Default maximum number of snapshots in the least-squares window
+    public static final int DEFAULT_WINDOW_SIZE = 32;
+    // Default maximum age of the snapshots in the least-squares window
+    public static final long DEFAULT_WINDOW_MILLIS = TimeUnit.HOURS.toMillis(6);
+
+    // Milliseconds in an hour, rates are reported per hour
+    private static final double MILLIS_PER_HOUR = TimeUnit.HOURS.toMillis(1);
+
+    // Time constant of the moving average, in hours
+    private final double decayHours;
+    // Maximum number of snapshots in the window
+    private final int windowSize;
+    // Maximum age of the snapshots in the window, in hours
+    private final double windowHours;
+    // Rate state per skill, indexed by SkillName ordinal
+    private final SkillRate[] skills;
+    // Time of the first snapshot, times are kept relative to it
+    private long originMillis = Long.MIN_VALUE;
+    // Time of the most recent snapshot
+    private long lastMillis = Long.MIN_VALUE;
+    // Number of snapshots used so far
+    private long sampleCount;
+
+    // 0-arg constructor, uses the default half-life and window
+    public ExperienceRateEstimator() {
+        this(DEFAULT_HALF_LIFE_MILLIS, DEFAULT_WINDOW_SIZE, DEFAULT_WINDOW_MILLIS);
+    }
+
+    /**
+     * Creates a new ExperienceRateEstimator
+     *
+     * @param halfLifeMillis time for the moving average to halve the weight of
+     *                       old activity
+     * @param windowSize     maximum number of snapshots in the least-squares
+     *                       window, at least 2
+     * @param windowMillis   maximum age of the snapshots in the window
+     * @throws IllegalArgumentException if any parameter is out of range
+     */
+    public ExperienceRateEstimator(long halfLifeMillis, int windowSize, long windowMillis) {
+        if (halfLifeMillis <= 0 || windowSize < 2 || windowMillis <= 0) {
+            throw new IllegalArgumentException("Invalid rate estimator parameters");
+        }
+
+        this.decayHours = halfLifeMillis / MILLIS_PER_HOUR / Math.log(2);
+        this.windowSize = windowSize;
+        this.windowHours = windowMillis / MILLIS_PER_HOUR;
+        this.skills = new SkillRate[HiscoreParser.SKILL_COUNT];
+        for (int i = 0; i < this.skills.length; i++) {
+            this.skills[i] = new SkillRate(windowSize);
+        }
+    }
+
+    /**
+     * Adds a snapshot to the estimates. Snapshots that are not newer than the
+     * last one are ignored.
+     *
+     * @param snapshot the newly fetched skill data
+     * @return true if the snapshot was used
+     */
+    public synchronized boolean update(SkillSnapshot snapshot) {
+        long millis = snapshot.getTimestampMillis();
+        if (millis <= this.lastMillis) {
+            return false;
+        }
+
+        if (this.originMillis == Long.MIN_VALUE) {
+            this.originMillis = millis;
+        }
+        double hours = (millis - this.originMillis) / MILLIS_PER_HOUR;
+        double elapsedHours = (this.lastMillis == Long.MIN_VALUE) ? 0
+                : (millis - this.lastMillis) / MILLIS_PER_HOUR;
+        // Weight of the newest interval in the moving average
+        double alpha = 1 - Math.exp(-elapsedHours / this.decayHours);
+
+        int count = Math.min(snapshot.getSkillCount(), this.skills.length);
+        for (int i = 0; i < count; i++) {
+            this.skills[i].add(hours, elapsedHours, alpha, snapshot.getExperience(i));
+        }
+
+        this.lastMillis = millis;
+        this.sampleCount++;
+        return true;
+    }
+
+    /**
+     * Replays recorded history into the estimates, oldest first. Records that
+     * are not newer than the last snapshot seen are ignored.
+     *
+     * @param history previously recorded snapshots
+     */
+    public synchronized void replay(SnapshotRange history) {
+        for (int i = 0; i < history.size(); i++) {
+            if (history.getTimestampMillis(i) > this.lastMillis) {
+                update(history.get(i));
+            }
+        }
+    }
+
+    // Sample Count Getter
+    public synchronized long getSampleCount() {
+        return this.sampleCount;
+    }
+
+    /**
+     * Returns the moving average rate for a skill
+     *
+     * @param skillName the skill
+     * @return experience/hour, NaN if not enough snapshots have been seen
+     */
+    public synchronized double getAverageRate(SkillName skillName) {
+        return this.skills[skillName.ordinal()].average;
+    }
+
+    /**
+     * Returns the least-squares rate over the window for a skill
+     *
+     * @param skillName the skill
+     * @return experience/hour, NaN if the window has fewer than 2 snapshots
+     */
+    public synchronized double getTrendRate(SkillName skillName) {
+        return this.skills[skillName.ordinal()].slope();
+    }
+
+    /**
+     * Returns the best available measured rate for a skill: the least-squares
+     * rate, or the moving average when the window is too small.
+     *
+     * @param skillName the skill
+     * @return experience/hour, NaN if no rate could be measured yet
+     */
+    public synchronized double getRate(SkillName skillName) {
+        double trend = getTrendRate(skillName);
+        return Double.isNaN(trend) ? getAverageRate(skillName) : trend;
+    }
+
+    /**
+     * Rate state for a single skill: the moving average plus a ring buffer of
+     * the windowed snapshots and the running sums of the least-squares fit.
+     */
+    private final class SkillRate {
+        // Moving average rate, NaN until two snapshots have been seen
+        private double average = Double.NaN;
+        // Experience in the previous snapshot, -1 if unknown
+        private int lastExperience = -1;
+        // Experience the window values are relative to, keeping sums small
+        private int baseExperience;
+        // Times (hours) and experience (relative to base) in the window
+        private final double[] times;
+        private final double[] values;
+        // Index of the oldest sample and number of samples in the window
+        private int head;
+        private int count;
+        // Running sums for the least-squares fit
+        private double sumT;
+        private double sumX;
+        private double sumTT;
+        private double sumTX;
+
+        private SkillRate(int windowSize) {
+            this.times = new double[windowSize];
+            this.values = new double[windowSize];
+        }
+
+        /**
+         * Adds a snapshot of this skill
+         *
+         * @param hours        time of the snapshot relative to the origin
+         * @param elapsedHours time since the previous snapshot
+         * @param alpha        weight of the newest interval in the average
+         * @param experience   experience in the snapshot, -1 if unranked
+         */
+        private void add(double hours, double elapsedHours, double alpha, int experience) {
+            // Unranked skills report no experience, start over once ranked
+            if (experience < 0 || experience < this.lastExperience) {
+                reset();
+                if (experience < 0) {
+                    return;
+                }
+            }
+
+            if (this.lastExperience >= 0 && elapsedHours > 0) {
+                double rate = (experience - this.lastExperience) / elapsedHours;
+                this.average = Double.isNaN(this.average) ? rate
+                        : this.average + alpha * (rate - this.average);
+            }
+
+            if (this.count == 0) {
+                this.baseExperience = experience;
+            }
+            this.lastExperience = experience;
+
+            // Slide the window: drop samples that are too many or too old
+            while (this.count == this.times.length
+                    || (this.count > 0 && hours - this.times[this.head] > windowHours)) {
+                removeOldest();
+            }
+
+            int tail = (this.head + this.count) % this.times.length;
+            double value = experience - this.baseExperience;
+            this.times[tail] = hours;
+            this.values[tail] = value;
+            this.count++;
+            this.sumT += hours;
+            this.sumX += value;
+            this.sumTT += hours * hours;
+            this.sumTX += hours * value;
+        }
+
+        /**
+         * Removes the oldest sample from the window and the running sums
+         */
+        private void removeOldest() {
+            double t = this.times[this.head];
+            double x = this.values[this.head];
+            this.sumT -= t;
+            this.sumX -= x;
+            this.sumTT -= t * t;
+            this.sumTX -= t * x;
+            this.head = (this.head + 1) % this.times.length;
+            this.count--;
+        }
+
+        /**
+         * Returns the slope of the least-squares line through the window
+         *
+         * @return experience/hour, NaN if the window can't be fitted
+         */
+        private double slope() {
+            if (this.count < 2) {
+                return Double.NaN;
+            }
+
+            double denominator = this.count * this.sumTT - this.sumT * this.sumT;
+            if (denominator <= 1e-9) {
+                return Double.NaN;
+            }
+            double slope = (this.count * this.sumTX - this.sumT * this.sumX) / denominator;
+            // Experience never goes down, so a negative slope is just noise
+            return Math.max(0, slope);
+        }
+
+        /**
+         * Forgets everything measured for this skill
+         */
+        private void reset() {
+            this.average = Double.NaN;
+            this.lastExperience = -1;
+            this.head = 0;
+            this.count = 0;
+            this.sumT = 0;
+            this.sumX = 0;
+            this.sumTT = 0;
+            this.sumTX = 0;
+        }
+    }
+}
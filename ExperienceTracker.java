@@ -1,9 +1,18 @@
 /**
  * Main entrypoint for the OSRS Experience Tracker. Compile and run this
- * class to display and interact with the GUI.
+ * class to display and interact with the GUI. Run it with --headless to
+ * serve tracked Players over HTTP instead, see TrackerDaemon.
  */
 public class ExperienceTracker {
     public static void main(String[] args) {
+        // Checked before the GUI class is touched, so headless runs never load Swing
+        for (String arg : args) {
+            if (arg.equals("--headless")) {
+                TrackerDaemon.main(args);
+                return;
+            }
+        }
+
         ExperienceTrackerGUI gui = new ExperienceTrackerGUI();
         gui.setVisible(true);
     }
@@ -2,7 +2,14 @@ import java.awt.*;
 import java.awt.event.*;
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import javax.swing.*;
 
 /**
@@ -14,6 +21,14 @@ import javax.swing.*;
  * - Saving current configuration of Goals and Rates to files for later usage
  */
 public class ExperienceTrackerGUI extends JFrame {
+    // Directory where the history of refreshed Players is recorded
+    private static final String HISTORY_DIRECTORY = "history";
+    // Time between compactions of the history
+    private static final Duration HISTORY_COMPACTION_INTERVAL = Duration.ofHours(6);
+    // Time spent updating the display for a loaded or refreshed Player
+    private static final Metrics.Histogram UI_UPDATE_TIME = Metrics.timer(
+            "ui_update_seconds", "Time updating the GUI for a loaded or refreshed Player");
+
     // Text field for entering Player to load from API
     private JTextField usernameField;
     // Button for loading new Player from API
@@ -25,12 +40,35 @@ public class ExperienceTrackerGUI extends JFrame {
     private JButton savePlayerButton;
     // Button for loading a Player from a file
     private JButton loadFileButton;
+    // Button for cancelling the in-flight load, refresh or save
+    private JButton cancelButton;
+    // Check box for refreshing the current Player in the background
+    private JCheckBox autoRefreshBox;
+    // Button for displaying the current metrics
+    private JButton metricsButton;
+    // Button for importing a whole directory of saved Players
+    private JButton importButton;
+    // Button for browsing the saved Players in a directory
+    private JButton browseButton;
     // Label for displaying information about the current Player
     private JLabel playerInfoLabel;
-    // Panel for displaying Skills, Goals, Experience Rates, etc.
-    private JPanel skillsPanel;
+    // Table for displaying Skills, Goals, Experience Rates, etc.
+    private JTable skillsTable;
+    // Model backing the skills table with the current Player
+    private SkillTableModel skillTableModel;
     // The current Player that has been loaded for display
     private Player currentPlayer;
+    // Records the history of refreshed Players. null if history is disabled.
+    private SnapshotStore snapshotStore;
+    // The load, refresh or save currently running in the background.
+    // null when nothing is in flight. Only accessed on the event dispatch thread.
+    private CompletableFuture<Player> pendingTask;
+    // Refreshes the current Player in the background while auto refresh is
+    // checked. null when auto refresh is off or no Player is loaded.
+    private AutoRefreshScheduler autoRefresh;
+    // The latest level up or goal reached by the current Player, shown with
+    // its information. null until one happens.
+    private String latestMilestone;
 
     /**
      * Creates a new ExperienceTrackerGUI and initializes/lays out components
@@ -42,6 +80,55 @@ public class ExperienceTrackerGUI extends JFrame {
 
         initializeComponents();
         layoutComponents();
+        initializeHistory();
+        initializeMilestones();
+    }
+
+    /**
+     * Subscribes to level ups and goals reached, so they are shown with the
+     * current Player's information when a refresh finds them.
+     */
+    private void initializeMilestones() {
+        Player.getSkillEvents().subscribe(
+                EnumSet.of(SkillEvent.Type.LEVEL_UP, SkillEvent.Type.VIRTUAL_LEVEL_UP, SkillEvent.Type.GOAL_REACHED),
+                new SkillEventSubscriber(event -> SwingUtilities.invokeLater(() -> showMilestone(event))));
+    }
+
+    /**
+     * Shows a level up or goal reached if it belongs to the current Player.
+     * A status message of an in-flight task is left in place.
+     * 
+     * @param event the milestone event
+     */
+    private void showMilestone(SkillEvent event) {
+        if (this.currentPlayer == null || !this.currentPlayer.getUsername().equals(event.getUsername())) {
+            return;
+        }
+
+        if (event.getType() == SkillEvent.Type.GOAL_REACHED) {
+            this.latestMilestone = event.getSkillName() + " goal reached!";
+        } else {
+            this.latestMilestone = event.getSkillName() + " reached level " + event.getValue() + "!";
+        }
+        if (this.pendingTask == null) {
+            updatePlayerInfo();
+        }
+    }
+
+    /**
+     * Records every refresh in a SnapshotStore in the history directory, so
+     * skill history builds up while the tracker is used. Old history is
+     * thinned out in the background. History is optional, so a failure to
+     * open the store only disables it.
+     */
+    private void initializeHistory() {
+        try {
+            this.snapshotStore = new SnapshotStore(Path.of(HISTORY_DIRECTORY));
+            Player.addSnapshotListener(this.snapshotStore);
+            new SnapshotCompactor(this.snapshotStore).start(HISTORY_COMPACTION_INTERVAL);
+        } catch (IOException e) {
+            System.err.println("Skill history disabled: " + e.getMessage());
+        }
     }
 
     /**
@@ -50,7 +137,7 @@ public class ExperienceTrackerGUI extends JFrame {
     private void initializeComponents() {
         initializeInputComponents();
         initializePlayerInfoLabel();
-        initializeSkillsPanel();
+        initializeSkillsTable();
         addActionListeners();
     }
 
@@ -63,9 +150,20 @@ public class ExperienceTrackerGUI extends JFrame {
         this.loadAPIButton = new JButton("Load Player from API");
         this.loadFileButton = new JButton("Load Player from File");
         this.refreshButton = new JButton("Refresh Skills");
+        this.refreshButton.setToolTipText("Shift-click to bypass the cache");
         this.savePlayerButton = new JButton("Save Player");
+        this.cancelButton = new JButton("Cancel");
+        this.autoRefreshBox = new JCheckBox("Auto Refresh");
+        this.autoRefreshBox.setToolTipText("Refresh in the background, more often while experience is being gained");
+        this.metricsButton = new JButton("Metrics");
+        this.importButton = new JButton("Import Folder");
+        this.importButton.setToolTipText("Load every saved player in a folder and report their gains");
+        this.browseButton = new JButton("Browse Saves");
+        this.browseButton.setToolTipText("List the saved players in a folder and open one");
         this.savePlayerButton.setEnabled(false);
         this.refreshButton.setEnabled(false);
+        this.cancelButton.setEnabled(false);
+        this.autoRefreshBox.setEnabled(false);
     }
 
     /**
@@ -79,10 +177,37 @@ public class ExperienceTrackerGUI extends JFrame {
     }
 
     /**
-     * Initializes the JPanel which displays the skill data for the current Player
+     * Initializes the JTable which displays the skill data for the current Player.
+     * Clicking an "Update" cell opens the dialog for that skill's Goal or
+     * experience rate.
      */
-    private void initializeSkillsPanel() {
-        this.skillsPanel = new JPanel(new GridBagLayout());
+    private void initializeSkillsTable() {
+        this.skillTableModel = new SkillTableModel();
+        this.skillsTable = new JTable(this.skillTableModel);
+        this.skillTableModel.configure(this.skillsTable);
+
+        this.skillsTable.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = skillsTable.rowAtPoint(e.getPoint());
+                int column = skillsTable.columnAtPoint(e.getPoint());
+                if (row < 0 || column < 0) {
+                    return;
+                }
+
+                // Don't allow setting goals or rates for Overall
+                Skill skill = skillTableModel.getSkillAt(row);
+                if (skill.isOverall()) {
+                    return;
+                }
+
+                if (column == SkillTableModel.UPDATE_GOAL_COLUMN) {
+                    showUpdateGoalDialog(skill);
+                } else if (column == SkillTableModel.UPDATE_RATE_COLUMN) {
+                    showUpdateExpRateDialog(skill);
+                }
+            }
+        });
     }
 
     /**
@@ -106,10 +231,11 @@ public class ExperienceTrackerGUI extends JFrame {
         });
 
         // Listener for refresh skills button
+        // Shift-click skips the cache and always calls the API
         this.refreshButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                refreshPlayer();
+                refreshPlayer((e.getModifiers() & ActionEvent.SHIFT_MASK) != 0);
             }
         });
 
@@ -121,6 +247,46 @@ public class ExperienceTrackerGUI extends JFrame {
             }
         });
 
+        // Listener for cancel button
+        this.cancelButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                cancelPendingTask();
+            }
+        });
+
+        // Listener for metrics button
+        this.metricsButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showMetricsDialog();
+            }
+        });
+
+        // Listener for import folder button
+        this.importButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                importFolder();
+            }
+        });
+
+        // Listener for browse saves button
+        this.browseButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                browseSaves();
+            }
+        });
+
+        // Listener for auto refresh check box
+        this.autoRefreshBox.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                updateAutoRefresh();
+            }
+        });
+
         // Listener for the ENTER key when typing a username
         this.usernameField.addActionListener(new ActionListener() {
             @Override
@@ -153,6 +319,11 @@ public class ExperienceTrackerGUI extends JFrame {
      * - The load from file button
      * - The refresh button
      * - The save to file button
+     * - The cancel button
+     * - The auto refresh check box
+     * - The metrics button
+     * - The import folder button
+     * - The browse saves button
      * 
      * @return JPanel with text field and buttons
      */
@@ -165,6 +336,11 @@ public class ExperienceTrackerGUI extends JFrame {
         topPanel.add(this.loadFileButton);
         topPanel.add(this.refreshButton);
         topPanel.add(this.savePlayerButton);
+        topPanel.add(this.cancelButton);
+        topPanel.add(this.autoRefreshBox);
+        topPanel.add(this.metricsButton);
+        topPanel.add(this.importButton);
+        topPanel.add(this.browseButton);
         return topPanel;
     }
 
@@ -197,21 +373,21 @@ public class ExperienceTrackerGUI extends JFrame {
     }
 
     /**
-     * Creates the JScrollPane for the skills panel. Allows for scrolling
+     * Creates the JScrollPane for the skills table. Allows for scrolling
      * if the table is larger than the GUI window.
      * 
-     * @return JScrollPane for skills panel
+     * @return JScrollPane for skills table
      */
     private JScrollPane createSkillsScrollPane() {
-        JScrollPane scrollPane = new JScrollPane(this.skillsPanel);
+        JScrollPane scrollPane = new JScrollPane(this.skillsTable);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
         return scrollPane;
     }
 
     /**
-     * Fetches data for the username in the text field from the API.
-     * Displays option panes if an error occurs. This will reset set Goals
-     * and Experience Rates.
+     * Fetches data for the username in the text field from the API in the
+     * background. Displays option panes if an error occurs. This will reset set
+     * Goals and Experience Rates.
      */
     private void loadPlayer() {
         String username = this.usernameField.getText().trim();
@@ -225,30 +401,29 @@ public class ExperienceTrackerGUI extends JFrame {
             return;
         }
 
-        try {
-            // Create the new player and enable buttons that require a player
-            this.currentPlayer = new Player(username);
-            this.refreshButton.setEnabled(true);
-            this.savePlayerButton.setEnabled(true);
-            displayCurrentPlayer();
-        } catch (PlayerNotFoundException e) {
-            // Player was not found, display an error
-            JOptionPane.showMessageDialog(this,
-                    "Player not found: " + username,
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-        } catch (Exception e) {
-            // Some unexpected API error occured, display an error
-            JOptionPane.showMessageDialog(this,
-                    "Error loading player: " + e.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        runPlayerTask(withHistory(Player.fetchAsync(username)),
+                "Loading " + username + "...",
+                this::showNewPlayer,
+                error -> {
+                    if (error instanceof PlayerNotFoundException) {
+                        // Player was not found, display an error
+                        showError("Player not found: " + username);
+                    } else if (error instanceof HiscoreUnavailableException) {
+                        // The API is down or overloaded, the username may be fine
+                        showError("Hiscores are unavailable, try again later: " + error.getMessage());
+                    } else if (error instanceof HiscoreRequestRejectedException) {
+                        // The API refused the request, retrying won't help
+                        showError("Hiscores rejected the request: " + error.getMessage());
+                    } else {
+                        // Some unexpected API error occured, display an error
+                        showError("Error loading player: " + error.getMessage());
+                    }
+                });
     }
 
     /**
      * Loads new player from a .osrs file by displaying a file chooser the user can
-     * select the Player files from.
+     * select the Player files from. The file is read in the background.
      * Displays option panes if encountering an error.
      * 
      */
@@ -259,470 +434,379 @@ public class ExperienceTrackerGUI extends JFrame {
         int result = fileChooser.showOpenDialog(this);
 
         if (result == JFileChooser.APPROVE_OPTION) {
-            try {
-                // Create the new Player and enable buttons
-                this.currentPlayer = Player.loadFromFile(
-                        fileChooser.getSelectedFile().getAbsolutePath());
-                this.refreshButton.setEnabled(true);
-                this.savePlayerButton.setEnabled(true);
-                displayCurrentPlayer();
-            } catch (IOException | ClassNotFoundException e) {
-                // If provided an invalid file or there was an error, display it
-                JOptionPane.showMessageDialog(this,
-                        "Error loading player: " + e.getMessage(),
-                        "Error",
-                        JOptionPane.ERROR_MESSAGE);
-            }
+            loadPlayerFromPath(fileChooser.getSelectedFile().toPath().toAbsolutePath());
         }
     }
 
     /**
-     * Refreshes the skill data for the current player. Does not reset Goals
-     * or Experience Rates. Does nothing if there is no current player.
+     * Imports every saved Player under a directory chosen with a file chooser
+     * and shows a report of each username's gains. Files are loaded in
+     * parallel in the background. Doesn't change the current Player.
      */
-    private void refreshPlayer() {
-        // Handle if currentPlayer is not loaded yet. Should be unreachable.
-        if (this.currentPlayer == null) {
+    private void importFolder() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Import Folder");
+        fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
             return;
         }
 
-        try {
-            // Refresh skills data and display new data
-            this.currentPlayer.refreshSkills();
-            displayCurrentPlayer();
-        } catch (Exception e) {
-            // Some unexpected API error occured, display an error
-            JOptionPane.showMessageDialog(this,
-                    "Error refreshing player: " + e.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        Path directory = fileChooser.getSelectedFile().toPath();
+        this.importButton.setEnabled(false);
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return new BulkImporter().importDirectory(directory);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }).whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            this.importButton.setEnabled(true);
+            if (error == null) {
+                showImportReport(directory, result);
+            } else {
+                showError("Error importing folder: " + unwrap(error).getMessage());
+            }
+        }));
     }
 
     /**
-     * Saves the current player to an .osrs file. Displays a file chooser for
-     * the user to select the file path and name.
+     * Lists the saved Players under a directory chosen with a file chooser in
+     * a SaveBrowser. Only the header of each file is read, in the background;
+     * the file that is opened from the browser becomes the current Player.
      */
-    private void savePlayer() {
-        // Handle if currentPlayer is not loaded yet. Should be unreachable.
-        if (this.currentPlayer == null) {
-            JOptionPane.showMessageDialog(this,
-                    "No player loaded to save",
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
+    private void browseSaves() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Browse Saves");
+        fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
             return;
         }
 
-        // Create and display a file chooser
-        JFileChooser fileChooser = new JFileChooser();
-        String defaultFilename = this.currentPlayer.getUsername() + ".osrs";
-        fileChooser.setDialogTitle("Save Player");
-        fileChooser.setSelectedFile(new File(defaultFilename));
-        int result = fileChooser.showSaveDialog(this);
-
-        if (result == JFileChooser.APPROVE_OPTION) {
+        Path directory = fileChooser.getSelectedFile().toPath();
+        this.browseButton.setEnabled(false);
+        CompletableFuture.supplyAsync(() -> {
             try {
-                // Attempt to save the current player to a file
-                this.currentPlayer.saveToFile(fileChooser.getSelectedFile().getAbsolutePath());
-                JOptionPane.showMessageDialog(this,
-                        "Player saved successfully!",
-                        "Success",
-                        JOptionPane.INFORMATION_MESSAGE);
+                return new BulkImporter().readMetadata(directory);
             } catch (IOException e) {
-                // If some IO error occurs, display it
-                JOptionPane.showMessageDialog(this,
-                        "Error saving player: " + e.getMessage(),
-                        "Error",
-                        JOptionPane.ERROR_MESSAGE);
+                throw new CompletionException(e);
             }
-        }
+        }).whenComplete((saves, error) -> SwingUtilities.invokeLater(() -> {
+            this.browseButton.setEnabled(true);
+            if (error != null) {
+                showError("Error browsing folder: " + unwrap(error).getMessage());
+                return;
+            }
+
+            new SaveBrowser(this, "Saves in " + directory, saves, this::loadPlayerFromPath).setVisible(true);
+        }));
     }
 
     /**
-     * Clears and updates the player information panel as well as the skills table.
-     * The skills panel is laid out using a GridBagConstraints.
+     * Loads a Player from a file in the background and makes it the current
+     * Player.
+     * 
+     * @param path the file to load
      */
-    private void displayCurrentPlayer() {
-        updatePlayerInfo();
-        this.skillsPanel.removeAll();
-
-        // GBC with anhor at WEST to align components
-        GridBagConstraints gbc = new GridBagConstraints();
-        gbc.anchor = GridBagConstraints.WEST;
-
-        // Add the components using the GridBagConstraints
-        addSkillHeaders(gbc);
-        addSkillRows(this.currentPlayer.getSkills(), gbc);
-
-        // Repaint the skills panel
-        this.skillsPanel.revalidate();
-        this.skillsPanel.repaint();
+    private void loadPlayerFromPath(Path path) {
+        runPlayerTask(withHistory(Player.loadFromFileAsync(path.toString())),
+                "Loading " + path.getFileName() + "...",
+                this::showNewPlayer,
+                // If provided an invalid file or there was an error, display it
+                error -> showError("Error loading player: " + error.getMessage()));
     }
 
     /**
-     * Adds the headers for the skills panel.
+     * Displays a dialog listing every imported username with the period its
+     * files cover and the experience gained over it, followed by the files
+     * that failed to load.
      * 
-     * @param gbc the GridBagConstraints used to format the table
+     * @param directory the imported directory
+     * @param result    the import result
      */
-    private void addSkillHeaders(GridBagConstraints gbc) {
-        // Top-most Row
-        gbc.gridy = 0;
-
-        // Skill Header
-        gbc.gridx = 0;
-        gbc.weightx = 0.1;
-        addHeaderLabel("Skill", gbc);
-
-        // Rank Header
-        gbc.gridx = 1;
-        gbc.weightx = 0.1;
-        addHeaderLabel("Rank", gbc);
-
-        // Level Header
-        gbc.gridx = 2;
-        gbc.weightx = 0.08;
-        addHeaderLabel("Level", gbc);
-
-        // Experience Header
-        gbc.gridx = 3;
-        gbc.weightx = 0.12;
-        addHeaderLabel("Experience", gbc);
-
-        // Goal Header
-        gbc.gridx = 4;
-        gbc.weightx = 0.1;
-        addHeaderLabel("Goal", gbc);
-
-        // Placeholder for Update Goal button
-        gbc.gridx = 5;
-        gbc.weightx = 0.08;
-        addHeaderLabel("", gbc);
-
-        // Progress Header
-        gbc.gridx = 6;
-        gbc.weightx = 0.12;
-        addHeaderLabel("Progress", gbc);
-
-        // Experience Rate Header
-        gbc.gridx = 7;
-        gbc.weightx = 0.1;
-        addHeaderLabel("Exp/Hour", gbc);
+    private void showImportReport(Path directory, ImportResult result) {
+        StringBuilder report = new StringBuilder();
+        report.append(directory).append(": ").append(result).append("\n\n");
+        report.append(String.format("%-14s %6s  %-20s %-20s %14s%n", "Player", "Files", "From", "To", "Overall gained"));
+        for (PlayerTimeline timeline : result.getTimelines().values()) {
+            report.append(String.format("%-14s %6d  %-20s %-20s %,14d%n",
+                    timeline.getUsername(),
+                    timeline.size(),
+                    timeline.getStart(),
+                    timeline.getEnd(),
+                    timeline.getExperienceGained(SkillName.OVERALL)));
+        }
+        for (Map.Entry<Path, Exception> failure : result.getFailures().entrySet()) {
+            report.append("\nFailed: ").append(failure.getKey()).append(": ").append(failure.getValue());
+        }
 
-        // Placeholder for Update Experience Rate button
-        gbc.gridx = 8;
-        gbc.weightx = 0.08;
-        addHeaderLabel("", gbc);
+        JTextArea reportText = new JTextArea(report.toString(), 20, 90);
+        reportText.setEditable(false);
+        reportText.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        reportText.setCaretPosition(0);
 
-        // Hours to Goal Header
-        gbc.gridx = 9;
-        gbc.weightx = 0.12;
-        addHeaderLabel("Hours to Goal", gbc);
+        JOptionPane.showMessageDialog(this,
+                new JScrollPane(reportText),
+                "Import Report",
+                JOptionPane.PLAIN_MESSAGE);
     }
 
     /**
-     * Adds a row for each skill, cell by cell.
+     * Refreshes the skill data for the current player in the background. Does
+     * not reset Goals or Experience Rates. Does nothing if there is no current
+     * player.
      * 
-     * @param skills the skills for the current player
-     * @param gbc    the GridBagConstraint for the skills panel
-     */
-    private void addSkillRows(ArrayList<Skill> skills, GridBagConstraints gbc) {
-        // Take up as much space as alloted
-        gbc.weighty = 1.0;
-        gbc.fill = GridBagConstraints.BOTH;
-
-        for (int i = 0; i < skills.size(); i++) {
-            Skill skill = skills.get(i);
-            gbc.gridy = i + 1;
-
-            addSkillNameCell(skill, gbc);
-            addRankCell(skill, gbc);
-            addLevelCell(skill, gbc);
-            addExperienceCell(skill, gbc);
-            addGoalCell(skill, gbc);
-            addUpdateGoalButtonCell(skill, gbc);
-            addProgressCell(skill, gbc);
-            addExpRateCell(skill, gbc);
-            addUpdateExpRateButtonCell(skill, gbc);
-            addTimeToGoalCell(skill, gbc);
+     * @param forceRefresh whether to bypass the cache and always call the API
+     */
+    private void refreshPlayer(boolean forceRefresh) {
+        // Handle if currentPlayer is not loaded yet. Should be unreachable.
+        if (this.currentPlayer == null) {
+            return;
         }
+
+        runPlayerTask(this.currentPlayer.refreshSkillsAsync(forceRefresh),
+                "Refreshing " + this.currentPlayer.getUsername() + "...",
+                player -> showRefreshedPlayer(),
+                // Some unexpected API error occured, display an error
+                error -> showError("Error refreshing player: " + error.getMessage()));
     }
 
     /**
-     * Adds a label for the skill's name
-     * 
-     * @param skills the current skill
-     * @param gbc    the GridBagConstraint for the skills panel
+     * Saves the current player to an .osrs file. Displays a file chooser for
+     * the user to select the file path and name. The file is written in the
+     * background.
      */
-    private void addSkillNameCell(Skill skill, GridBagConstraints gbc) {
-        gbc.gridx = 0;
-        gbc.weightx = 0.1;
-        JLabel nameLabel = new JLabel(skill.getName().toString());
-        nameLabel.setFont(new Font("SansSerif", Font.BOLD, 12));
-        nameLabel.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 1, Color.LIGHT_GRAY));
-        this.skillsPanel.add(nameLabel, gbc);
+    private void savePlayer() {
+        // Handle if currentPlayer is not loaded yet. Should be unreachable.
+        if (this.currentPlayer == null) {
+            showError("No player loaded to save");
+            return;
+        }
+
+        // Create and display a file chooser
+        JFileChooser fileChooser = new JFileChooser();
+        String defaultFilename = this.currentPlayer.getUsername() + ".osrs";
+        fileChooser.setDialogTitle("Save Player");
+        fileChooser.setSelectedFile(new File(defaultFilename));
+        int result = fileChooser.showSaveDialog(this);
+
+        if (result == JFileChooser.APPROVE_OPTION) {
+            // Attempt to save the current player to a file
+            runPlayerTask(this.currentPlayer.saveToFileAsync(fileChooser.getSelectedFile().getAbsolutePath()),
+                    "Saving " + this.currentPlayer.getUsername() + "...",
+                    player -> JOptionPane.showMessageDialog(this,
+                            "Player saved successfully!",
+                            "Success",
+                            JOptionPane.INFORMATION_MESSAGE),
+                    // If some IO error occurs, display it
+                    error -> showError("Error saving player: " + error.getMessage()));
+        }
     }
 
     /**
-     * Adds a label for the skill's rank
+     * Replays the recorded history into the Player a load completes with.
+     * Cancelling the returned future also cancels the load.
      * 
-     * @param skills the current skill
-     * @param gbc    the GridBagConstraint for the skills panel
+     * @param loading the load of a new Player
+     * @return a future completing with the Player once its history is replayed
      */
-    private void addRankCell(Skill skill, GridBagConstraints gbc) {
-        gbc.gridx = 1;
-        gbc.weightx = 0.1;
-        JLabel rankLabel = new JLabel(formatNumber(skill.getRank()));
-        rankLabel.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 1, Color.LIGHT_GRAY));
-        this.skillsPanel.add(rankLabel, gbc);
+    private CompletableFuture<Player> withHistory(CompletableFuture<Player> loading) {
+        return Player.cancelsSource(loading.thenApply(this::withHistory), loading);
     }
 
     /**
-     * Adds a label for the skill's level
+     * Replays the recorded history of a newly loaded Player into its measured
+     * experience rates. Runs on the background thread that loaded the Player.
      * 
-     * @param skills the current skill
-     * @param gbc    the GridBagConstraint for the skills panel
+     * @param player the newly loaded Player
+     * @return the same Player
      */
-    private void addLevelCell(Skill skill, GridBagConstraints gbc) {
-        gbc.gridx = 2;
-        gbc.weightx = 0.08;
-        JLabel levelLabel = new JLabel(skill.formattedLevelString());
-        levelLabel.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 1, Color.LIGHT_GRAY));
-        this.skillsPanel.add(levelLabel, gbc);
+    private Player withHistory(Player player) {
+        if (this.snapshotStore != null) {
+            try {
+                player.replayHistory(this.snapshotStore.readAll(player.getUsername()));
+            } catch (IOException e) {
+                // History is optional, the rates will be measured from now on
+                System.err.println("Could not read history for " + player.getUsername() + ": " + e.getMessage());
+            }
+        }
+        return player;
     }
 
     /**
-     * Adds a label for the skill's experience
+     * Makes the given Player the current Player, enables buttons that require
+     * a Player and displays it.
      * 
-     * @param skills the current skill
-     * @param gbc    the GridBagConstraint for the skills panel
+     * @param player the newly loaded Player
      */
-    private void addExperienceCell(Skill skill, GridBagConstraints gbc) {
-        gbc.gridx = 3;
-        gbc.weightx = 0.12;
-        JLabel expLabel = new JLabel(formatNumber(skill.getExperience()));
-        expLabel.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 1, Color.LIGHT_GRAY));
-        this.skillsPanel.add(expLabel, gbc);
+    private void showNewPlayer(Player player) {
+        long start = System.nanoTime();
+        this.currentPlayer = player;
+        this.latestMilestone = null;
+        setInFlight(false);
+        updatePlayerInfo();
+        this.skillTableModel.setPlayer(player);
+        updateAutoRefresh();
+        UI_UPDATE_TIME.recordSince(start);
     }
 
     /**
-     * Adds a label for the skill's goal. Blank cell for overall.
-     * 
-     * @param skills the current skill
-     * @param gbc    the GridBagConstraint for the skills panel
+     * Shows the current Player after a refresh. Only rows whose skill data
+     * changed are repainted.
      */
-    private void addGoalCell(Skill skill, GridBagConstraints gbc) {
-        gbc.gridx = 4;
-        gbc.weightx = 0.1;
-
-        String goalText;
-        // No goals for overall skill
-        if (skill.isOverall()) {
-            goalText = "";
-        } else {
-            Goal goal = this.currentPlayer.getGoal(skill.getName());
-            goalText = goal.toString();
-        }
-
-        JLabel goalLabel = new JLabel(goalText);
-        goalLabel.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 1, Color.LIGHT_GRAY));
-        this.skillsPanel.add(goalLabel, gbc);
+    private void showRefreshedPlayer() {
+        long start = System.nanoTime();
+        updatePlayerInfo();
+        this.skillTableModel.playerRefreshed();
+        UI_UPDATE_TIME.recordSince(start);
     }
 
     /**
-     * Adds a button cell for updating the goal for the skill
-     * 
-     * @param skills the current skill
-     * @param gbc    the GridBagConstraint for the skills panel
-     */
-    private void addUpdateGoalButtonCell(Skill skill, GridBagConstraints gbc) {
-        gbc.gridx = 5;
-        gbc.weightx = 0.08;
-
-        // Don't allow setting goals for Overall
-        if (skill.isOverall()) {
-            JLabel emptyLabel = new JLabel();
-            emptyLabel.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 1, Color.LIGHT_GRAY));
-            this.skillsPanel.add(emptyLabel, gbc);
-        } // Add update button which will display a dialog to update the goal
-        else {
-            JButton updateGoalButton = new JButton("Update");
-            updateGoalButton.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 1, Color.LIGHT_GRAY));
-            updateGoalButton.addActionListener(new ActionListener() {
-                @Override
-                public void actionPerformed(ActionEvent e) {
-                    showUpdateGoalDialog(skill);
-                }
-            });
-            this.skillsPanel.add(updateGoalButton, gbc);
+     * Starts or stops the AutoRefreshScheduler to match the auto refresh check
+     * box. A scheduler only ever refreshes the Player it was started for, so a
+     * newly loaded Player gets a new scheduler.
+     */
+    private void updateAutoRefresh() {
+        boolean wanted = this.autoRefreshBox.isSelected() && this.currentPlayer != null;
+        if (this.autoRefresh != null && (!wanted || this.autoRefresh.getPlayer() != this.currentPlayer)) {
+            this.autoRefresh.stop();
+            this.autoRefresh = null;
         }
-    }
 
-    /**
-     * Adds a progress bar for the skill's progress to goal. Blank cell for overall.
-     * Displays progress as a percentage value, based on the experience needed
-     * to meet the skill's Goal.
-     * 
-     * @param skills the current skill
-     * @param gbc    the GridBagConstraint for the skills panel
-     */
-    private void addProgressCell(Skill skill, GridBagConstraints gbc) {
-        gbc.gridx = 6;
-        gbc.weightx = 0.12;
-
-        // Don't display progress for overall skill
-        if (skill.isOverall()) {
-            JLabel naLabel = new JLabel("");
-            naLabel.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 1, Color.LIGHT_GRAY));
-            this.skillsPanel.add(naLabel, gbc);
-        } // Add progress for the specified skill and display as a progress bar
-        else {
-            int progress = this.currentPlayer.getProgressToGoal(skill.getName());
-            JProgressBar progressBar = createProgressBar(progress);
-            this.skillsPanel.add(progressBar, gbc);
+        if (wanted && this.autoRefresh == null) {
+            AutoRefreshScheduler scheduler = new AutoRefreshScheduler(this.currentPlayer,
+                    player -> SwingUtilities.invokeLater(() -> showAutoRefreshedPlayer(player)),
+                    // Don't interrupt the user with dialogs for background refreshes
+                    error -> System.err.println("Auto refresh failed: " + error.getMessage()));
+            scheduler.start();
+            this.autoRefresh = scheduler;
         }
     }
 
     /**
-     * Adds a label for the skill's experience rate.
+     * Shows a Player refreshed by the AutoRefreshScheduler, unless another
+     * Player has been loaded since. A status message of an in-flight task is
+     * left in place.
      * 
-     * @param skills the current skill
-     * @param gbc    the GridBagConstraint for the skills panel
-     */
-    private void addExpRateCell(Skill skill, GridBagConstraints gbc) {
-        gbc.gridx = 7;
-        gbc.weightx = 0.1;
-
-        String expRateText;
-        // Don't display an experience rate for overall
-        if (skill.isOverall()) {
-            expRateText = "";
-        } // Fetch and format the experience rate for the current skill
-        else {
-            Integer expRate = this.currentPlayer.getExperienceRate(skill.getName());
-            expRateText = (expRate == null) ? "N/A" : formatNumber(expRate);
+     * @param player the refreshed Player
+     */
+    private void showAutoRefreshedPlayer(Player player) {
+        if (player != this.currentPlayer) {
+            return;
         }
 
-        JLabel expRateLabel = new JLabel(expRateText);
-        expRateLabel.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 1, Color.LIGHT_GRAY));
-        this.skillsPanel.add(expRateLabel, gbc);
+        long start = System.nanoTime();
+        if (this.pendingTask == null) {
+            updatePlayerInfo();
+        }
+        this.skillTableModel.playerRefreshed();
+        UI_UPDATE_TIME.recordSince(start);
     }
 
     /**
-     * Adds a button cell for updating the experience rate for the skill
+     * Tracks a background Player task. While it is in flight the load, refresh
+     * and save buttons are disabled and the cancel button is enabled. Once the
+     * task completes, the matching callback is run on the event dispatch
+     * thread. Results of cancelled tasks are dropped.
      * 
-     * @param skills the current skill
-     * @param gbc    the GridBagConstraint for the skills panel
-     */
-    private void addUpdateExpRateButtonCell(Skill skill, GridBagConstraints gbc) {
-        gbc.gridx = 8;
-        gbc.weightx = 0.08;
-
-        // Don't allow setting experience rate for overall
-        if (skill.isOverall()) {
-            JLabel emptyLabel = new JLabel();
-            emptyLabel.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 1, Color.LIGHT_GRAY));
-            this.skillsPanel.add(emptyLabel, gbc);
-        } // Add update button which displays dialog to update the exp rate
-        else {
-            JButton updateExpRateButton = new JButton("Update");
-            updateExpRateButton.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 1, Color.LIGHT_GRAY));
-            updateExpRateButton.addActionListener(new ActionListener() {
-                @Override
-                public void actionPerformed(ActionEvent e) {
-                    showUpdateExpRateDialog(skill);
-                }
-            });
-            this.skillsPanel.add(updateExpRateButton, gbc);
-        }
+     * @param task      the background task
+     * @param status    text to show in the player information label meanwhile
+     * @param onSuccess called with the task's Player when it succeeds
+     * @param onError   called with the cause when the task fails
+     */
+    private void runPlayerTask(CompletableFuture<Player> task, String status,
+            Consumer<Player> onSuccess, Consumer<Throwable> onError) {
+        this.pendingTask = task;
+        setInFlight(true);
+        this.playerInfoLabel.setText(status);
+
+        task.whenComplete((player, error) -> SwingUtilities.invokeLater(() -> {
+            // Ignore tasks that were cancelled or superseded
+            if (task != this.pendingTask) {
+                return;
+            }
+
+            this.pendingTask = null;
+            setInFlight(false);
+            restorePlayerInfo();
+
+            if (error == null) {
+                onSuccess.accept(player);
+            } else if (!(error instanceof CancellationException)) {
+                onError.accept(unwrap(error));
+            }
+        }));
     }
 
     /**
-     * Adds a label for the time to reach the skill's goal
-     * 
-     * @param skills the current skill
-     * @param gbc    the GridBagConstraint for the skills panel
-     */
-    private void addTimeToGoalCell(Skill skill, GridBagConstraints gbc) {
-        gbc.gridx = 9;
-        gbc.weightx = 0.12;
-
-        String timeText;
-        // Don't display time for overall skill
-        if (skill.isOverall()) {
-            timeText = "";
-        } // Format time to goal text for skill
-        else {
-            double timeToGoal = this.currentPlayer.getTimeToGoal(skill.getName());
-            if (timeToGoal < 0) {
-                timeText = "N/A";
-            } else {
-                timeText = String.format("%.2f hours", timeToGoal);
-            }
+     * Cancels the in-flight task, if any, and returns the GUI to its idle state.
+     * The download or file IO behind it is interrupted, so a cancelled refresh
+     * does not change the current Player and a cancelled save leaves the
+     * previous file in place.
+     */
+    private void cancelPendingTask() {
+        if (this.pendingTask == null) {
+            return;
         }
 
-        JLabel timeLabel = new JLabel(timeText);
-        timeLabel.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 1, Color.LIGHT_GRAY));
-        this.skillsPanel.add(timeLabel, gbc);
+        this.pendingTask.cancel(true);
+        this.pendingTask = null;
+        setInFlight(false);
+        restorePlayerInfo();
     }
 
     /**
-     * Creates a progress bar with color based on percentage
+     * Sets the enabled state of the buttons for whether a task is in flight.
+     * Refresh and save additionally require a current Player.
      * 
-     * @param progress the percentange progress
-     * @return JProgressBar for progress to Goal
+     * @param inFlight whether a background task is running
      */
-    private JProgressBar createProgressBar(int progress) {
-        JProgressBar progressBar = new JProgressBar(0, 100);
-        progressBar.setValue(progress);
-        progressBar.setStringPainted(true);
-        progressBar.setString(progress + "%");
-        progressBar.setForeground(getProgressBarColor(progress));
-        progressBar.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 1, Color.LIGHT_GRAY));
-        return progressBar;
+    private void setInFlight(boolean inFlight) {
+        boolean hasPlayer = this.currentPlayer != null;
+        this.loadAPIButton.setEnabled(!inFlight);
+        this.loadFileButton.setEnabled(!inFlight);
+        this.usernameField.setEnabled(!inFlight);
+        this.refreshButton.setEnabled(!inFlight && hasPlayer);
+        this.savePlayerButton.setEnabled(!inFlight && hasPlayer);
+        this.cancelButton.setEnabled(inFlight);
+        this.autoRefreshBox.setEnabled(hasPlayer);
     }
 
     /**
-     * Returns the Color based on the given progress.
-     * RED > ORANGE > YELLOW > GREEN
-     * 
-     * @param progress progress to Goal
-     * @return Color to color progress bar as
-     */
-    private Color getProgressBarColor(int progress) {
-        if (progress < 25) {
-            return Color.RED;
-        } else if (progress < 50) {
-            return Color.ORANGE;
-        } else if (progress < 75) {
-            return Color.YELLOW;
-        } else if (progress < 100) {
-            return Color.GREEN;
+     * Shows the current Player's information again after a status message,
+     * or clears the label if no Player is loaded.
+     */
+    private void restorePlayerInfo() {
+        if (this.currentPlayer == null) {
+            this.playerInfoLabel.setText(" ");
         } else {
-            return Color.GREEN.darker();
+            updatePlayerInfo();
         }
     }
 
     /**
-     * Adds formatted header label to skills panel
+     * Unwraps the CompletionException added by CompletableFuture so error
+     * messages show the original exception.
      * 
-     * @param text the text for the label
-     * @param gbc  the GridBagConstraint for the skills panel
+     * @param error the exception a task completed with
+     * @return the underlying cause
      */
-    private void addHeaderLabel(String text, GridBagConstraints gbc) {
-        JLabel label = new JLabel(text);
-        label.setFont(new Font("SansSerif", Font.BOLD, 14));
-        label.setForeground(new Color(50, 50, 150));
-        this.skillsPanel.add(label, gbc);
+    private Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
     }
 
     /**
-     * Helper for formatting numbers with commas
+     * Displays an error option pane with the given message
      * 
-     * @param number number to format
-     * @return a String of the number formatted with commas
+     * @param message the message to display
      */
-    private String formatNumber(int number) {
-        return String.format("%,d", number);
+    private void showError(String message) {
+        JOptionPane.showMessageDialog(this,
+                message,
+                "Error",
+                JOptionPane.ERROR_MESSAGE);
     }
 
     /**
@@ -731,7 +815,27 @@ public class ExperienceTrackerGUI extends JFrame {
     private void updatePlayerInfo() {
         String username = this.currentPlayer.getUsername();
         String timestamp = this.currentPlayer.getLastRefreshedAt().toString();
-        this.playerInfoLabel.setText("Player: " + username + " | Last Refreshed: " + timestamp);
+        String info = "Player: " + username + " | Last Refreshed: " + timestamp;
+        if (this.latestMilestone != null) {
+            info += " | " + this.latestMilestone;
+        }
+        this.playerInfoLabel.setText(info);
+    }
+
+    /**
+     * Displays a dialog with the current metrics in the Prometheus text format.
+     * The text can be selected and copied.
+     */
+    private void showMetricsDialog() {
+        JTextArea metricsText = new JTextArea(Metrics.scrape(), 30, 80);
+        metricsText.setEditable(false);
+        metricsText.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        metricsText.setCaretPosition(0);
+
+        JOptionPane.showMessageDialog(this,
+                new JScrollPane(metricsText),
+                "Metrics",
+                JOptionPane.PLAIN_MESSAGE);
     }
 
     /**
@@ -813,7 +917,7 @@ public class ExperienceTrackerGUI extends JFrame {
 
                     currentPlayer.updateGoal(skill.getName(), isLevel, target);
                     dialog.dispose();
-                    displayCurrentPlayer();
+                    skillTableModel.skillUpdated(skill.getName());
                 } catch (NumberFormatException ex) {
                     JOptionPane.showMessageDialog(dialog,
                             "Please enter a valid number",
@@ -909,7 +1013,7 @@ public class ExperienceTrackerGUI extends JFrame {
 
                     currentPlayer.updateExperienceRate(skill.getName(), rate);
                     dialog.dispose();
-                    displayCurrentPlayer();
+                    skillTableModel.skillUpdated(skill.getName());
                 } catch (NumberFormatException ex) {
                     JOptionPane.showMessageDialog(dialog,
                             "Please enter a valid number",
@@ -1,3 +1,5 @@
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 
 /**
@@ -22,6 +24,9 @@ public abstract class Goal implements Serializable {
  * for the associated skill
  */
 class ExperienceGoal extends Goal {
+    // Version for Serialization, pinned to the value saved files were written with
+    private static final long serialVersionUID = -5278101182809056329L;
+
     // The experience value needed to satisfy the ExperienceGoal
     private int targetExperience;
 
@@ -67,45 +72,85 @@ class ExperienceGoal extends Goal {
 
 /**
  * A LevelGoal is satisfied when the Player reaches the targetLevel
- * for the associated skill
+ * for the associated skill. LevelGoals are immutable and interned, so there
+ * is only ever one instance per target level. Use LevelGoal.of to get one.
  */
 class LevelGoal extends Goal {
+    // Version for Serialization, pinned to the value saved files were written with
+    private static final long serialVersionUID = -1096208359774561995L;
+    // The lowest and highest valid target levels
+    private static final int MIN_TARGET_LEVEL = 2;
+    private static final int MAX_TARGET_LEVEL = 126;
+    // One shared instance per valid target level, indexed by target level
+    private static final LevelGoal[] INSTANCES = new LevelGoal[MAX_TARGET_LEVEL + 1];
+
+    static {
+        for (int level = MIN_TARGET_LEVEL; level <= MAX_TARGET_LEVEL; level++) {
+            INSTANCES[level] = new LevelGoal(level);
+        }
+    }
+
     // The level needed to satisfy the LevelGoal
-    private int targetLevel;
+    private final int targetLevel;
 
-    // 0-arg constructor, defaults to targetLevel of 99
-    public LevelGoal() throws InvalidGoalException {
-        this(99);
+    // Private so every LevelGoal goes through the interned instances
+    private LevelGoal(int targetLevel) {
+        this.targetLevel = targetLevel;
     }
 
     /**
-     * Creates a new LevelGoal with the provided targetLevel.
-     * Throws an InvalidGoalException if targetLevel < 2 || targetExperience > 126
+     * Returns the shared LevelGoal for a targetLevel of 99
+     * 
+     * @return the LevelGoal for level 99
+     */
+    public static LevelGoal of() {
+        return INSTANCES[99];
+    }
+
+    /**
+     * Returns the shared LevelGoal for the provided targetLevel.
+     * Throws an InvalidGoalException if targetLevel < 2 || targetLevel > 126
      * 
      * @param targetLevel The level that will satisfy the Goal
+     * @return the LevelGoal for targetLevel
      * @throws InvalidGoalException when provided an invalid targetLevel
      */
-    public LevelGoal(int targetLevel) throws InvalidGoalException {
-        if (targetLevel < 2 || targetLevel > 126) {
+    public static LevelGoal of(int targetLevel) throws InvalidGoalException {
+        if (targetLevel < MIN_TARGET_LEVEL || targetLevel > MAX_TARGET_LEVEL) {
             throw new InvalidGoalException();
         }
 
-        this.targetLevel = targetLevel;
+        return INSTANCES[targetLevel];
     }
 
     /**
-     * getTargetExperience calculates the experience needed to acheive the
-     * LevelGoal's targetLevel. The formula is found on the wiki page:
-     * https://oldschool.runescape.wiki/w/Experience#Formula
+     * getTargetExperience looks up the experience needed to acheive the
+     * LevelGoal's targetLevel in the shared XpTable.
      * 
      */
     @Override
     public int getTargetExperience() {
-        int sum = 0;
-        for (int l = 1; l < this.targetLevel; l++) {
-            sum += Math.floor(l + 300.0 * Math.pow(2.0, l / 7.0));
+        return XpTable.getExperienceForLevel(this.targetLevel);
+    }
+
+    // TargetLevel Getter
+    public int getTargetLevel() {
+        return this.targetLevel;
+    }
+
+    /**
+     * Replaces a deserialized LevelGoal with the interned instance so loaded
+     * Players share the same LevelGoals as everything else.
+     * 
+     * @return the interned LevelGoal for the deserialized targetLevel
+     * @throws ObjectStreamException if the saved targetLevel is invalid
+     */
+    private Object readResolve() throws ObjectStreamException {
+        try {
+            return of(this.targetLevel);
+        } catch (InvalidGoalException e) {
+            throw new InvalidObjectException("Invalid target level: " + this.targetLevel);
         }
-        return (int) Math.floor(sum / 4);
     }
 
     /**
@@ -116,4 +161,4 @@ class LevelGoal extends Goal {
     public String toString() {
         return "Level " + this.targetLevel;
     }
-}
\ No newline at end of file
+}
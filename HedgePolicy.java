@@ -0,0 +1,148 @@
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * HedgePolicy decides when a slow hiscore request gets a second, identical
+ * request sent alongside it, so a few slow responses don't set the tail
+ * latency of every refresh. Whichever response arrives first is used.
+ *
+ * A request is hedged once it has taken longer than a quantile, the 95th
+ * percentile by default, of the latencies of recent requests. The threshold
+ * adapts as the API speeds up or slows down, so only the slowest few percent
+ * of requests are hedged. Until enough latencies are known nothing is hedged.
+ *
+ * A budget caps the extra load: every request earns a fraction of a hedge,
+ * 5% by default, and every hedge spends a whole one. A short burst of hedges
+ * can be saved up, but when the API is slow for everyone hedging stops once
+ * the budget is spent instead of doubling the load.
+ *
+ * HedgePolicy is thread safe.
+ */
+public class HedgePolicy {
+    // Default latency quantile after which a request is hedged
+    public static final double DEFAULT_QUANTILE = 0.95;
+    // Default most hedges per request sent
+    public static final double DEFAULT_MAX_HEDGE_FRACTION = 0.05;
+
+    // Number of recent latencies the threshold is taken from
+    private static final int WINDOW = 256;
+    // Latencies needed before anything is hedged
+    private static final int MIN_SAMPLES = 20;
+    // Latencies recorded between recomputing the threshold
+    private static final int RECOMPUTE_EVERY = 16;
+    // Most hedges saved up while the API is fast
+    private static final double MAX_SAVED_HEDGES = 5;
+    // Shortest threshold, so fast responses aren't hedged over noise
+    private static final long MIN_DELAY_NANOS = Duration.ofMillis(50).toNanos();
+
+    // Latency quantile after which a request is hedged
+    private final double quantile;
+    // Most hedges per request sent, 0 disables hedging
+    private final double maxHedgeFraction;
+    // Longest threshold, so a hedge still has time to finish
+    private final long maxDelayNanos;
+    // Recent latencies in nanoseconds, as a ring
+    private final long[] latencies = new long[WINDOW];
+    // Number of latencies recorded
+    private long recorded;
+    // Hedges that may be sent now
+    private double budget;
+    // Current threshold in nanoseconds, -1 until enough latencies are known
+    private volatile long delayNanos = -1;
+
+    /**
+     * Creates a new HedgePolicy hedging after the default quantile and
+     * capped at the default fraction
+     *
+     * @param maxDelay the longest threshold, should be well below the request
+     *                 timeout
+     */
+    public HedgePolicy(Duration maxDelay) {
+        this(DEFAULT_QUANTILE, DEFAULT_MAX_HEDGE_FRACTION, maxDelay);
+    }
+
+    /**
+     * Creates a new HedgePolicy
+     *
+     * @param quantile         the latency quantile after which a request is
+     *                         hedged, between 0 and 1
+     * @param maxHedgeFraction the most hedges per request sent, 0 to never
+     *                         hedge
+     * @param maxDelay         the longest threshold, should be well below the
+     *                         request timeout
+     * @throws IllegalArgumentException if quantile or maxHedgeFraction is out
+     *                                  of range, or maxDelay is not positive
+     */
+    public HedgePolicy(double quantile, double maxHedgeFraction, Duration maxDelay) {
+        if (!(quantile > 0 && quantile < 1) || !(maxHedgeFraction >= 0 && maxHedgeFraction <= 1)
+                || maxDelay.isNegative() || maxDelay.isZero()) {
+            throw new IllegalArgumentException("Invalid hedging settings: " + quantile + ", " + maxHedgeFraction
+                    + ", " + maxDelay);
+        }
+
+        this.quantile = quantile;
+        this.maxHedgeFraction = maxHedgeFraction;
+        this.maxDelayNanos = Math.max(MIN_DELAY_NANOS, maxDelay.toNanos());
+    }
+
+    /**
+     * Counts a request being sent toward the hedge budget
+     *
+     * @return how long to wait for its response before hedging it, in
+     *         nanoseconds, or -1 if it should not be hedged
+     */
+    public long requestStarted() {
+        if (this.maxHedgeFraction == 0) {
+            return -1;
+        }
+
+        synchronized (this) {
+            this.budget = Math.min(MAX_SAVED_HEDGES, this.budget + this.maxHedgeFraction);
+        }
+        return this.delayNanos;
+    }
+
+    /**
+     * Takes a hedge from the budget, for a request that passed the threshold
+     *
+     * @return true if the hedge may be sent
+     */
+    public synchronized boolean tryHedge() {
+        if (this.budget < 1) {
+            return false;
+        }
+        this.budget -= 1;
+        return true;
+    }
+
+    /**
+     * Records the latency of a response, updating the threshold every few
+     * responses
+     *
+     * @param nanos the time from sending the request until the response
+     *              arrived
+     */
+    public void record(long nanos) {
+        long[] window = null;
+        synchronized (this) {
+            this.latencies[(int) (this.recorded % WINDOW)] = nanos;
+            this.recorded++;
+            if (this.recorded >= MIN_SAMPLES
+                    && (this.recorded == MIN_SAMPLES || this.recorded % RECOMPUTE_EVERY == 0)) {
+                window = Arrays.copyOf(this.latencies, (int) Math.min(this.recorded, WINDOW));
+            }
+        }
+
+        // Sort outside the lock, a late update only delays the new threshold
+        if (window != null) {
+            Arrays.sort(window);
+            long threshold = window[Math.min(window.length - 1, (int) (this.quantile * window.length))];
+            this.delayNanos = Math.max(MIN_DELAY_NANOS, Math.min(this.maxDelayNanos, threshold));
+        }
+    }
+
+    // Delay Getter, the current threshold in nanoseconds or -1 if unknown
+    public long getDelayNanos() {
+        return this.delayNanos;
+    }
+}
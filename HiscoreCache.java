@@ -0,0 +1,237 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HiscoreCache keeps recently fetched skill data in memory so repeated loads
+ * of the same username within a short window skip the hiscore API. Entries
+ * expire after a time-to-live and the least recently used entry is evicted
+ * once the cache is full.
+ *
+ * Usernames are normalized before use as keys, so "Iron Sushi", "iron_sushi"
+ * and "IRON-SUSHI" share an entry. Hits, misses and evictions are counted for
+ * monitoring.
+ *
+ * Every entry keeps the time its skills were fetched, so a Player refreshed
+ * from the cache is stamped with when the data was actually observed.
+ */
+public class HiscoreCache {
+    // Default maximum number of usernames kept in the cache
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+    // Default time an entry stays valid after it was fetched
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(60);
+
+    // Maximum number of usernames kept in the cache
+    private final int maxEntries;
+    // Time an entry stays valid after it was fetched, in nanoseconds
+    private final long ttlNanos;
+    // The cached entries, in least to most recently used order
+    private final LinkedHashMap<String, Entry> entries;
+    // Number of lookups answered from the cache
+    private final LongAdder hits = new LongAdder();
+    // Number of lookups that had to go to the API
+    private final LongAdder misses = new LongAdder();
+    // Number of entries removed for being expired or least recently used
+    private final LongAdder evictions = new LongAdder();
+
+    // 0-arg constructor, uses the default size and time-to-live
+    public HiscoreCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL);
+    }
+
+    /**
+     * Creates a new HiscoreCache with the provided limits.
+     *
+     * @param maxEntries the maximum number of usernames to keep
+     * @param ttl        how long an entry stays valid after it was fetched
+     * @throws IllegalArgumentException if maxEntries or ttl is not positive
+     */
+    public HiscoreCache(int maxEntries, Duration ttl) {
+        if (maxEntries < 1 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Cache size and TTL must be positive");
+        }
+
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        // Access order makes iteration order least recently used first
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > HiscoreCache.this.maxEntries) {
+                    HiscoreCache.this.evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached skills for a username, or null if there is no entry
+     * or the entry has expired.
+     *
+     * @param username the username to look up
+     * @return the cached SkillData, or null on a miss
+     */
+    public SkillData get(String username) {
+        Cached cached = lookup(username);
+        return (cached == null) ? null : cached.getSkills();
+    }
+
+    /**
+     * Returns the cached skills for a username and when they were fetched, or
+     * null if there is no entry or the entry has expired.
+     *
+     * @param username the username to look up
+     * @return the cached entry, or null on a miss
+     */
+    public synchronized Cached lookup(String username) {
+        String key = normalize(username);
+        Entry entry = this.entries.get(key);
+
+        if (entry != null && System.nanoTime() - entry.fetchedAtNanos >= this.ttlNanos) {
+            // Expired entries are dropped so they don't hold a slot
+            this.entries.remove(key);
+            this.evictions.increment();
+            entry = null;
+        }
+
+        if (entry == null) {
+            this.misses.increment();
+            return null;
+        }
+
+        this.hits.increment();
+        return entry.cached;
+    }
+
+    /**
+     * Stores freshly fetched skills for a username, replacing any older entry.
+     * The skills are recorded as fetched now.
+     *
+     * @param username the username the skills belong to
+     * @param skills   the fetched skills, stored without copying since
+     *                 SkillData is immutable
+     */
+    public synchronized void put(String username, SkillData skills) {
+        this.entries.put(normalize(username), new Entry(new Cached(skills, LocalDateTime.now()), System.nanoTime()));
+    }
+
+    /**
+     * Removes the entry for a username, if there is one
+     *
+     * @param username the username to remove
+     */
+    public synchronized void invalidate(String username) {
+        this.entries.remove(normalize(username));
+    }
+
+    /**
+     * Removes all expired entries. Expired entries are also dropped lazily on
+     * lookup, so this is only needed to free memory sooner.
+     */
+    public synchronized void purgeExpired() {
+        long now = System.nanoTime();
+        Iterator<Entry> it = this.entries.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().fetchedAtNanos >= this.ttlNanos) {
+                it.remove();
+                this.evictions.increment();
+            }
+        }
+    }
+
+    // Size Getter, includes expired entries that have not been dropped yet
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    // Hit Count Getter
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    // Miss Count Getter
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    // Eviction Count Getter
+    public long getEvictionCount() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * Normalizes a username into its canonical key, used wherever usernames
+     * are compared. The hiscores ignore case and treat spaces, underscores,
+     * hyphens and non-breaking spaces in names as the same character, so the
+     * key lower cases the name, turns each run of those separators into one
+     * space and trims it.
+     *
+     * @param username the username to normalize
+     * @return the canonical key for username
+     */
+    static String normalize(String username) {
+        StringBuilder key = new StringBuilder(username.length());
+        boolean separator = false;
+        for (int i = 0; i < username.length(); i++) {
+            char c = username.charAt(i);
+            if (c == ' ' || c == '_' || c == '-' || c == '\u00A0' || Character.isWhitespace(c)) {
+                separator = true;
+                continue;
+            }
+            if (separator && key.length() > 0) {
+                key.append(' ');
+            }
+            separator = false;
+            key.append(c);
+        }
+        return key.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Cached SkillData and the time it was fetched
+     */
+    public static final class Cached {
+        // The fetched skills
+        private final SkillData skills;
+        // When the skills were fetched
+        private final LocalDateTime fetchedAt;
+
+        private Cached(SkillData skills, LocalDateTime fetchedAt) {
+            this.skills = skills;
+            this.fetchedAt = fetchedAt;
+        }
+
+        // Skills Getter
+        public SkillData getSkills() {
+            return this.skills;
+        }
+
+        // Fetched At Getter
+        public LocalDateTime getFetchedAt() {
+            return this.fetchedAt;
+        }
+    }
+
+    /**
+     * A cache entry and when it was stored, for expiry
+     */
+    private static class Entry {
+        // The cached skills and their fetch time
+        private final Cached cached;
+        // When the skills were fetched, from System.nanoTime
+        private final long fetchedAtNanos;
+
+        private Entry(Cached cached, long fetchedAtNanos) {
+            this.cached = cached;
+            this.fetchedAtNanos = fetchedAtNanos;
+        }
+    }
+}
@@ -0,0 +1,569 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * HiscoreClient fetches skill data from the hiscore API over one shared
+ * HttpClient, so connections are pooled and reused, and HTTP/2 is used when
+ * the server supports it. Responses are requested gzip compressed and
+ * decompressed while they are parsed.
+ *
+ * Failures are told apart:
+ * - A 404 status means the player does not exist and is reported as a
+ *   PlayerNotFoundException straight away
+ * - Timeouts, connection errors and 408, 429 or 5xx statuses are transient
+ *   and are retried with exponential backoff and jitter, then reported as a
+ *   HiscoreUnavailableException
+ * - Any other status means the API rejected the request itself and is
+ *   reported as a HiscoreRequestRejectedException straight away
+ *
+ * A circuit breaker counts consecutive transient failures. Once it opens,
+ * requests fail fast with a HiscoreUnavailableException until a cool-down has
+ * passed, then a single request is let through to probe whether the API is
+ * back.
+ *
+ * Slow requests are hedged as decided by a HedgePolicy: once a request has
+ * taken longer than recent requests usually do, an identical one is sent
+ * alongside it, the first response to arrive is used and the other request
+ * is cancelled. The policy caps how many requests are hedged.
+ *
+ * HiscoreClient is thread safe.
+ */
+public class HiscoreClient {
+    // Static URL for API to fetch skills data
+    public static final String HISCORE_URL = "https://secure.runescape.com/m=hiscore_oldschool/index_lite.ws?player=%s";
+    // Default number of attempts per fetch, including the first
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    // Default delay before the first retry, doubled for every further retry
+    public static final Duration DEFAULT_BASE_BACKOFF = Duration.ofMillis(250);
+    // Default consecutive transient failures that open the circuit breaker
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    // Default time the circuit breaker stays open before probing again
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+    // System property turning hedging off for the default client when false
+    public static final String HEDGING_PROPERTY = "hiscore.hedging";
+
+    // Longest delay between attempts, including any Retry-After from the API
+    private static final long MAX_BACKOFF_MILLIS = 4000;
+    // Time allowed for connecting and for every request
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+    // Longest wait before hedging, leaving the hedge time to finish
+    private static final Duration MAX_HEDGE_DELAY = REQUEST_TIMEOUT.dividedBy(2);
+
+    // Timings of hiscore API requests, from the start of each attempt
+    private static final Metrics.Histogram HTTP_FIRST_BYTE_TIME = Metrics.timer(
+            "hiscore_http_first_byte_seconds", "Time until the hiscore API response headers arrived");
+    private static final Metrics.Histogram HTTP_TOTAL_TIME = Metrics.timer(
+            "hiscore_http_request_seconds", "Total time of hiscore API requests, including parsing");
+    // Time spent reading and parsing response bodies
+    private static final Metrics.Histogram PARSE_TIME = Metrics.timer(
+            "hiscore_parse_seconds", "Time reading and parsing hiscore API response bodies");
+    // Size of response bodies, after decompression
+    private static final Metrics.Histogram RESPONSE_SIZE = Metrics.histogram(
+            "hiscore_response_bytes", "Size of hiscore API response bodies");
+    // Attempts repeated after a transient failure
+    private static final Metrics.Counter RETRIES = Metrics.counter(
+            "hiscore_retries_total", "Hiscore API requests retried after a transient failure");
+    // Fetches rejected without a request because the circuit was open
+    private static final Metrics.Counter REJECTED = Metrics.counter(
+            "hiscore_circuit_rejections_total", "Hiscore fetches failed fast by the open circuit breaker");
+    // Slow requests that had a second request sent alongside them
+    private static final Metrics.Counter HEDGED = Metrics.counter(
+            "hiscore_hedged_requests_total", "Slow hiscore API requests hedged with a second request");
+    // Hedged requests answered by the second request first
+    private static final Metrics.Counter HEDGE_WINS = Metrics.counter(
+            "hiscore_hedge_wins_total", "Hedged hiscore API requests answered by the hedge first");
+    // Name and description of the per-status response counters
+    private static final String HTTP_RESPONSES = "hiscore_http_responses_total";
+    private static final String HTTP_RESPONSES_HELP = "Hiscore API responses by status code, error if none was received";
+
+    // Shared by every request so connections are reused
+    private final HttpClient httpClient;
+    // URL format the username is inserted into
+    private final String urlFormat;
+    // Retry settings
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    // Circuit breaker settings
+    private final int failureThreshold;
+    private final long openNanos;
+    // Transient failures since the last success
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    // When the open circuit lets a probe through, from System.nanoTime
+    private volatile long openUntilNanos;
+    // Whether a probe request is in flight while the circuit is half open
+    private final AtomicBoolean probing = new AtomicBoolean();
+    // Decides which slow requests are hedged
+    private final HedgePolicy hedgePolicy;
+
+    // 0-arg constructor, uses the hiscore API and the default settings.
+    // Hedges unless the hiscore.hedging system property is false.
+    public HiscoreClient() {
+        this(HISCORE_URL, DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_BACKOFF, DEFAULT_FAILURE_THRESHOLD,
+                DEFAULT_OPEN_DURATION, Boolean.parseBoolean(System.getProperty(HEDGING_PROPERTY, "true"))
+                        ? new HedgePolicy(MAX_HEDGE_DELAY)
+                        : new HedgePolicy(HedgePolicy.DEFAULT_QUANTILE, 0, MAX_HEDGE_DELAY));
+    }
+
+    /**
+     * Creates a new HiscoreClient with the provided settings.
+     *
+     * @param urlFormat        the API URL with a %s where the username goes
+     * @param maxAttempts      attempts per fetch, including the first
+     * @param baseBackoff      delay before the first retry
+     * @param failureThreshold consecutive transient failures that open the
+     *                         circuit breaker
+     * @param openDuration     how long the circuit stays open before probing
+     * @throws IllegalArgumentException if a setting is not positive
+     */
+    public HiscoreClient(String urlFormat, int maxAttempts, Duration baseBackoff, int failureThreshold,
+            Duration openDuration) {
+        this(urlFormat, maxAttempts, baseBackoff, failureThreshold, openDuration, new HedgePolicy(MAX_HEDGE_DELAY));
+    }
+
+    /**
+     * Creates a new HiscoreClient with the provided settings and hedging.
+     *
+     * @param urlFormat        the API URL with a %s where the username goes
+     * @param maxAttempts      attempts per fetch, including the first
+     * @param baseBackoff      delay before the first retry
+     * @param failureThreshold consecutive transient failures that open the
+     *                         circuit breaker
+     * @param openDuration     how long the circuit stays open before probing
+     * @param hedgePolicy      decides which slow requests are hedged
+     * @throws IllegalArgumentException if a setting is not positive
+     */
+    public HiscoreClient(String urlFormat, int maxAttempts, Duration baseBackoff, int failureThreshold,
+            Duration openDuration, HedgePolicy hedgePolicy) {
+        if (maxAttempts < 1 || failureThreshold < 1 || baseBackoff.isNegative() || openDuration.isNegative()) {
+            throw new IllegalArgumentException("Retry and circuit breaker settings must be positive");
+        }
+
+        this.urlFormat = urlFormat;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoff.toMillis();
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.hedgePolicy = hedgePolicy;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    // Hedge Policy Getter
+    public HedgePolicy getHedgePolicy() {
+        return this.hedgePolicy;
+    }
+
+    // Whether the circuit breaker is open and fetches currently fail fast
+    public boolean isCircuitOpen() {
+        return this.consecutiveFailures.get() >= this.failureThreshold
+                && System.nanoTime() - this.openUntilNanos < 0;
+    }
+
+    /**
+     * Fetches and parses a player's skill data, retrying transient failures.
+     *
+     * @param username the player to fetch
+     * @return the parsed skills
+     * @throws PlayerNotFoundException         if the API has no such player
+     * @throws HiscoreUnavailableException     if the API could not be reached
+     *                                         after retrying, or the circuit
+     *                                         is open
+     * @throws HiscoreRequestRejectedException if the API rejected the request
+     * @throws InterruptedException            if interrupted while waiting
+     */
+    public SkillData fetch(String username)
+            throws PlayerNotFoundException, HiscoreUnavailableException, HiscoreRequestRejectedException,
+            InterruptedException {
+        return fetch(username, null);
+    }
+
+    /**
+     * Fetches and parses a player's skill data, retrying transient failures.
+     * If nothing changed since a previous fetch, the previous SkillData is
+     * returned instead of a copy.
+     *
+     * @param username the player to fetch
+     * @param previous the player's previously fetched skills, may be null
+     * @return the parsed skills, previous if they are unchanged
+     * @throws PlayerNotFoundException         if the API has no such player
+     * @throws HiscoreUnavailableException     if the API could not be reached
+     *                                         after retrying, or the circuit
+     *                                         is open
+     * @throws HiscoreRequestRejectedException if the API rejected the request
+     * @throws InterruptedException            if interrupted while waiting
+     */
+    public SkillData fetch(String username, SkillData previous)
+            throws PlayerNotFoundException, HiscoreUnavailableException, HiscoreRequestRejectedException,
+            InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(toUri(username))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+
+        Exception lastFailure = null;
+        for (int attempt = 1; attempt <= this.maxAttempts; attempt++) {
+            if (!allowRequest()) {
+                REJECTED.increment();
+                throw new HiscoreUnavailableException("Hiscore API is unavailable, not retrying yet", lastFailure);
+            }
+
+            // Read after allowRequest, so a probe is never missed. A request
+            // wrongly taken for one only lets another probe through.
+            boolean probe = this.consecutiveFailures.get() >= this.failureThreshold;
+            boolean recorded = false;
+            long retryAfterMillis = 0;
+            try {
+                SkillData fetched = attempt(request, previous);
+                recordSuccess();
+                recorded = true;
+                return fetched;
+            } catch (PlayerNotFoundException e) {
+                // The API answered, so it is up
+                recordSuccess();
+                recorded = true;
+                throw e;
+            } catch (RejectedStatusException e) {
+                // Not retried and not counted either way, an unexpected
+                // status says nothing about whether the API is up
+                throw new HiscoreRequestRejectedException(e.getMessage());
+            } catch (TransientStatusException e) {
+                recordFailure();
+                recorded = true;
+                lastFailure = e;
+                retryAfterMillis = e.retryAfterMillis;
+            } catch (IOException e) {
+                recordFailure();
+                recorded = true;
+                lastFailure = e;
+            } finally {
+                if (probe && !recorded) {
+                    // Interrupted or failed unexpectedly without telling
+                    // whether the API is up, so let the next request probe
+                    this.probing.set(false);
+                }
+            }
+
+            if (attempt < this.maxAttempts) {
+                RETRIES.increment();
+                Thread.sleep(Math.max(backoffMillis(attempt), Math.min(retryAfterMillis, MAX_BACKOFF_MILLIS)));
+            }
+        }
+        throw new HiscoreUnavailableException("Hiscore API failed " + this.maxAttempts + " times: "
+                + lastFailure.getMessage(), lastFailure);
+    }
+
+    /**
+     * Sends one request and parses the response
+     *
+     * @param request  the request to send
+     * @param previous the previously fetched skills, reused if unchanged
+     * @return the parsed skills
+     * @throws PlayerNotFoundException  on a 404 status
+     * @throws TransientStatusException on a 408, 429 or 5xx status
+     * @throws RejectedStatusException  on any other status but 200
+     * @throws IOException              if the request or reading the body
+     *                                  failed
+     * @throws InterruptedException     if interrupted while waiting
+     */
+    private SkillData attempt(HttpRequest request, SkillData previous) throws PlayerNotFoundException, IOException, InterruptedException {
+        long start = System.nanoTime();
+
+        HttpResponse<InputStream> response;
+        try {
+            response = send(request);
+        } catch (IOException e) {
+            Metrics.counter(HTTP_RESPONSES, HTTP_RESPONSES_HELP, "status", "error").increment();
+            throw e;
+        }
+        HTTP_FIRST_BYTE_TIME.recordSince(start);
+        this.hedgePolicy.record(System.nanoTime() - start);
+        int status = response.statusCode();
+        Metrics.counter(HTTP_RESPONSES, HTTP_RESPONSES_HELP, "status", String.valueOf(status)).increment();
+
+        // Checked before decoding, an error body may not be gzip compressed
+        // whatever the headers say
+        if (status != 200) {
+            response.body().close();
+            if (status == 404) {
+                throw new PlayerNotFoundException();
+            } else if (status == 408 || status == 429 || status >= 500) {
+                throw new TransientStatusException(status, retryAfterMillis(response));
+            } else {
+                throw new RejectedStatusException(status);
+            }
+        }
+
+        try (InputStream body = decode(response)) {
+            HiscoreParser parser = HiscoreParser.acquire();
+            try {
+                long parseStart = System.nanoTime();
+                parser.parse(body);
+
+                // Order of skills is always returned the same way,
+                // So the parser's indexes are SkillName ordinals
+                SkillData fetched = SkillData.from(parser, previous);
+
+                PARSE_TIME.recordSince(parseStart);
+                RESPONSE_SIZE.record(parser.getBytesRead());
+                HTTP_TOTAL_TIME.recordSince(start);
+                return fetched;
+            } finally {
+                HiscoreParser.release(parser);
+            }
+        }
+    }
+
+    /**
+     * Sends a request, hedging it if the response is slower than the policy's
+     * threshold and the budget allows. The first response to arrive wins and
+     * the other request is cancelled. A request that fails doesn't fail the
+     * other one, only both failing does.
+     *
+     * @param request the request to send
+     * @return the first response
+     * @throws IOException          if the request, and its hedge if one was
+     *                              sent, failed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private HttpResponse<InputStream> send(HttpRequest request) throws IOException, InterruptedException {
+        long delayNanos = this.hedgePolicy.requestStarted();
+        if (delayNanos < 0) {
+            return this.httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        }
+
+        CompletableFuture<HttpResponse<InputStream>> primary = this.httpClient.sendAsync(request,
+                HttpResponse.BodyHandlers.ofInputStream());
+        try {
+            return primary.get(delayNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Slower than usual, hedge it below
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            primary.cancel(true);
+            throw e;
+        }
+
+        if (!this.hedgePolicy.tryHedge()) {
+            return await(primary);
+        }
+        HEDGED.increment();
+        CompletableFuture<HttpResponse<InputStream>> hedge = this.httpClient.sendAsync(request,
+                HttpResponse.BodyHandlers.ofInputStream());
+
+        // Completes with the first response, or the last failure
+        CompletableFuture<HttpResponse<InputStream>> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<HttpResponse<InputStream>> sent : List.of(primary, hedge)) {
+            sent.whenComplete((response, failure) -> {
+                if (failure == null) {
+                    first.complete(response);
+                } else if (failures.incrementAndGet() == 2) {
+                    first.completeExceptionally(failure);
+                }
+            });
+        }
+
+        HttpResponse<InputStream> response = null;
+        try {
+            response = await(first);
+            if (hedge.isDone() && !hedge.isCompletedExceptionally() && hedge.join() == response) {
+                HEDGE_WINS.increment();
+            }
+            return response;
+        } finally {
+            discard(primary, response);
+            discard(hedge, response);
+        }
+    }
+
+    /**
+     * Cancels a request that lost the race. If its response arrived anyway,
+     * its body is closed so the connection is released.
+     *
+     * @param sent   the request
+     * @param winner the response being used, null if none
+     */
+    private static void discard(CompletableFuture<HttpResponse<InputStream>> sent, HttpResponse<InputStream> winner) {
+        sent.cancel(true);
+        sent.thenAccept(response -> {
+            if (response != winner) {
+                try {
+                    response.body().close();
+                } catch (IOException e) {
+                    // Nothing more to release
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits for a request sent asynchronously, cancelling it if interrupted
+     *
+     * @param sent the request
+     * @return its response
+     * @throws IOException          if the request failed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static HttpResponse<InputStream> await(CompletableFuture<HttpResponse<InputStream>> sent)
+            throws IOException, InterruptedException {
+        try {
+            return sent.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            sent.cancel(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the failure of an asynchronous request as an IOException, the
+     * way a synchronous send would have thrown it
+     *
+     * @param e the failure
+     * @return the IOException to throw
+     */
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IOException(cause);
+    }
+
+    /**
+     * Returns whether a request may be sent. While the circuit is open only
+     * one probe is let through once the cool-down has passed.
+     *
+     * @return true if the request may be sent
+     */
+    private boolean allowRequest() {
+        if (this.consecutiveFailures.get() < this.failureThreshold) {
+            return true;
+        }
+        if (System.nanoTime() - this.openUntilNanos < 0) {
+            return false;
+        }
+        return this.probing.compareAndSet(false, true);
+    }
+
+    // Closes the circuit after the API answered
+    private void recordSuccess() {
+        this.consecutiveFailures.set(0);
+        this.probing.set(false);
+    }
+
+    // Counts a transient failure, opening the circuit at the threshold
+    private void recordFailure() {
+        if (this.consecutiveFailures.incrementAndGet() >= this.failureThreshold) {
+            this.openUntilNanos = System.nanoTime() + this.openNanos;
+            this.probing.set(false);
+        }
+    }
+
+    /**
+     * Returns the delay before the next attempt: the base backoff doubled for
+     * every attempt made, capped, with the upper half randomized so clients
+     * failing together don't retry together.
+     *
+     * @param attempt the number of attempts made so far
+     * @return the delay in milliseconds
+     */
+    private long backoffMillis(int attempt) {
+        long delay = Math.min(MAX_BACKOFF_MILLIS, this.baseBackoffMillis << Math.min(attempt - 1, 20));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * Builds the request URI for a username
+     *
+     * @param username the player to fetch
+     * @return the URI with the username encoded
+     */
+    private URI toUri(String username) {
+        String encoded = URLEncoder.encode(username, StandardCharsets.UTF_8).replace("+", "%20");
+        return URI.create(String.format(this.urlFormat, encoded));
+    }
+
+    /**
+     * Returns the response body, decompressing it while it is read if the API
+     * sent it gzip compressed
+     *
+     * @param response the response
+     * @return the body stream
+     * @throws IOException if the gzip header can't be read
+     */
+    private static InputStream decode(HttpResponse<InputStream> response) throws IOException {
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("");
+        if (encoding.equalsIgnoreCase("gzip")) {
+            return new GZIPInputStream(response.body());
+        }
+        return response.body();
+    }
+
+    /**
+     * Reads a Retry-After header given in seconds
+     *
+     * @param response the response
+     * @return the requested delay in milliseconds, 0 if none
+     */
+    private static long retryAfterMillis(HttpResponse<?> response) {
+        try {
+            return Long.parseLong(response.headers().firstValue("Retry-After").orElse("0").trim()) * 1000;
+        } catch (NumberFormatException e) {
+            // An HTTP date, fall back to the normal backoff
+            return 0;
+        }
+    }
+
+    /**
+     * A 408, 429 or 5xx response, retried like an IOException
+     */
+    private static class TransientStatusException extends IOException {
+        private static final long serialVersionUID = 1L;
+        // Delay the API asked for, 0 if none
+        private final long retryAfterMillis;
+
+        private TransientStatusException(int status, long retryAfterMillis) {
+            super("Hiscore API responded with status " + status);
+            this.retryAfterMillis = retryAfterMillis;
+        }
+    }
+
+    /**
+     * A response with an unexpected status, reported without retrying
+     */
+    private static class RejectedStatusException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private RejectedStatusException(int status) {
+            super("Hiscore API rejected the request with status " + status);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * HiscoreParser decodes the CSV returned by the hiscore API straight from
+ * bytes into primitive arrays, without creating a String per line or per
+ * field.
+ *
+ * The API returns one "rank,level,experience" row per skill, in the order of
+ * the SkillName enum, followed by "rank,score" rows for activities. Rows with
+ * fewer than three fields are skipped, the same way the API order is relied on
+ * everywhere else.
+ *
+ * A parser reuses its read buffer and result arrays between calls, so it is
+ * not thread safe. Fetches run on short-lived virtual threads, so parsers are
+ * shared through a small pool instead of per thread: acquire() one, and
+ * release() it once its results are copied.
+ */
+public final class HiscoreParser {
+    // Number of skill rows returned by the API
+    public static final int SKILL_COUNT = SkillName.values().length;
+    // Initial size of the read buffer, enough for a full response
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+    // Most idle parsers kept for reuse, enough for the usual concurrent fetches
+    private static final int POOL_SIZE = 16;
+    // Idle parsers, taken by acquire and returned by release
+    private static final ArrayBlockingQueue<HiscoreParser> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    // Buffer the response is read into, grown if a response doesn't fit
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    // Parsed ranks, levels and experience, indexed by SkillName ordinal
+    private final int[] ranks = new int[SKILL_COUNT];
+    private final int[] levels = new int[SKILL_COUNT];
+    private final int[] experience = new int[SKILL_COUNT];
+    // Number of skill rows found by the last parse
+    private int skillCount;
+    // Number of bytes read by the last parse from a stream
+    private int bytesRead;
+
+    /**
+     * Takes an idle parser from the pool, or creates one if none is idle
+     *
+     * @return a parser only used by the caller until it is released
+     */
+    public static HiscoreParser acquire() {
+        HiscoreParser parser = POOL.poll();
+        return (parser == null) ? new HiscoreParser() : parser;
+    }
+
+    /**
+     * Returns a parser to the pool. It is dropped if the pool is full. The
+     * parser must not be used afterwards.
+     *
+     * @param parser the parser to release
+     */
+    public static void release(HiscoreParser parser) {
+        POOL.offer(parser);
+    }
+
+    /**
+     * Reads the whole stream into the reusable buffer and parses it. Does not
+     * close the stream.
+     *
+     * @param in the API response body
+     * @return the number of skill rows found
+     * @throws IOException if reading fails or the response is malformed
+     */
+    public int parse(InputStream in) throws IOException {
+        int length = 0;
+        int n;
+        while ((n = in.read(this.buffer, length, this.buffer.length - length)) != -1) {
+            length += n;
+            if (length == this.buffer.length) {
+                this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+            }
+        }
+
+        this.bytesRead = length;
+        return parse(this.buffer, length);
+    }
+
+    /**
+     * Parses the first length bytes of data as an API response.
+     *
+     * @param data   the response bytes
+     * @param length the number of bytes to parse
+     * @return the number of skill rows found
+     * @throws IOException if the response is malformed
+     */
+    public int parse(byte[] data, int length) throws IOException {
+        this.skillCount = 0;
+
+        // Fields of the current row. Only the first three are kept.
+        int field = 0;
+        int first = 0;
+        int second = 0;
+        int third = 0;
+        // The number being decoded
+        long value = 0;
+        boolean negative = false;
+        boolean hasDigits = false;
+
+        // One extra iteration past the end acts as a final newline
+        for (int i = 0; i <= length; i++) {
+            byte b = (i < length) ? data[i] : (byte) '\n';
+
+            if (b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                if (value > Integer.MAX_VALUE) {
+                    throw new IOException("Number too large in hiscore response");
+                }
+                hasDigits = true;
+            } else if (b == '-' && !hasDigits && !negative) {
+                negative = true;
+            } else if (b == ',' || b == '\n') {
+                if (hasDigits) {
+                    int parsed = (int) (negative ? -value : value);
+                    if (field == 0) {
+                        first = parsed;
+                    } else if (field == 1) {
+                        second = parsed;
+                    } else if (field == 2) {
+                        third = parsed;
+                    }
+                    field++;
+                } else if (negative || b == ',') {
+                    throw new IOException("Malformed hiscore response");
+                }
+
+                if (b == '\n') {
+                    // Skill rows have >= 3 fields, activity rows have fewer
+                    if (field >= 3 && this.skillCount < SKILL_COUNT) {
+                        this.ranks[this.skillCount] = first;
+                        this.levels[this.skillCount] = second;
+                        this.experience[this.skillCount] = third;
+                        this.skillCount++;
+                    }
+                    field = 0;
+                }
+
+                value = 0;
+                negative = false;
+                hasDigits = false;
+            } else if (b != '\r') {
+                throw new IOException("Malformed hiscore response");
+            }
+        }
+
+        return this.skillCount;
+    }
+
+    // Skill Count Getter, for the last parse
+    public int getSkillCount() {
+        return this.skillCount;
+    }
+
+    // Bytes Read Getter, for the last parse from a stream
+    public int getBytesRead() {
+        return this.bytesRead;
+    }
+
+    // Rank by SkillName ordinal Accessor
+    public int getRank(int ordinal) {
+        return this.ranks[ordinal];
+    }
+
+    // Level by SkillName ordinal Accessor
+    public int getLevel(int ordinal) {
+        return this.levels[ordinal];
+    }
+
+    // Experience by SkillName ordinal Accessor
+    public int getExperience(int ordinal) {
+        return this.experience[ordinal];
+    }
+}
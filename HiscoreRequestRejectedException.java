@@ -0,0 +1,17 @@
+/**
+ * Exception for when the hiscore API rejected a request with a 4xx status
+ * other than 404, 408 or 429. Unlike a PlayerNotFoundException it says
+ * nothing about whether the player exists, so it is not remembered, and
+ * unlike a HiscoreUnavailableException retrying the same request won't help.
+ */
+public class HiscoreRequestRejectedException extends Exception {
+
+    /**
+     * Creates a new HiscoreRequestRejectedException
+     *
+     * @param message what went wrong
+     */
+    public HiscoreRequestRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Exception for when the hiscore API could not answer a request, as opposed
+ * to a player not existing: the request timed out or failed to connect, the
+ * API responded with a 429 or 5xx status on every retry, or recent failures
+ * have opened the circuit breaker and the request was not attempted.
+ */
+public class HiscoreUnavailableException extends Exception {
+
+    /**
+     * Creates a new HiscoreUnavailableException
+     *
+     * @param message what went wrong
+     * @param cause   the last failure, may be null
+     */
+    public HiscoreUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,76 @@
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * ImportResult is the outcome of a BulkImporter run: a PlayerTimeline per
+ * username, and the files that could not be loaded with the reason why.
+ */
+public class ImportResult {
+    // Timelines by normalized username, in username order
+    private final Map<String, PlayerTimeline> timelines;
+    // Files that failed to load and why
+    private final Map<Path, Exception> failures;
+    // Number of .osrs files found
+    private final int fileCount;
+    // Time the import took
+    private final Duration elapsed;
+
+    /**
+     * Creates a new ImportResult. The maps are not copied.
+     *
+     * @param timelines timelines by normalized username
+     * @param failures  files that failed to load and why
+     * @param fileCount number of .osrs files found
+     * @param elapsed   time the import took
+     */
+    ImportResult(Map<String, PlayerTimeline> timelines, Map<Path, Exception> failures, int fileCount,
+            Duration elapsed) {
+        this.timelines = Collections.unmodifiableMap(timelines);
+        this.failures = Collections.unmodifiableMap(failures);
+        this.fileCount = fileCount;
+        this.elapsed = elapsed;
+    }
+
+    // Timelines Getter, by normalized username
+    public Map<String, PlayerTimeline> getTimelines() {
+        return this.timelines;
+    }
+
+    /**
+     * Returns the timeline of a username, ignoring case and surrounding
+     * whitespace
+     *
+     * @param username the username to look up
+     * @return the timeline, or null if no file had that username
+     */
+    public PlayerTimeline getTimeline(String username) {
+        return this.timelines.get(HiscoreCache.normalize(username));
+    }
+
+    // Failures Getter, the files that could not be loaded
+    public Map<Path, Exception> getFailures() {
+        return this.failures;
+    }
+
+    // File Count Getter, including failed files
+    public int getFileCount() {
+        return this.fileCount;
+    }
+
+    // Elapsed Getter
+    public Duration getElapsed() {
+        return this.elapsed;
+    }
+
+    /**
+     * Returns a short description of the result for logging.
+     * In the format: "n files, m players, k failed in t ms"
+     */
+    @Override
+    public String toString() {
+        return this.fileCount + " files, " + this.timelines.size() + " players, " + this.failures.size()
+                + " failed in " + this.elapsed.toMillis() + " ms";
+    }
+}
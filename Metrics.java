@@ -0,0 +1,376 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Metrics is the registry of counters and histograms measuring the tracker:
+ * hiscore requests, parsing, saving and loading, and UI updates. Recording
+ * never takes a lock, so metrics can be recorded from any thread on hot paths.
+ *
+ * Metrics are registered once, usually as static fields of the class that
+ * records them, and the whole registry can be rendered in the Prometheus text
+ * exposition format with scrape. Histograms are exposed as summaries with
+ * their 50th, 90th, 99th and 99.9th percentiles.
+ */
+public final class Metrics {
+    // Percentiles reported for every histogram
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+    // Registered metric families, sorted by name for stable output
+    private static final Map<String, Family> FAMILIES = new ConcurrentSkipListMap<>();
+
+    // Static methods only
+    private Metrics() {
+    }
+
+    /**
+     * Returns the counter with the given name, registering it if needed
+     *
+     * @param name the metric name, conventionally ending in _total
+     * @param help a description of the metric
+     * @return the counter
+     */
+    public static Counter counter(String name, String help) {
+        return counter(name, help, null, null);
+    }
+
+    /**
+     * Returns the counter with the given name and label, registering it if
+     * needed. Counters sharing a name are exposed together.
+     *
+     * @param name       the metric name, conventionally ending in _total
+     * @param help       a description of the metric
+     * @param labelName  the label name, null for no label
+     * @param labelValue the label value
+     * @return the counter
+     */
+    public static Counter counter(String name, String help, String labelName, String labelValue) {
+        return (Counter) family(name, help, "counter").series
+                .computeIfAbsent(labels(labelName, labelValue), key -> new Counter());
+    }
+
+    /**
+     * Registers a counter whose value is read from elsewhere, such as the
+     * statistics a class already keeps. Replaces any previous supplier.
+     *
+     * @param name  the metric name, conventionally ending in _total
+     * @param help  a description of the metric
+     * @param value supplies the current count
+     */
+    public static void counter(String name, String help, LongSupplier value) {
+        family(name, help, "counter").series.put("", value);
+    }
+
+    /**
+     * Registers a gauge whose value is read when the registry is scraped.
+     * Replaces any previous supplier.
+     *
+     * @param name  the metric name
+     * @param help  a description of the metric
+     * @param value supplies the current value
+     */
+    public static void gauge(String name, String help, LongSupplier value) {
+        family(name, help, "gauge").series.put("", value);
+    }
+
+    /**
+     * Returns the histogram of durations with the given name, registering it if
+     * needed. Durations are recorded in nanoseconds and exposed in seconds.
+     *
+     * @param name the metric name, conventionally ending in _seconds
+     * @param help a description of the metric
+     * @return the histogram
+     */
+    public static Histogram timer(String name, String help) {
+        return histogram(name, help, 1e9);
+    }
+
+    /**
+     * Returns the histogram of sizes with the given name, registering it if
+     * needed. Values are exposed as recorded.
+     *
+     * @param name the metric name, conventionally ending in the unit, such as
+     *             _bytes
+     * @param help a description of the metric
+     * @return the histogram
+     */
+    public static Histogram histogram(String name, String help) {
+        return histogram(name, help, 1);
+    }
+
+    /**
+     * Renders every registered metric in the Prometheus text exposition format
+     *
+     * @return the current value of every metric
+     */
+    public static String scrape() {
+        StringBuilder text = new StringBuilder(4096);
+        for (Map.Entry<String, Family> entry : FAMILIES.entrySet()) {
+            entry.getValue().render(entry.getKey(), text);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Returns the histogram with the given name, registering it if needed
+     *
+     * @param name  the metric name
+     * @param help  a description of the metric
+     * @param unit recorded values per exposed value, such as 1e9 nanoseconds
+     *             per second
+     * @return the histogram
+     */
+    private static Histogram histogram(String name, String help, double unit) {
+        return (Histogram) family(name, help, "summary").series
+                .computeIfAbsent("", key -> new Histogram(unit));
+    }
+
+    /**
+     * Returns the family with the given name, registering it if needed
+     *
+     * @param name the metric name
+     * @param help a description of the metric
+     * @param type the Prometheus metric type
+     * @return the family
+     * @throws IllegalArgumentException if the name is registered with another
+     *                                  type
+     */
+    private static Family family(String name, String help, String type) {
+        Family family = FAMILIES.computeIfAbsent(name, key -> new Family(help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException(name + " is already registered as a " + family.type);
+        }
+        return family;
+    }
+
+    /**
+     * Formats a label for the exposition format
+     *
+     * @param labelName  the label name, null for no label
+     * @param labelValue the label value
+     * @return the label in braces, or an empty string for no label
+     */
+    private static String labels(String labelName, String labelValue) {
+        if (labelName == null) {
+            return "";
+        }
+        String escaped = labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        return "{" + labelName + "=\"" + escaped + "\"}";
+    }
+
+    /**
+     * All series registered under one metric name
+     */
+    private static final class Family {
+        // Description of the metric
+        private final String help;
+        // Prometheus metric type
+        private final String type;
+        // Series keyed by their formatted labels. Values are a Counter,
+        // Histogram or LongSupplier.
+        private final Map<String, Object> series = new ConcurrentSkipListMap<>();
+
+        private Family(String help, String type) {
+            this.help = help;
+            this.type = type;
+        }
+
+        /**
+         * Appends this family in the exposition format
+         *
+         * @param name the metric name
+         * @param text the builder to append to
+         */
+        private void render(String name, StringBuilder text) {
+            text.append("# HELP ").append(name).append(' ').append(this.help).append('\n');
+            text.append("# TYPE ").append(name).append(' ').append(this.type).append('\n');
+
+            for (Map.Entry<String, Object> entry : this.series.entrySet()) {
+                Object metric = entry.getValue();
+                if (metric instanceof Histogram) {
+                    ((Histogram) metric).render(name, text);
+                } else if (metric instanceof Counter) {
+                    text.append(name).append(entry.getKey()).append(' ')
+                            .append(((Counter) metric).get()).append('\n');
+                } else {
+                    text.append(name).append(entry.getKey()).append(' ')
+                            .append(((LongSupplier) metric).getAsLong()).append('\n');
+                }
+            }
+        }
+    }
+
+    /**
+     * A count that only goes up
+     */
+    public static final class Counter {
+        // The count, striped so concurrent increments don't contend
+        private final LongAdder count = new LongAdder();
+
+        // Only created through Metrics.counter
+        private Counter() {
+        }
+
+        // Adds 1 to the count
+        public void increment() {
+            this.count.increment();
+        }
+
+        // Adds amount to the count
+        public void add(long amount) {
+            this.count.add(amount);
+        }
+
+        // Count Getter
+        public long get() {
+            return this.count.sum();
+        }
+    }
+
+    /**
+     * A histogram of non-negative values in HDR style: values are counted in
+     * buckets that double in width every SUB_BUCKETS buckets, so every value
+     * from 1 to Long.MAX_VALUE is covered in under a thousand buckets while
+     * percentiles stay within 1/SUB_BUCKETS (6.25%) of the true value.
+     */
+    public static final class Histogram {
+        // Bits of precision kept for every value
+        private static final int SUB_BUCKET_BITS = 4;
+        // Number of buckets per doubling of value
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        // Enough buckets for Long.MAX_VALUE
+        private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+        // Recorded values per exposed value
+        private final double unit;
+        // Number of values recorded in each bucket
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        // Number of values recorded
+        private final LongAdder count = new LongAdder();
+        // Sum of the values recorded
+        private final LongAdder sum = new LongAdder();
+        // Largest value recorded
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        // Only created through Metrics.timer and Metrics.histogram
+        private Histogram(double unit) {
+            this.unit = unit;
+        }
+
+        /**
+         * Records a value. Negative values are recorded as 0.
+         *
+         * @param value the value to record
+         */
+        public void record(long value) {
+            value = Math.max(0, value);
+            this.buckets.incrementAndGet(bucketIndex(value));
+            this.count.increment();
+            this.sum.add(value);
+            this.max.accumulate(value);
+        }
+
+        /**
+         * Records the time since startNanos, for timers
+         *
+         * @param startNanos a System.nanoTime taken when the timed work started
+         */
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        // Count Getter
+        public long getCount() {
+            return this.count.sum();
+        }
+
+        // Sum Getter
+        public long getSum() {
+            return this.sum.sum();
+        }
+
+        // Max Getter
+        public long getMax() {
+            return this.max.get();
+        }
+
+        /**
+         * Returns the value below which the given fraction of recorded values
+         * fall, accurate to within one bucket.
+         *
+         * @param quantile the fraction, between 0 and 1
+         * @return the value at the quantile, 0 if nothing was recorded
+         */
+        public long getValueAtQuantile(double quantile) {
+            long total = 0;
+            long[] counts = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] = this.buckets.get(i);
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+
+            long target = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return Math.min(bucketUpperBound(i), getMax());
+                }
+            }
+            return getMax();
+        }
+
+        /**
+         * Appends this histogram in the exposition format as a summary
+         *
+         * @param name the metric name
+         * @param text the builder to append to
+         */
+        private void render(String name, StringBuilder text) {
+            for (double quantile : QUANTILES) {
+                text.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                        .append(getValueAtQuantile(quantile) / this.unit).append('\n');
+            }
+            text.append(name).append("_sum ").append(getSum() / this.unit).append('\n');
+            text.append(name).append("_count ").append(getCount()).append('\n');
+        }
+
+        /**
+         * Returns the bucket a value is counted in. Values below SUB_BUCKETS
+         * get a bucket each, larger values share a bucket with the values
+         * having the same top SUB_BUCKET_BITS + 1 bits.
+         *
+         * @param value the non-negative value
+         * @return the bucket index
+         */
+        private static int bucketIndex(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+            return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+        }
+
+        /**
+         * Returns the largest value counted in a bucket
+         *
+         * @param index the bucket index
+         * @return the bucket's upper bound, inclusive
+         */
+        private static long bucketUpperBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int shift = index / SUB_BUCKETS - 1;
+            long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+            long upper = ((subBucket + 1) << shift) - 1;
+            // The very last bucket would overflow
+            return (upper < 0) ? Long.MAX_VALUE : upper;
+        }
+    }
+}
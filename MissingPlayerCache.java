@@ -0,0 +1,261 @@
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MissingPlayerCache remembers usernames the hiscore API recently answered
+ * with "not found", so typos and renamed accounts in a roster fail fast
+ * without sending another request. Entries expire after a time-to-live, since
+ * a name can be taken again.
+ *
+ * Every lookup first checks a Bloom filter of the cached usernames, so the
+ * common case of a username that is not cached costs a few bit reads and no
+ * map lookup. The filter can report false positives but never false
+ * negatives, and a username is only reported missing once the exact map
+ * confirms it, so an existing Player is never skipped. Expired entries are
+ * dropped and the filter is rebuilt when the cache fills up.
+ *
+ * Usernames are normalized with HiscoreCache.normalize. Thread safe.
+ */
+public class MissingPlayerCache {
+    // Default maximum number of usernames kept
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+    // Default time a username is remembered as missing
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(30);
+    // Bits in the Bloom filter per entry and hashes per entry, for about a 1%
+    // false positive rate when full
+    private static final int BITS_PER_ENTRY = 10;
+    private static final int HASH_COUNT = 7;
+
+    // Maximum number of usernames kept
+    private final int maxEntries;
+    // Time a username is remembered, in nanoseconds
+    private final long ttlNanos;
+    // Cached usernames and when they expire, from System.nanoTime
+    private final ConcurrentHashMap<String, Long> expiries = new ConcurrentHashMap<>();
+    // Filter of every username in expiries, and possibly some removed ones
+    private volatile BloomFilter filter;
+    // Number of lookups answered as missing
+    private final LongAdder hits = new LongAdder();
+
+    // 0-arg constructor, uses the default size and time-to-live
+    public MissingPlayerCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL);
+    }
+
+    /**
+     * Creates a new MissingPlayerCache with the provided limits.
+     *
+     * @param maxEntries the maximum number of usernames to keep
+     * @param ttl        how long a username is remembered as missing
+     * @throws IllegalArgumentException if maxEntries or ttl is not positive
+     */
+    public MissingPlayerCache(int maxEntries, Duration ttl) {
+        if (maxEntries < 1 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Cache size and TTL must be positive");
+        }
+
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.filter = new BloomFilter(maxEntries);
+    }
+
+    /**
+     * Returns whether a username was recently found not to exist
+     *
+     * @param username the username to look up
+     * @return true if the API answered "not found" for it within the TTL
+     */
+    public boolean isKnownMissing(String username) {
+        String key = HiscoreCache.normalize(username);
+        if (!this.filter.mightContain(key)) {
+            return false;
+        }
+
+        Long expiry = this.expiries.get(key);
+        if (expiry == null) {
+            return false;
+        }
+        if (System.nanoTime() - expiry >= 0) {
+            this.expiries.remove(key, expiry);
+            return false;
+        }
+
+        this.hits.increment();
+        return true;
+    }
+
+    /**
+     * Remembers that the API has no Player with a username
+     *
+     * @param username the missing username
+     */
+    public void put(String username) {
+        String key = HiscoreCache.normalize(username);
+        if (this.expiries.size() >= this.maxEntries && !this.expiries.containsKey(key)) {
+            makeRoom();
+        }
+
+        this.expiries.put(key, System.nanoTime() + this.ttlNanos);
+        if (this.filter.add(key) > this.maxEntries) {
+            // Expired usernames are still in the filter, clear them out
+            // before it fills up with them
+            purgeExpired();
+        }
+    }
+
+    /**
+     * Forgets a username, for example after it was fetched successfully
+     *
+     * @param username the username to forget
+     */
+    public void invalidate(String username) {
+        String key = HiscoreCache.normalize(username);
+        if (this.filter.mightContain(key)) {
+            this.expiries.remove(key);
+        }
+    }
+
+    /**
+     * Removes all expired usernames and rebuilds the filter from the rest
+     */
+    public synchronized void purgeExpired() {
+        long now = System.nanoTime();
+        this.expiries.values().removeIf(expiry -> now - expiry >= 0);
+        rebuildFilter();
+    }
+
+    // Size Getter, includes expired usernames that have not been dropped yet
+    public int size() {
+        return this.expiries.size();
+    }
+
+    // Hit Count Getter, lookups answered as missing
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Drops expired usernames and, if the cache is still full, the tenth of
+     * the usernames that expire soonest, so a full cache isn't scanned on
+     * every put. Then rebuilds the filter.
+     */
+    private synchronized void makeRoom() {
+        if (this.expiries.size() < this.maxEntries) {
+            // Another thread made room already
+            return;
+        }
+
+        long now = System.nanoTime();
+        this.expiries.values().removeIf(expiry -> now - expiry >= 0);
+        if (this.expiries.size() >= this.maxEntries) {
+            // Remaining times to live, sorted to find the cut-off
+            long[] remaining = new long[this.expiries.size()];
+            int count = 0;
+            for (Long expiry : this.expiries.values()) {
+                if (count < remaining.length) {
+                    remaining[count++] = expiry - now;
+                }
+            }
+            Arrays.sort(remaining, 0, count);
+            long cutoff = remaining[Math.min(count - 1, Math.max(0, count - this.maxEntries * 9 / 10))];
+            this.expiries.values().removeIf(expiry -> expiry - now <= cutoff);
+        }
+        rebuildFilter();
+    }
+
+    /**
+     * Replaces the filter with one holding only the cached usernames. A put
+     * racing with the rebuild adds to the old filter and may be missed until
+     * the next rebuild, which only costs that username a request.
+     */
+    private void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(this.maxEntries);
+        for (String key : this.expiries.keySet()) {
+            rebuilt.add(key);
+        }
+        this.filter = rebuilt;
+    }
+
+    /**
+     * A fixed size Bloom filter of strings. Bits are set atomically, so adds
+     * and lookups can run concurrently.
+     */
+    private static final class BloomFilter {
+        // The bits, 64 per long
+        private final AtomicLongArray bits;
+        // Number of bits
+        private final int bitCount;
+        // Number of adds that set a new bit, about the number of keys added
+        private final AtomicInteger added = new AtomicInteger();
+
+        private BloomFilter(int expectedEntries) {
+            long words = ((long) expectedEntries * BITS_PER_ENTRY + 63) / 64;
+            this.bits = new AtomicLongArray((int) Math.min(words, Integer.MAX_VALUE / 64));
+            this.bitCount = this.bits.length() * 64;
+        }
+
+        /**
+         * Sets the bits of a key
+         *
+         * @param key the key to add
+         * @return the number of adds so far that set a new bit
+         */
+        private int add(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            boolean changed = false;
+            for (int i = 0; i < HASH_COUNT; i++) {
+                int bit = Math.floorMod(h1 + i * h2, this.bitCount);
+                long mask = 1L << bit;
+                int word = bit >>> 6;
+                long current = this.bits.get(word);
+                while ((current & mask) == 0) {
+                    if (this.bits.compareAndSet(word, current, current | mask)) {
+                        changed = true;
+                        break;
+                    }
+                    current = this.bits.get(word);
+                }
+            }
+            return changed ? this.added.incrementAndGet() : this.added.get();
+        }
+
+        /**
+         * Whether every bit of a key is set
+         *
+         * @param key the key to look up
+         * @return false if the key was definitely never added
+         */
+        private boolean mightContain(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASH_COUNT; i++) {
+                int bit = Math.floorMod(h1 + i * h2, this.bitCount);
+                if ((this.bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Spreads String.hashCode over 64 bits, split into the two hashes
+         * combined for each of the HASH_COUNT bits
+         *
+         * @param key the key to hash
+         * @return the 64 bit hash
+         */
+        private static long hash(String key) {
+            long hash = key.hashCode() * 0x9E3779B97F4A7C15L;
+            hash ^= hash >>> 32;
+            hash *= 0xC2B2AE3D27D4EB4FL;
+            return hash ^ (hash >>> 29);
+        }
+    }
+}
@@ -1,7 +1,14 @@
 import java.io.*;
-import java.net.*;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Represents a Player of the game OldSchoolRuneScape. A Player has a username,
@@ -11,23 +18,88 @@ import java.util.*;
  * The Player class and all it's underlying instance variables support
  * serialization into a file representation.
  * 
+ * Skills are stored as SkillData, goals in an EnumMap and experience rates in
+ * an int array, all indexed by SkillName. Skill objects and boxed rates are
+ * only created when read through the getters. Java serialization still uses
+ * the original fields, see serialPersistentFields.
+ * 
+ * Everything but the username is held in an immutable PlayerSnapshot that is
+ * swapped atomically on every refresh and goal or rate edit, so any thread can
+ * read a Player without locking while another refreshes it. Use getSnapshot
+ * to read several values that must be consistent with each other.
  */
 public class Player implements Serializable {
     // Version for Serialization
     private static final long serialVersionUID = 1L;
-    // Static URL for API to fetch skills data
-    private static final String HISCORE_URL = "https://secure.runescape.com/m=hiscore_oldschool/index_lite.ws?player=%s";
-
-    // In-game username for player
-    private final String username;
-    // The last time we pulled the skills data from the API
-    private LocalDateTime lastRefreshedAt;
-    // The Goals for this Player's Skills
-    private final HashMap<SkillName, Goal> goals = new HashMap<>();
-    // The experience rates for this Player's Skills. Represented in exp/hour
-    private final HashMap<SkillName, Integer> experienceRates = new HashMap<>();
-    // The list of Skills for this Player
-    private ArrayList<Skill> skills;
+    // Background threads for API calls and file IO, so callers such as the GUI
+    // never block on the network. Daemon threads so they never keep the app alive.
+    private static final ExecutorService IO_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "player-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Cached copy of SkillName.values(), which clones the array on every call
+    private static final SkillName[] SKILL_NAMES = SkillName.values();
+    // Recently fetched skill data, shared by every Player
+    private static final HiscoreCache HISCORE_CACHE = new HiscoreCache();
+    // Usernames the API recently answered "not found" for
+    private static final MissingPlayerCache MISSING_PLAYERS = new MissingPlayerCache();
+    // API fetches in progress by normalized username, joined by concurrent
+    // fetches of the same username
+    private static final SingleFlight<String, SkillData> IN_FLIGHT_FETCHES = new SingleFlight<>();
+    // Listeners notified after any Player's skills are refreshed
+    private static final CopyOnWriteArrayList<SnapshotListener> SNAPSHOT_LISTENERS = new CopyOnWriteArrayList<>();
+    // Events buffered per subscriber before further events are dropped
+    private static final int SKILL_EVENT_BUFFER = 256;
+    // Publishes the changes found by refreshes. Delivers on daemon threads so
+    // slow subscribers never hold up refreshes or keep the app alive.
+    private static final SkillEventPublisher SKILL_EVENTS = new SkillEventPublisher(
+            Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "skill-events");
+                thread.setDaemon(true);
+                return thread;
+            }), SKILL_EVENT_BUFFER);
+    private static final Metrics.Counter SKILL_EVENTS_PUBLISHED = Metrics.counter(
+            "skill_events_published_total", "Skill change events published by refreshes");
+    private static final Metrics.Counter SKILL_EVENTS_DROPPED = Metrics.counter(
+            "skill_events_dropped_total", "Skill change events dropped for subscribers with a full buffer");
+    // Client for the hiscore API, shared so connections are reused
+    private static final HiscoreClient HISCORE_CLIENT = new HiscoreClient();
+    // Number of refreshes that found the same skills as before
+    private static final Metrics.Counter UNCHANGED_REFRESHES = Metrics.counter(
+            "player_refreshes_unchanged_total", "Refreshes that fetched the same skills as before");
+
+    static {
+        Metrics.counter("hiscore_cache_hits_total", "Hiscore lookups answered from the cache",
+                HISCORE_CACHE::getHitCount);
+        Metrics.counter("hiscore_cache_misses_total", "Hiscore lookups not found in the cache",
+                HISCORE_CACHE::getMissCount);
+        Metrics.counter("hiscore_cache_evictions_total", "Hiscore cache entries evicted to make room",
+                HISCORE_CACHE::getEvictionCount);
+        Metrics.counter("hiscore_missing_cache_hits_total", "Fetches of known missing usernames failed without a request",
+                MISSING_PLAYERS::getHitCount);
+        Metrics.counter("hiscore_fetches_coalesced_total", "Hiscore fetches that joined a fetch already in flight",
+                IN_FLIGHT_FETCHES::getCoalescedCount);
+        Metrics.gauge("hiscore_circuit_open", "1 while the hiscore API circuit breaker fails fetches fast",
+                () -> HISCORE_CLIENT.isCircuitOpen() ? 1 : 0);
+    }
+
+    // Fields written by Java serialization. These are the fields Player had
+    // before it moved to SkillData, so older saved files can still be read.
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("username", String.class),
+            new ObjectStreamField("lastRefreshedAt", LocalDateTime.class),
+            new ObjectStreamField("goals", HashMap.class),
+            new ObjectStreamField("experienceRates", HashMap.class),
+            new ObjectStreamField("skills", ArrayList.class) };
+
+    // In-game username for player. Only assigned in constructors and readObject.
+    private String username;
+    // The current refresh time, Skills, Goals and experience rates. Every
+    // change swaps in a new snapshot. Only assigned in constructors and readObject.
+    private AtomicReference<PlayerSnapshot> state = new AtomicReference<>(PlayerSnapshot.EMPTY);
+    // Experience rates measured from refreshes. Not saved, created on first use.
+    private transient volatile ExperienceRateEstimator measuredRates;
 
     // O-arg constructor, defaults to my own character, IronSushi
     public Player() throws Exception {
@@ -44,84 +116,317 @@ public class Player implements Serializable {
      * @throws Exception
      */
     public Player(String username) throws Exception {
+        this(username, LocalDateTime.now());
+    }
+
+    /**
+     * Creates a new Player with the provided username, stamping the fetched
+     * skills with refreshedAt instead of the current time. Used by batch
+     * fetches so every Player in a batch shares the same timestamp.
+     * 
+     * @param username    in-game name for Player
+     * @param refreshedAt the time to record as lastRefreshedAt
+     * @throws Exception
+     */
+    Player(String username, LocalDateTime refreshedAt) throws Exception {
         this.username = username;
-        this.refreshSkills();
+        this.refreshSkills(refreshedAt);
         this.initializeGoals();
     }
 
+    /**
+     * Creates a Player from previously saved data without calling the API.
+     * Used when reading Players back from files.
+     * 
+     * @param username        in-game name for Player
+     * @param lastRefreshedAt the last time skill data was pulled from the API
+     * @param skills          the saved Skills
+     * @param goals           the saved Goals
+     * @param experienceRates the saved experience rates, indexed by SkillName
+     *                        ordinal, 0 when not set
+     */
+    Player(String username, LocalDateTime lastRefreshedAt, SkillData skills,
+            Map<SkillName, Goal> goals, int[] experienceRates) {
+        this.username = username;
+        this.state.set(toSnapshot(lastRefreshedAt, skills, goals, experienceRates));
+    }
+
+    /**
+     * Builds a PlayerSnapshot from saved data, copying the goals and rates
+     * 
+     * @param lastRefreshedAt the last time skill data was pulled from the API
+     * @param skills          the saved Skills
+     * @param goals           the saved Goals
+     * @param experienceRates the saved experience rates, indexed by SkillName
+     *                        ordinal, 0 when not set
+     * @return the snapshot
+     */
+    private static PlayerSnapshot toSnapshot(LocalDateTime lastRefreshedAt, SkillData skills,
+            Map<SkillName, Goal> goals, int[] experienceRates) {
+        EnumMap<SkillName, Goal> goalsCopy = new EnumMap<>(SkillName.class);
+        goalsCopy.putAll(goals);
+        int[] ratesCopy = new int[SKILL_NAMES.length];
+        System.arraycopy(experienceRates, 0, ratesCopy, 0, Math.min(experienceRates.length, ratesCopy.length));
+        return new PlayerSnapshot(lastRefreshedAt, skills, goalsCopy, ratesCopy);
+    }
+
     /**
      * initializeGoals initializes goals for all non-Overall skills to a
      * LevelGoal of 99.
      * 
      */
     private void initializeGoals() {
-        try {
-            for (Skill s : skills) {
-                if (!s.isOverall()) {
-                    this.goals.put(s.getName(), new LevelGoal());
-                }
+        this.state.updateAndGet(PlayerSnapshot::withDefaultGoals);
+    }
+
+    /**
+     * Writes the Player with the original serialized fields, converting the
+     * SkillData, goals and rates back to the collections they used to be.
+     * 
+     * @param out the stream to write to
+     * @throws IOException if the stream can't be written
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        PlayerSnapshot snapshot = this.state.get();
+        HashMap<SkillName, Integer> rates = new HashMap<>();
+        for (SkillName skillName : SKILL_NAMES) {
+            Integer rate = snapshot.getExperienceRate(skillName);
+            if (rate != null) {
+                rates.put(skillName, rate);
             }
-        } catch (InvalidGoalException e) {
-            // This should never happen since we are using the 0-arg constructor
         }
+        SkillData skills = snapshot.getSkillData();
+
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("username", this.username);
+        fields.put("lastRefreshedAt", snapshot.getLastRefreshedAt());
+        fields.put("goals", new HashMap<>(snapshot.getGoals()));
+        fields.put("experienceRates", rates);
+        fields.put("skills", (skills == null) ? null : new ArrayList<>(skills.asList()));
+        out.writeFields();
     }
 
     /**
-     * Writes the Player to a file that can be stored and used in the future
+     * Reads a Player written with the original serialized fields, converting
+     * the collections to a PlayerSnapshot.
+     * 
+     * @param in the stream to read from
+     * @throws IOException            if the stream can't be read
+     * @throws ClassNotFoundException if the stream references unknown classes
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        this.username = (String) fields.get("username", null);
+        LocalDateTime lastRefreshedAt = (LocalDateTime) fields.get("lastRefreshedAt", null);
+
+        Map<SkillName, Goal> savedGoals = (Map<SkillName, Goal>) fields.get("goals", null);
+        if (savedGoals == null) {
+            savedGoals = Collections.emptyMap();
+        }
+
+        int[] rates = new int[SKILL_NAMES.length];
+        Map<SkillName, Integer> savedRates = (Map<SkillName, Integer>) fields.get("experienceRates", null);
+        if (savedRates != null) {
+            for (Map.Entry<SkillName, Integer> rate : savedRates.entrySet()) {
+                rates[rate.getKey().ordinal()] = rate.getValue();
+            }
+        }
+
+        List<Skill> savedSkills = (List<Skill>) fields.get("skills", null);
+        SkillData skills = (savedSkills == null) ? null : SkillData.of(savedSkills);
+        this.state = new AtomicReference<>(toSnapshot(lastRefreshedAt, skills, savedGoals, rates));
+    }
+
+    /**
+     * Writes the Player to a file that can be stored and used in the future.
+     * Uses the compact binary format described in PlayerFile.
      * 
      * @param filepath the file path to save the Player to
      * @throws IOException
      */
     public void saveToFile(String filepath) throws IOException {
-        // My IDE was compaining I wasn't using try-with-resource syntax
-        // So I used the auto-fix feature here
-        try (ObjectOutputStream out = new ObjectOutputStream(
-                new FileOutputStream(filepath))) {
-            out.writeObject(this);
-        }
+        PlayerFile.write(this, Path.of(filepath));
     }
 
     /**
      * Reads and creates a Player from a file that can be stored and used in the
-     * future
+     * future. Reads both the binary format and files saved with Java
+     * serialization by older versions.
      * 
      * @param filepath the file path to load the Player to
      * @throws IOException
      */
     public static Player loadFromFile(String filepath) throws IOException, ClassNotFoundException {
-        // My IDE was compaining I wasn't using try-with-resource syntax
-        // So I used the auto-fix feature here
-        try (ObjectInputStream in = new ObjectInputStream(
-                new FileInputStream(filepath))) {
-            return (Player) in.readObject();
-        }
+        return PlayerFile.read(Path.of(filepath));
+    }
+
+    /**
+     * Creates a new Player with the provided username without blocking the
+     * caller. The API call and parsing run on a background thread.
+     * 
+     * @param username in-game name for Player
+     * @return a future completing with the new Player, or exceptionally with
+     *         the same exceptions as the constructor
+     */
+    public static CompletableFuture<Player> fetchAsync(String username) {
+        return runAsync(() -> new Player(username));
+    }
+
+    /**
+     * Reads a Player from a file on a background thread.
+     * 
+     * @param filepath the file path to load the Player from
+     * @return a future completing with the loaded Player
+     */
+    public static CompletableFuture<Player> loadFromFileAsync(String filepath) {
+        return runAsync(() -> loadFromFile(filepath));
+    }
+
+    /**
+     * Writes the Player to a file on a background thread.
+     * 
+     * @param filepath the file path to save the Player to
+     * @return a future completing with this Player once the file is written
+     */
+    public CompletableFuture<Player> saveToFileAsync(String filepath) {
+        return runAsync(() -> {
+            saveToFile(filepath);
+            return this;
+        });
+    }
+
+    /**
+     * Refreshes the current Player's skill data from the API without blocking
+     * the caller. The new skills are only applied if the returned future has
+     * not been cancelled by the time the API call finishes.
+     * 
+     * @return a future completing with this Player after the refresh
+     */
+    public CompletableFuture<Player> refreshSkillsAsync() {
+        return refreshSkillsAsync(false);
+    }
+
+    /**
+     * Refreshes the current Player's skill data without blocking the caller,
+     * optionally bypassing the HiscoreCache. Cancelling the returned future
+     * interrupts the API call.
+     * 
+     * @param forceRefresh whether to skip the cache and always call the API
+     * @return a future completing with this Player after the refresh
+     */
+    public CompletableFuture<Player> refreshSkillsAsync(boolean forceRefresh) {
+        LocalDateTime refreshedAt = LocalDateTime.now();
+        CompletableFuture<Fetched> fetching = runAsync(() -> fetchSkills(forceRefresh));
+        return cancelsSource(fetching.thenApply(fetched -> {
+            applySkills(fetched, refreshedAt);
+            return this;
+        }), fetching);
+    }
+
+    /**
+     * Makes cancelling a stage derived from another, for example with
+     * thenApply, also cancel the stage it was derived from, so the background
+     * work behind it is interrupted too.
+     * 
+     * @param dependent the derived stage
+     * @param source    the stage it was derived from
+     * @return dependent
+     */
+    static <T> CompletableFuture<T> cancelsSource(CompletableFuture<T> dependent, CompletableFuture<?> source) {
+        dependent.whenComplete((value, error) -> {
+            if (dependent.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return dependent;
+    }
+
+    /**
+     * Returns the HiscoreCache shared by all Players, for reading its
+     * statistics or invalidating entries.
+     * 
+     * @return the shared HiscoreCache
+     */
+    public static HiscoreCache getHiscoreCache() {
+        return HISCORE_CACHE;
+    }
+
+    /**
+     * Returns the MissingPlayerCache shared by all Players, for checking a
+     * username before fetching it or forgetting a username.
+     * 
+     * @return the shared MissingPlayerCache
+     */
+    public static MissingPlayerCache getMissingPlayers() {
+        return MISSING_PLAYERS;
+    }
+
+    /**
+     * Registers a listener that is notified every time any Player's skills
+     * are refreshed, for example a SnapshotStore recording history.
+     * 
+     * @param listener the listener to add
+     */
+    public static void addSnapshotListener(SnapshotListener listener) {
+        SNAPSHOT_LISTENERS.add(listener);
+    }
+
+    /**
+     * Removes a listener added with addSnapshotListener
+     * 
+     * @param listener the listener to remove
+     */
+    public static void removeSnapshotListener(SnapshotListener listener) {
+        SNAPSHOT_LISTENERS.remove(listener);
     }
 
-    // Skills Getter
-    public ArrayList<Skill> getSkills() {
-        return this.skills;
+    /**
+     * Returns the publisher of the SkillEvents found by every Player's
+     * refreshes, such as experience gained, level ups and goals reached.
+     * Each subscriber has its own bounded buffer holding only the event types
+     * it subscribed to, and receives events only as fast as it requests them.
+     * See SkillEventSubscriber.
+     * 
+     * @return the shared SkillEvent publisher
+     */
+    public static SkillEventPublisher getSkillEvents() {
+        return SKILL_EVENTS;
+    }
+
+    // Snapshot Getter, the Player's current state
+    public PlayerSnapshot getSnapshot() {
+        return this.state.get();
+    }
+
+    // Skills Getter, a read-only view in SkillName order
+    public List<Skill> getSkills() {
+        return this.state.get().getSkills();
+    }
+
+    // Skill Data Getter
+    public SkillData getSkillData() {
+        return this.state.get().getSkillData();
     }
 
     // Skill by SkillName Accessor
-    // Relys on the order of the SkillName enum matching the order in this.skills
-    // This works because the API returns skills in a pre-determined order.
     public Skill getSkill(SkillName skillName) {
-        return this.skills.get(skillName.ordinal());
+        return this.state.get().getSkill(skillName);
     }
 
     // Specific Goal by SkillName Accessor
     public Goal getGoal(SkillName skillName) {
-        return this.goals.get(skillName);
+        return this.state.get().getGoal(skillName);
     }
 
-    // Experience Rate by SkillName Accessor
+    // Experience Rate by SkillName Accessor, null when not set
     public Integer getExperienceRate(SkillName skillName) {
-        return this.experienceRates.get(skillName);
+        return this.state.get().getExperienceRate(skillName);
     }
 
     // lastRefreshedAt Getter
     public LocalDateTime getLastRefreshedAt() {
-        return this.lastRefreshedAt;
+        return this.state.get().getLastRefreshedAt();
     }
 
     // Username Getter
@@ -138,48 +443,134 @@ public class Player implements Serializable {
      * @return an integer between 0 and 100. -1 if no Goal was set
      */
     public int getProgressToGoal(SkillName skillName) {
-        Goal goal = this.goals.get(skillName);
-        Skill skill = getSkill(skillName);
+        return this.state.get().getProgressToGoal(skillName);
+    }
 
-        // Return -1 if no Goal for the skill was found
-        if (goal == null) {
-            return -1;
+    /**
+     * Returns the experience rate measured from this Player's refreshes
+     * 
+     * @param skillName the skill to get the measured rate for
+     * @return the measured rate in experience/hour, null if not enough
+     *         refreshes have been seen to measure it
+     */
+    public Integer getMeasuredExperienceRate(SkillName skillName) {
+        double rate = getMeasuredRates().getRate(skillName);
+        if (Double.isNaN(rate)) {
+            return null;
         }
+        return (int) Math.round(rate);
+    }
 
-        int currentExp = skill.getExperience();
-        int targetExp = goal.getTargetExperience();
-
-        int progress = (int) ((currentExp * 100.0) / targetExp);
+    /**
+     * Returns the estimator measuring this Player's experience rates, creating
+     * it on first use.
+     * 
+     * @return the ExperienceRateEstimator for this Player
+     */
+    public ExperienceRateEstimator getMeasuredRates() {
+        ExperienceRateEstimator rates = this.measuredRates;
+        if (rates == null) {
+            synchronized (this) {
+                rates = this.measuredRates;
+                if (rates == null) {
+                    rates = new ExperienceRateEstimator();
+                    this.measuredRates = rates;
+                }
+            }
+        }
+        return rates;
+    }
 
-        return Math.min(progress, 100);
+    /**
+     * Rebuilds the measured experience rates from recorded history, followed by
+     * the current skills. Lets a freshly loaded Player show measured rates
+     * without waiting for several refreshes.
+     * 
+     * @param history previously recorded snapshots of this Player
+     */
+    public void replayHistory(SnapshotRange history) {
+        ExperienceRateEstimator rates = new ExperienceRateEstimator();
+        rates.replay(history);
+        PlayerSnapshot snapshot = this.state.get();
+        if (snapshot.getSkillData() != null && snapshot.getLastRefreshedAt() != null) {
+            rates.update(SkillSnapshot.of(snapshot.getLastRefreshedAt(), snapshot.getSkillData()));
+        }
+        this.measuredRates = rates;
     }
 
     /**
      * Calculates the number of hours needed to play to reach the Goal for the
-     * given skill. Uses the Skill's experience rate to calculate how many hours
-     * will be required.
+     * given skill. Uses the Skill's manually set experience rate if there is
+     * one, otherwise the measured experience rate.
      * 
      * @param skillName The skill to calculate time for
-     * @return the number of hours needed to reach the goal. -1 if an experience
-     *         rate or goal was not set.
+     * @return the number of hours needed to reach the goal. -1 if no experience
+     *         rate is known or no goal was set.
      */
     public double getTimeToGoal(SkillName skillName) {
-        Integer expRate = this.experienceRates.get(skillName);
+        return getTimeToGoal(this.state.get(), skillName);
+    }
+
+    /**
+     * Calculates the number of hours needed to reach the Goal for the given
+     * skill from a snapshot previously taken from this Player, so the result
+     * is consistent with other values read from the same snapshot. Uses the
+     * manual experience rate if there is one, otherwise the measured rate.
+     * 
+     * @param snapshot  a snapshot of this Player from getSnapshot
+     * @param skillName The skill to calculate time for
+     * @return the number of hours needed to reach the goal. -1 if no experience
+     *         rate is known or no goal was set.
+     */
+    public double getTimeToGoal(PlayerSnapshot snapshot, SkillName skillName) {
+        if (snapshot.getExperienceRate(skillName) != null) {
+            return getTimeToGoal(snapshot, skillName, RateSource.MANUAL);
+        }
+        return getTimeToGoal(snapshot, skillName, RateSource.MEASURED);
+    }
+
+    /**
+     * Calculates the number of hours needed to play to reach the Goal for the
+     * given skill. Uses the experience rate from the given source to calculate
+     * how many hours will be required.
+     * 
+     * @param skillName The skill to calculate time for
+     * @param source    whether to use the manual or the measured rate
+     * @return the number of hours needed to reach the goal. -1 if the
+     *         experience rate is not known or is 0, or no goal was set.
+     */
+    public double getTimeToGoal(SkillName skillName, RateSource source) {
+        return getTimeToGoal(this.state.get(), skillName, source);
+    }
 
-        // If no experience rate is set, return -1 to indicate it can't be calculated
+    /**
+     * Calculates the number of hours needed to reach the Goal for the given
+     * skill from one consistent snapshot of the Player.
+     * 
+     * @param snapshot  the Player state to calculate from
+     * @param skillName The skill to calculate time for
+     * @param source    whether to use the manual or the measured rate
+     * @return the number of hours needed to reach the goal. -1 if the
+     *         experience rate is not known or is 0, or no goal was set.
+     */
+    private double getTimeToGoal(PlayerSnapshot snapshot, SkillName skillName, RateSource source) {
+        Integer expRate = (source == RateSource.MANUAL)
+                ? snapshot.getExperienceRate(skillName)
+                : getMeasuredExperienceRate(skillName);
+
+        // If no experience rate is known, return -1 to indicate it can't be calculated
         if (expRate == null) {
             return -1.0;
         }
 
-        Goal goal = this.goals.get(skillName);
-        Skill skill = getSkill(skillName);
+        Goal goal = snapshot.getGoal(skillName);
 
         // If no goal is set, return -1 to indicate it can't be calculated
         if (goal == null) {
             return -1.0;
         }
 
-        int currentExp = skill.getExperience();
+        int currentExp = snapshot.getSkillData().getExperience(skillName.ordinal());
         int targetExp = goal.getTargetExperience();
 
         // Calculate remaining experience needed
@@ -190,6 +581,11 @@ public class Player implements Serializable {
             return 0.0;
         }
 
+        // A measured rate of 0 means the goal will never be reached at this pace
+        if (expRate <= 0) {
+            return -1.0;
+        }
+
         // Calculate hours: remaining exp / exp per hour
         return remainingExp / (double) expRate;
     }
@@ -203,14 +599,9 @@ public class Player implements Serializable {
      * @throws InvalidGoalException if an invalid target is specified
      */
     public void updateGoal(SkillName skillName, boolean isLevel, int target) throws InvalidGoalException {
-        Goal newGoal;
-        if (isLevel) {
-            newGoal = new LevelGoal(target);
-        } else {
-            newGoal = new ExperienceGoal(target);
-        }
+        Goal newGoal = isLevel ? LevelGoal.of(target) : new ExperienceGoal(target);
 
-        this.goals.put(skillName, newGoal);
+        this.state.updateAndGet(snapshot -> snapshot.withGoal(skillName, newGoal));
     }
 
     /**
@@ -227,75 +618,225 @@ public class Player implements Serializable {
             throw new InvalidExperienceRateException();
         }
 
-        this.experienceRates.put(skillName, rate);
+        this.state.updateAndGet(snapshot -> snapshot.withExperienceRate(skillName, rate));
     }
 
     /**
-     * Refreshes the current Player's skill data from the API. This will clear out
+     * Refreshes the current Player's skill data from the API. This will replace
      * skills but not affect goals or experience rates.
      * 
      * @throws Exception on an unexpected API error or when the username does not
      *                   exist
      */
     public final void refreshSkills() throws Exception {
-        this.lastRefreshedAt = LocalDateTime.now();
-        this.skills = new ArrayList<>();
+        refreshSkills(false);
+    }
 
-        // Establish connection and initialize reader for API response
-        HttpURLConnection conn = establishConnection();
-        BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-        String line;
+    /**
+     * Refreshes the current Player's skill data. Skill data fetched recently
+     * for the same username is reused from the HiscoreCache unless
+     * forceRefresh is set.
+     * 
+     * @param forceRefresh whether to skip the cache and always call the API
+     * @throws Exception on an unexpected API error or when the username does not
+     *                   exist
+     */
+    public final void refreshSkills(boolean forceRefresh) throws Exception {
+        applySkills(fetchSkills(forceRefresh), LocalDateTime.now());
+    }
 
-        do {
-            line = reader.readLine();
-            if (line != null) {
-                // API returns skill data as a CSV
-                String[] parts = line.split(",");
-                // Skill rows have a length of >= 3, this is the only way to
-                // determine whether the current line is for a skill
-                if (parts.length >= 3) {
-                    // Order of skills is always returned the same way,
-                    // So follow the ordering defined in the SkillName enum
-                    Skill s = new Skill(
-                            SkillName.values()[skills.size()],
-                            Integer.parseInt(parts[1]), // Level
-                            Integer.parseInt(parts[2]), // Experience
-                            Integer.parseInt(parts[0])); // Rank
-                    skills.add(s);
-                }
+    /**
+     * Refreshes the current Player's skill data from the API, recording
+     * refreshedAt as the time of the refresh.
+     * 
+     * @param refreshedAt the time to record as lastRefreshedAt
+     * @throws Exception on an unexpected API error or when the username does not
+     *                   exist
+     */
+    final void refreshSkills(LocalDateTime refreshedAt) throws Exception {
+        applySkills(fetchSkills(false), refreshedAt);
+    }
+
+    /**
+     * Applies fetched skills. Skills from the HiscoreCache are stamped with
+     * the time they were fetched rather than refreshedAt, and are dropped if
+     * the Player was already refreshed since, so no listener sees a time the
+     * skills were never observed at.
+     * 
+     * @param fetched     the skills and whether they came from the cache
+     * @param refreshedAt the time the refresh started
+     */
+    private void applySkills(Fetched fetched, LocalDateTime refreshedAt) {
+        if (fetched.cachedAt != null) {
+            LocalDateTime lastRefreshedAt = this.state.get().getLastRefreshedAt();
+            if (lastRefreshedAt != null && !fetched.cachedAt.isAfter(lastRefreshedAt)) {
+                return;
             }
-        } while (line != null);
+            refreshedAt = fetched.cachedAt;
+        }
+        applySkills(fetched.skills, refreshedAt);
+    }
+
+    /**
+     * Replaces the skills with freshly fetched ones. A new PlayerSnapshot is
+     * swapped in so readers never see partially updated skills, and goal or
+     * rate edits made during the refresh are kept. The measured rates and
+     * snapshot listeners are then updated with the new skills.
+     * 
+     * If the skills are unchanged the existing SkillData is kept, so only
+     * lastRefreshedAt changes and no skill events are looked for.
+     * 
+     * @param fetched     the skills fetched from the API
+     * @param refreshedAt the time the refresh started
+     */
+    private void applySkills(SkillData fetched, LocalDateTime refreshedAt) {
+        PlayerSnapshot previous;
+        PlayerSnapshot next;
+        SkillData skills;
+        do {
+            previous = this.state.get();
+            skills = fetched.equals(previous.getSkillData()) ? previous.getSkillData() : fetched;
+            next = previous.withSkills(skills, refreshedAt);
+        } while (!this.state.compareAndSet(previous, next));
+
+        SkillSnapshot snapshot = SkillSnapshot.of(refreshedAt, skills);
+        getMeasuredRates().update(snapshot);
+        for (SnapshotListener listener : SNAPSHOT_LISTENERS) {
+            listener.onSnapshot(this.username, snapshot);
+        }
+
+        if (skills == previous.getSkillData()) {
+            UNCHANGED_REFRESHES.increment();
+        } else {
+            publishSkillEvents(previous, next);
+        }
+    }
 
-        // Close and disconnect resources
-        reader.close();
-        conn.disconnect();
+    /**
+     * Publishes an event for every skill change between two states. Skipped
+     * entirely while nobody is subscribed. Subscribers whose buffer is full
+     * miss the events rather than blocking the refresh.
+     * 
+     * @param previous the state before the refresh
+     * @param next     the state after the refresh
+     */
+    private void publishSkillEvents(PlayerSnapshot previous, PlayerSnapshot next) {
+        if (!SKILL_EVENTS.hasSubscribers()) {
+            return;
+        }
+
+        for (SkillEvent event : SkillEvent.diff(this.username, previous, next)) {
+            SKILL_EVENTS.offer(event, (subscriber, dropped) -> {
+                SKILL_EVENTS_DROPPED.increment();
+                return false;
+            });
+            SKILL_EVENTS_PUBLISHED.increment();
+        }
     }
 
     /**
-     * Inserts the current player's username into HISCORE_URL and establishes a
-     * connection to the API.
+     * Returns the current Player's skill data, from the HiscoreCache along with
+     * its fetch time if it was fetched recently, otherwise from the API. If a
+     * fetch for the same username is already in flight, from any Player, its
+     * result is shared instead of making another request. A username the API
+     * recently answered "not found" for fails without a request.
      * 
-     * @return HttpURLConnection to the skills data API at HISCORE_URL
+     * A forced refresh skips the HiscoreCache and MissingPlayerCache, but
+     * still shares a fetch already in flight, since that fetch is a live
+     * request to the API rather than a cached answer.
+     * 
+     * @param forceRefresh whether to skip the HiscoreCache and
+     *                     MissingPlayerCache, a fetch in flight is shared
+     *                     either way
+     * @return the skills, shared with the cache since SkillData is immutable
      * @throws Exception on an unexpected API error or when the username does not
      *                   exist
      */
-    private HttpURLConnection establishConnection() throws Exception {
-        // Build URL string for the API for current username
-        String urlStr = String.format(HISCORE_URL, this.username);
-        URL url = new URL(urlStr);
-
-        // Open connection and specify method/timeouts
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.setConnectTimeout(5000);
-        conn.setReadTimeout(5000);
-
-        int status = conn.getResponseCode();
-        // If the status is not successful, we could not find the player
-        if (status != 200) {
-            throw new PlayerNotFoundException();
+    private Fetched fetchSkills(boolean forceRefresh) throws Exception {
+        if (!forceRefresh) {
+            HiscoreCache.Cached cached = HISCORE_CACHE.lookup(this.username);
+            if (cached != null) {
+                return new Fetched(cached.getSkills(), cached.getFetchedAt());
+            }
+            if (MISSING_PLAYERS.isKnownMissing(this.username)) {
+                throw new PlayerNotFoundException();
+            }
         }
 
-        return conn;
+        return new Fetched(IN_FLIGHT_FETCHES.run(HiscoreCache.normalize(this.username), () -> {
+            SkillData fetched;
+            try {
+                fetched = downloadSkills(this.state.get().getSkillData());
+            } catch (PlayerNotFoundException e) {
+                MISSING_PLAYERS.put(this.username);
+                throw e;
+            }
+            MISSING_PLAYERS.invalidate(this.username);
+            HISCORE_CACHE.put(this.username, fetched);
+            return fetched;
+        }), null);
+    }
+
+    /**
+     * Fetches and parses the current Player's skill data from the API.
+     * Transient API failures are retried by the HiscoreClient.
+     * 
+     * @param previous the Player's current skills, returned as is if unchanged
+     * @return the parsed skills
+     * @throws PlayerNotFoundException     when the username does not exist
+     * @throws HiscoreUnavailableException when the API could not be reached
+     */
+    private SkillData downloadSkills(SkillData previous) throws Exception {
+        return HISCORE_CLIENT.fetch(this.username, previous);
+    }
+
+    /**
+     * Skills returned by fetchSkills and, if they came from the HiscoreCache,
+     * when they were fetched
+     */
+    private static final class Fetched {
+        // The fetched skills
+        private final SkillData skills;
+        // When cached skills were fetched, null if fetched by this refresh
+        private final LocalDateTime cachedAt;
+
+        private Fetched(SkillData skills, LocalDateTime cachedAt) {
+            this.skills = skills;
+            this.cachedAt = cachedAt;
+        }
+    }
+
+    /**
+     * A unit of blocking work run by runAsync, allowed to throw like the
+     * blocking Player methods do.
+     */
+    @FunctionalInterface
+    private interface IOTask<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * Runs the blocking task on the background executor, completing the
+     * returned future with its result or exception. Cancelling the future
+     * interrupts the task, which stops a download or file write in progress.
+     * 
+     * @param task the blocking work to run
+     * @return a future for the task's result
+     */
+    private static <T> CompletableFuture<T> runAsync(IOTask<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = IO_EXECUTOR.submit(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Exception e) {
+                result.completeExceptionally(new CompletionException(e));
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                running.cancel(true);
+            }
+        });
+        return result;
     }
 }
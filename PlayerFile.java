@@ -0,0 +1,570 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+
+/**
+ * PlayerFile reads and writes Players in the compact binary .osrs format.
+ * Files written by older versions with Java serialization are still read.
+ *
+ * The binary format is, in order and big-endian:
+ * - int magic "OSRS" and short format version
+ * - short number of skills
+ * - long lastRefreshedAt as epoch millis, Long.MIN_VALUE if never refreshed
+ * - int rank, level and experience of the Overall skill, repeated from the
+ *   arrays below so readMetadata can stop here (version 2 only)
+ * - long content hash of every other byte but lastRefreshedAt, 0 if not
+ *   computed (version 2 only)
+ * - short length and UTF-8 bytes of the username
+ * - int arrays of ranks, levels and experience, indexed by SkillName ordinal
+ * - byte array of goal types and int array of goal targets
+ * - int array of experience rates, 0 when not set
+ *
+ * Version 1 files, without the Overall values and the content hash, are
+ * still read.
+ *
+ * Saving a Player whose file already has the same content hash only
+ * overwrites lastRefreshedAt in place, so repeatedly saving an idle Player
+ * writes 8 bytes instead of the whole file. Any other save writes a
+ * temporary file and moves it over the old one, so a file with a content
+ * hash was always written completely.
+ */
+public final class PlayerFile {
+    // File extension of saved Players
+    public static final String EXTENSION = ".osrs";
+    // Magic number at the start of every binary file, "OSRS" in ASCII
+    static final int MAGIC = 0x4F535253;
+    // Current version of the binary format
+    static final short VERSION = 2;
+    // Version without the Overall values in the header
+    private static final short VERSION_1 = 1;
+    // Size of the header before the username bytes, per version
+    private static final int HEADER_SIZE = 38;
+    private static final int VERSION_1_HEADER_SIZE = 18;
+    // Bytes read by readMetadata, enough for the header of any username
+    private static final int METADATA_READ_SIZE = HEADER_SIZE + 256;
+    // Offsets of header fields rewritten in place
+    private static final int LAST_REFRESHED_OFFSET = 8;
+    private static final int CONTENT_HASH_OFFSET = 28;
+    // FNV-1a 64 bit hash parameters
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    // Suffix of the temporary file a save is written to first
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    // First two bytes of a file written with Java serialization
+    private static final short LEGACY_MAGIC = (short) 0xACED;
+
+    // Goal types stored in the goal type array
+    private static final byte NO_GOAL = 0;
+    private static final byte LEVEL_GOAL = 1;
+    private static final byte EXPERIENCE_GOAL = 2;
+
+    // Cached copy of SkillName.values()
+    private static final SkillName[] SKILL_NAMES = SkillName.values();
+
+    // Time spent converting Players to and from bytes
+    private static final Metrics.Histogram SERIALIZE_TIME = Metrics.timer(
+            "player_file_serialize_seconds", "Time encoding Players for saving");
+    private static final Metrics.Histogram DESERIALIZE_TIME = Metrics.timer(
+            "player_file_deserialize_seconds", "Time decoding loaded Players, including legacy files");
+    // Total time of saves and loads, including file IO
+    private static final Metrics.Histogram WRITE_TIME = Metrics.timer(
+            "player_file_write_seconds", "Total time saving Players to files");
+    private static final Metrics.Histogram READ_TIME = Metrics.timer(
+            "player_file_read_seconds", "Total time loading Players from files");
+    private static final Metrics.Histogram METADATA_READ_TIME = Metrics.timer(
+            "player_file_metadata_read_seconds", "Time reading the metadata of saved Players");
+    // Number of saves that only updated lastRefreshedAt
+    private static final Metrics.Counter UNCHANGED_WRITES = Metrics.counter(
+            "player_file_unchanged_writes_total", "Saves that found the same content and only updated the time");
+
+    // Not instantiable, all methods are static
+    private PlayerFile() {
+    }
+
+    /**
+     * Writes the Player to a file in the binary format, replacing the file if
+     * it exists. If the file already holds the same content, only its
+     * lastRefreshedAt is overwritten. Otherwise the Player is written to a
+     * uniquely named temporary file next to it that then atomically replaces
+     * the file, so a failed save leaves the old file intact and concurrent
+     * saves of the same file never write to the same temporary file.
+     *
+     * @param player the Player to write
+     * @param path   the file to write to
+     * @throws IOException if the file can't be written
+     */
+    public static void write(Player player, Path path) throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer buffer = encode(player);
+        SERIALIZE_TIME.recordSince(start);
+
+        if (Files.isRegularFile(path)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                if (hasSameContent(channel, buffer)) {
+                    writeFully(channel, buffer.slice(LAST_REFRESHED_OFFSET, Long.BYTES), LAST_REFRESHED_OFFSET);
+                    UNCHANGED_WRITES.increment();
+                    WRITE_TIME.recordSince(start);
+                    return;
+                }
+            }
+        }
+
+        // Created in the same directory, so it can be moved atomically
+        Path temporary = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName() + ".",
+                TEMPORARY_SUFFIX);
+        boolean moved = false;
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                writeFully(channel, buffer, 0);
+                channel.force(false);
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            moved = true;
+        } finally {
+            if (!moved) {
+                // Don't leave a partial save behind, without hiding why the
+                // save failed
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException e) {
+                    System.err.println("Could not delete " + temporary + ": " + e.getMessage());
+                }
+            }
+        }
+        WRITE_TIME.recordSince(start);
+    }
+
+    /**
+     * Whether an open file is a current version file with the same size and
+     * content hash as an encoded Player
+     *
+     * @param channel the open file
+     * @param buffer  the encoded Player
+     * @return true if only lastRefreshedAt can differ
+     * @throws IOException if the file can't be read
+     */
+    private static boolean hasSameContent(FileChannel channel, ByteBuffer buffer) throws IOException {
+        if (channel.size() != buffer.limit()) {
+            return false;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) != -1) {
+            // Keep reading until the whole header is in the buffer
+        }
+        long hash = buffer.getLong(CONTENT_HASH_OFFSET);
+        return !header.hasRemaining() && header.getInt(0) == MAGIC && header.getShort(4) == VERSION
+                && hash != 0 && header.getLong(CONTENT_HASH_OFFSET) == hash;
+    }
+
+    /**
+     * Writes a whole buffer at a file position
+     *
+     * @param channel  the open file
+     * @param buffer   the bytes to write
+     * @param position the file position to write at
+     * @throws IOException if the file can't be written
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Reads a Player from a file in either the binary or the legacy serialized
+     * format.
+     *
+     * @param path the file to read from
+     * @return the Player stored in the file
+     * @throws IOException            if the file can't be read or is not a
+     *                                saved Player
+     * @throws ClassNotFoundException if a legacy file references unknown classes
+     */
+    public static Player read(Path path) throws IOException, ClassNotFoundException {
+        long start = System.nanoTime();
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to be a saved player: " + path);
+            }
+
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // Keep reading until the whole file is in the buffer
+            }
+            buffer.flip();
+        }
+
+        long decodeStart = System.nanoTime();
+        Player player;
+        if (buffer.remaining() >= 2 && buffer.getShort(0) == LEGACY_MAGIC) {
+            player = readLegacy(buffer);
+        } else {
+            player = decode(buffer);
+        }
+        DESERIALIZE_TIME.recordSince(decodeStart);
+        READ_TIME.recordSince(start);
+        return player;
+    }
+
+    /**
+     * Reads the username, lastRefreshedAt and Overall rank, level and
+     * experience of a saved Player without loading its skills, goals or
+     * rates. Only the start of a binary file is read. Legacy files have no
+     * header to read, so they are loaded in full.
+     *
+     * @param path the file to read from
+     * @return the metadata of the Player stored in the file
+     * @throws IOException            if the file can't be read or is not a
+     *                                saved Player
+     * @throws ClassNotFoundException if a legacy file references unknown classes
+     */
+    public static PlayerMetadata readMetadata(Path path) throws IOException, ClassNotFoundException {
+        long start = System.nanoTime();
+        ByteBuffer head = ByteBuffer.allocate(METADATA_READ_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (head.hasRemaining() && channel.read(head) != -1) {
+                // Keep reading until the buffer is full or the file ends
+            }
+            head.flip();
+
+            if (head.remaining() >= 2 && head.getShort(0) == LEGACY_MAGIC) {
+                return PlayerMetadata.of(path, read(path));
+            }
+
+            PlayerMetadata metadata = decodeMetadata(path, head, channel);
+            METADATA_READ_TIME.recordSince(start);
+            return metadata;
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IOException("Saved player file is truncated", e);
+        }
+    }
+
+    /**
+     * Decodes the metadata from the start of a binary file
+     *
+     * @param path    the file, for the metadata
+     * @param head    the start of the file
+     * @param channel the open file, for version 1 files whose Overall values
+     *                are past the start
+     * @return the metadata
+     * @throws IOException if the file is not a valid binary file
+     */
+    private static PlayerMetadata decodeMetadata(Path path, ByteBuffer head, FileChannel channel)
+            throws IOException {
+        if (head.getInt() != MAGIC) {
+            throw new IOException("Not a saved player file");
+        }
+        short version = head.getShort();
+        if (version != VERSION && version != VERSION_1) {
+            throw new IOException("Unsupported saved player version: " + version);
+        }
+        int count = head.getShort();
+        LocalDateTime lastRefreshedAt = fromEpochMillis(head.getLong());
+
+        int rank = -1;
+        int level = 0;
+        int experience = -1;
+        if (version == VERSION) {
+            rank = head.getInt();
+            level = head.getInt();
+            experience = head.getInt();
+            head.getLong();
+        }
+
+        byte[] username = new byte[head.getShort()];
+        if (username.length > head.remaining()) {
+            throw new IOException("Saved player file is truncated");
+        }
+        head.get(username);
+
+        if (version == VERSION_1 && count > 0) {
+            // The Overall skill is the first element of each array
+            long arrays = VERSION_1_HEADER_SIZE + username.length;
+            rank = readIntAt(channel, head, arrays);
+            level = readIntAt(channel, head, arrays + (long) count * Integer.BYTES);
+            experience = readIntAt(channel, head, arrays + 2L * count * Integer.BYTES);
+        }
+
+        return new PlayerMetadata(path, new String(username, StandardCharsets.UTF_8), lastRefreshedAt,
+                rank, level, experience);
+    }
+
+    /**
+     * Reads an int at a file offset, from the already read start of the file
+     * if it is there
+     *
+     * @param channel the open file
+     * @param head    the start of the file
+     * @param offset  the offset of the int in the file
+     * @return the int
+     * @throws IOException if the file ends before the int
+     */
+    private static int readIntAt(FileChannel channel, ByteBuffer head, long offset) throws IOException {
+        if (offset + Integer.BYTES <= head.limit()) {
+            return head.getInt((int) offset);
+        }
+
+        ByteBuffer value = ByteBuffer.allocate(Integer.BYTES);
+        while (value.hasRemaining()) {
+            if (channel.read(value, offset + value.position()) == -1) {
+                throw new IOException("Saved player file is truncated");
+            }
+        }
+        return value.getInt(0);
+    }
+
+    /**
+     * Encodes the Player into a buffer in the binary format
+     *
+     * @param player the Player to encode
+     * @return a buffer ready to be written
+     */
+    static ByteBuffer encode(Player player) {
+        byte[] username = player.getUsername().getBytes(StandardCharsets.UTF_8);
+        // Encode from one snapshot so a concurrent refresh can't mix states
+        PlayerSnapshot snapshot = player.getSnapshot();
+        SkillData skills = snapshot.getSkillData();
+        int count = skills.getSkillCount();
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + username.length + count * 21);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) count);
+        buffer.putLong(toEpochMillis(snapshot.getLastRefreshedAt()));
+        buffer.putInt((count > 0) ? skills.getRank(0) : -1);
+        buffer.putInt((count > 0) ? skills.getLevel(0) : 0);
+        buffer.putInt((count > 0) ? skills.getExperience(0) : -1);
+        // Content hash, filled in once the rest is written
+        buffer.putLong(0);
+        buffer.putShort((short) username.length);
+        buffer.put(username);
+
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(skills.getRank(i));
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(skills.getLevel(i));
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(skills.getExperience(i));
+        }
+
+        for (int i = 0; i < count; i++) {
+            buffer.put(goalType(snapshot.getGoal(SKILL_NAMES[i])));
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(goalTarget(snapshot.getGoal(SKILL_NAMES[i])));
+        }
+
+        for (int i = 0; i < count; i++) {
+            Integer rate = snapshot.getExperienceRate(SKILL_NAMES[i]);
+            buffer.putInt(rate == null ? 0 : rate);
+        }
+
+        buffer.flip();
+        buffer.putLong(CONTENT_HASH_OFFSET, contentHash(buffer));
+        return buffer;
+    }
+
+    /**
+     * Hashes every byte of an encoded Player except lastRefreshedAt and the
+     * content hash itself, with 64 bit FNV-1a
+     *
+     * @param buffer the encoded Player
+     * @return the hash, never 0
+     */
+    private static long contentHash(ByteBuffer buffer) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < buffer.limit(); i++) {
+            if ((i >= LAST_REFRESHED_OFFSET && i < LAST_REFRESHED_OFFSET + Long.BYTES)
+                    || (i >= CONTENT_HASH_OFFSET && i < CONTENT_HASH_OFFSET + Long.BYTES)) {
+                continue;
+            }
+            hash = (hash ^ (buffer.get(i) & 0xFF)) * FNV_PRIME;
+        }
+        return (hash == 0) ? 1 : hash;
+    }
+
+    /**
+     * Decodes a Player from a buffer in the binary format
+     *
+     * @param buffer the file contents
+     * @return the decoded Player
+     * @throws IOException if the buffer is not a valid binary file
+     */
+    static Player decode(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a saved player file");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION && version != VERSION_1) {
+                throw new IOException("Unsupported saved player version: " + version);
+            }
+
+            int count = buffer.getShort();
+            if (count < 0 || count > SKILL_NAMES.length) {
+                throw new IOException("Invalid number of skills: " + count);
+            }
+            LocalDateTime lastRefreshedAt = fromEpochMillis(buffer.getLong());
+            if (version == VERSION) {
+                // Skip the Overall values and the content hash, the arrays
+                // below have everything
+                buffer.position(buffer.position() + 3 * Integer.BYTES + Long.BYTES);
+            }
+            byte[] username = new byte[buffer.getShort()];
+            buffer.get(username);
+
+            int[] ranks = readInts(buffer, count);
+            int[] levels = readInts(buffer, count);
+            int[] experience = readInts(buffer, count);
+            SkillData skills = new SkillData(ranks, levels, experience);
+
+            byte[] goalTypes = new byte[count];
+            buffer.get(goalTypes);
+            int[] goalTargets = readInts(buffer, count);
+            EnumMap<SkillName, Goal> goals = new EnumMap<>(SkillName.class);
+            for (int i = 0; i < count; i++) {
+                Goal goal = toGoal(goalTypes[i], goalTargets[i]);
+                if (goal != null) {
+                    goals.put(SKILL_NAMES[i], goal);
+                }
+            }
+
+            int[] rates = readInts(buffer, count);
+            for (int i = 0; i < count; i++) {
+                // Anything but a positive rate means no rate was set
+                rates[i] = Math.max(0, rates[i]);
+            }
+
+            return new Player(new String(username, StandardCharsets.UTF_8), lastRefreshedAt,
+                    skills, goals, rates);
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IOException("Saved player file is truncated", e);
+        }
+    }
+
+    /**
+     * Reads a Player from a file written with Java serialization
+     *
+     * @param buffer the file contents
+     * @return the deserialized Player
+     * @throws IOException            if the file is corrupt
+     * @throws ClassNotFoundException if the file references unknown classes
+     */
+    private static Player readLegacy(ByteBuffer buffer) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(
+                buffer.array(), buffer.position(), buffer.remaining()))) {
+            return (Player) in.readObject();
+        }
+    }
+
+    /**
+     * Reads count ints from the buffer
+     *
+     * @param buffer the buffer to read from
+     * @param count  the number of ints to read
+     * @return the ints read
+     */
+    private static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    /**
+     * Returns the goal type byte stored for a Goal
+     *
+     * @param goal the Goal, may be null
+     * @return the goal type
+     */
+    private static byte goalType(Goal goal) {
+        if (goal instanceof LevelGoal) {
+            return LEVEL_GOAL;
+        } else if (goal instanceof ExperienceGoal) {
+            return EXPERIENCE_GOAL;
+        }
+        return NO_GOAL;
+    }
+
+    /**
+     * Returns the target stored for a Goal, the level for a LevelGoal and the
+     * experience for an ExperienceGoal.
+     *
+     * @param goal the Goal, may be null
+     * @return the goal target, 0 for no goal
+     */
+    private static int goalTarget(Goal goal) {
+        if (goal instanceof LevelGoal) {
+            return ((LevelGoal) goal).getTargetLevel();
+        } else if (goal instanceof ExperienceGoal) {
+            return goal.getTargetExperience();
+        }
+        return 0;
+    }
+
+    /**
+     * Rebuilds a Goal from its stored type and target
+     *
+     * @param type   the goal type
+     * @param target the goal target
+     * @return the Goal, null for no goal
+     * @throws IOException if the type or target is invalid
+     */
+    private static Goal toGoal(byte type, int target) throws IOException {
+        try {
+            if (type == LEVEL_GOAL) {
+                return LevelGoal.of(target);
+            } else if (type == EXPERIENCE_GOAL) {
+                return new ExperienceGoal(target);
+            } else if (type == NO_GOAL) {
+                return null;
+            }
+        } catch (InvalidGoalException e) {
+            throw new IOException("Invalid goal target in saved player: " + target, e);
+        }
+        throw new IOException("Invalid goal type in saved player: " + type);
+    }
+
+    /**
+     * Converts a LocalDateTime to epoch millis in the system time zone
+     *
+     * @param time the time to convert, may be null
+     * @return epoch millis, Long.MIN_VALUE for null
+     */
+    static long toEpochMillis(LocalDateTime time) {
+        if (time == null) {
+            return Long.MIN_VALUE;
+        }
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Converts epoch millis back to a LocalDateTime in the system time zone
+     *
+     * @param millis epoch millis, Long.MIN_VALUE for null
+     * @return the LocalDateTime, or null
+     */
+    static LocalDateTime fromEpochMillis(long millis) {
+        if (millis == Long.MIN_VALUE) {
+            return null;
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,186 @@
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * PlayerJson renders Players as JSON for the TrackerDaemon. Output is built
+ * directly into a StringBuilder, so no JSON library is needed.
+ *
+ * A Player is rendered as:
+ * {"username": ..., "version": ..., "lastRefreshedAt": ..., "skills": [...]}
+ * where every skill has its name, level, virtualLevel, experience, rank, goal,
+ * progress, experienceRate, measuredExperienceRate and timeToGoal. Values
+ * that are not set or can't be calculated are null.
+ */
+final class PlayerJson {
+    // Static methods only
+    private PlayerJson() {
+    }
+
+    /**
+     * Renders the full state of a Player
+     *
+     * @param player  the Player to render
+     * @param version the version of the Player's data being rendered
+     * @return the JSON object as UTF-8 bytes
+     */
+    static byte[] render(Player player, long version) {
+        StringBuilder json = new StringBuilder(8192);
+        appendPlayer(json, player, version);
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Renders a short summary of a Player without its skills
+     *
+     * @param json    the builder to append to
+     * @param player  the Player to summarize
+     * @param version the version of the Player's data
+     */
+    static void appendSummary(StringBuilder json, Player player, long version) {
+        json.append("{\"username\":");
+        appendString(json, player.getUsername());
+        json.append(",\"version\":").append(version);
+        json.append(",\"lastRefreshedAt\":");
+        appendTimestamp(json, player.getLastRefreshedAt());
+        json.append('}');
+    }
+
+    /**
+     * Appends the full JSON object of a Player
+     *
+     * @param json    the builder to append to
+     * @param player  the Player to render
+     * @param version the version of the Player's data
+     */
+    private static void appendPlayer(StringBuilder json, Player player, long version) {
+        // Render from one snapshot so a concurrent refresh can't mix states
+        PlayerSnapshot snapshot = player.getSnapshot();
+        json.append("{\"username\":");
+        appendString(json, player.getUsername());
+        json.append(",\"version\":").append(version);
+        json.append(",\"lastRefreshedAt\":");
+        appendTimestamp(json, snapshot.getLastRefreshedAt());
+        json.append(",\"skills\":[");
+
+        List<Skill> skills = snapshot.getSkills();
+        for (int i = 0; i < skills.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendSkill(json, player, snapshot, skills.get(i));
+        }
+        json.append("]}");
+    }
+
+    /**
+     * Appends the JSON object of one of a Player's skills
+     *
+     * @param json     the builder to append to
+     * @param player   the Player the skill belongs to
+     * @param snapshot the Player state being rendered
+     * @param skill    the skill to render
+     */
+    private static void appendSkill(StringBuilder json, Player player, PlayerSnapshot snapshot, Skill skill) {
+        SkillName name = skill.getName();
+        json.append("{\"name\":\"").append(name.name()).append('"');
+        json.append(",\"level\":").append(skill.getLevel());
+        json.append(",\"virtualLevel\":").append(skill.getVirtualLevel());
+        json.append(",\"experience\":").append(skill.getExperience());
+        json.append(",\"rank\":").append(skill.getRank());
+
+        json.append(",\"goal\":");
+        appendGoal(json, snapshot.getGoal(name));
+
+        int progress = snapshot.getProgressToGoal(name);
+        json.append(",\"progress\":");
+        if (progress < 0) {
+            json.append("null");
+        } else {
+            json.append(progress);
+        }
+
+        json.append(",\"experienceRate\":").append(snapshot.getExperienceRate(name));
+        json.append(",\"measuredExperienceRate\":").append(player.getMeasuredExperienceRate(name));
+
+        double hours = player.getTimeToGoal(snapshot, name);
+        json.append(",\"timeToGoal\":");
+        if (hours < 0) {
+            json.append("null");
+        } else {
+            json.append(hours);
+        }
+        json.append('}');
+    }
+
+    /**
+     * Appends the JSON object of a Goal, or null if there is none
+     *
+     * @param json the builder to append to
+     * @param goal the Goal to render, may be null
+     */
+    private static void appendGoal(StringBuilder json, Goal goal) {
+        if (goal == null) {
+            json.append("null");
+            return;
+        }
+
+        if (goal instanceof LevelGoal) {
+            json.append("{\"type\":\"level\",\"target\":").append(((LevelGoal) goal).getTargetLevel());
+        } else {
+            json.append("{\"type\":\"experience\",\"target\":").append(goal.getTargetExperience());
+        }
+        json.append(",\"targetExperience\":").append(goal.getTargetExperience()).append('}');
+    }
+
+    /**
+     * Appends a timestamp as a JSON string, or null if it is not set
+     *
+     * @param json      the builder to append to
+     * @param timestamp the timestamp to append, may be null
+     */
+    private static void appendTimestamp(StringBuilder json, LocalDateTime timestamp) {
+        if (timestamp == null) {
+            json.append("null");
+        } else {
+            appendString(json, timestamp.toString());
+        }
+    }
+
+    /**
+     * Appends a JSON string literal, escaping characters JSON doesn't allow
+     *
+     * @param json  the builder to append to
+     * @param value the string to append
+     */
+    static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+}
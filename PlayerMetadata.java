@@ -0,0 +1,90 @@
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * PlayerMetadata is what a saved Player file says about its Player without
+ * loading it: the username, when it was last refreshed and the Overall rank,
+ * total level and total experience. Read with PlayerFile.readMetadata, which
+ * only reads the start of the file.
+ */
+public final class PlayerMetadata {
+    // The file the metadata was read from
+    private final Path path;
+    // In-game username of the saved Player
+    private final String username;
+    // The last time the saved Player was refreshed, may be null
+    private final LocalDateTime lastRefreshedAt;
+    // Overall rank, -1 if unranked or unknown
+    private final int rank;
+    // Total level, the level of the Overall skill
+    private final int totalLevel;
+    // Total experience, -1 if unranked or unknown
+    private final int totalExperience;
+
+    /**
+     * Creates a new PlayerMetadata
+     *
+     * @param path            the file the metadata was read from
+     * @param username        in-game username of the saved Player
+     * @param lastRefreshedAt the last time the saved Player was refreshed
+     * @param rank            Overall rank
+     * @param totalLevel      total level
+     * @param totalExperience total experience
+     */
+    PlayerMetadata(Path path, String username, LocalDateTime lastRefreshedAt, int rank, int totalLevel,
+            int totalExperience) {
+        this.path = path;
+        this.username = username;
+        this.lastRefreshedAt = lastRefreshedAt;
+        this.rank = rank;
+        this.totalLevel = totalLevel;
+        this.totalExperience = totalExperience;
+    }
+
+    /**
+     * Creates the metadata of a Player that is already loaded
+     *
+     * @param path   the file the Player was loaded from
+     * @param player the loaded Player
+     * @return the Player's metadata
+     */
+    static PlayerMetadata of(Path path, Player player) {
+        PlayerSnapshot snapshot = player.getSnapshot();
+        SkillData skills = snapshot.getSkillData();
+        boolean hasOverall = skills != null && skills.getSkillCount() > 0;
+        return new PlayerMetadata(path, player.getUsername(), snapshot.getLastRefreshedAt(),
+                hasOverall ? skills.getRank(0) : -1,
+                hasOverall ? skills.getLevel(0) : 0,
+                hasOverall ? skills.getExperience(0) : -1);
+    }
+
+    // Path Getter
+    public Path getPath() {
+        return this.path;
+    }
+
+    // Username Getter
+    public String getUsername() {
+        return this.username;
+    }
+
+    // lastRefreshedAt Getter
+    public LocalDateTime getLastRefreshedAt() {
+        return this.lastRefreshedAt;
+    }
+
+    // Rank Getter
+    public int getRank() {
+        return this.rank;
+    }
+
+    // Total Level Getter
+    public int getTotalLevel() {
+        return this.totalLevel;
+    }
+
+    // Total Experience Getter
+    public int getTotalExperience() {
+        return this.totalExperience;
+    }
+}
@@ -0,0 +1,165 @@
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A PlayerSnapshot is the full state of a Player at one moment: when it was
+ * last refreshed, its skills, its Goals and its experience rates. Snapshots
+ * are immutable. A Player publishes its current snapshot through an
+ * AtomicReference, and every change, whether a refresh or a goal or rate
+ * edit, creates a new snapshot with the with* methods and swaps it in.
+ *
+ * Readers on any thread can therefore take one snapshot and read a
+ * consistent view of the Player without locking.
+ */
+public final class PlayerSnapshot {
+    // Cached copy of SkillName.values()
+    private static final SkillName[] SKILL_NAMES = SkillName.values();
+    // The state of a Player that has not been refreshed yet
+    static final PlayerSnapshot EMPTY = new PlayerSnapshot(null, null,
+            new EnumMap<>(SkillName.class), new int[SKILL_NAMES.length]);
+
+    // The last time the skills were pulled from the API
+    private final LocalDateTime lastRefreshedAt;
+    // The skills, null before the first refresh
+    private final SkillData skills;
+    // The Goals by skill, never modified after construction
+    private final EnumMap<SkillName, Goal> goals;
+    // The experience rates in exp/hour by SkillName ordinal, 0 when not set.
+    // Never modified after construction.
+    private final int[] experienceRates;
+
+    /**
+     * Creates a new PlayerSnapshot. The map and array are not copied, so
+     * callers must not modify them afterwards.
+     *
+     * @param lastRefreshedAt the last time the skills were pulled from the API
+     * @param skills          the skills
+     * @param goals           the Goals by skill
+     * @param experienceRates the experience rates by SkillName ordinal, 0 when
+     *                        not set
+     */
+    PlayerSnapshot(LocalDateTime lastRefreshedAt, SkillData skills, EnumMap<SkillName, Goal> goals,
+            int[] experienceRates) {
+        this.lastRefreshedAt = lastRefreshedAt;
+        this.skills = skills;
+        this.goals = goals;
+        this.experienceRates = experienceRates;
+    }
+
+    // lastRefreshedAt Getter
+    public LocalDateTime getLastRefreshedAt() {
+        return this.lastRefreshedAt;
+    }
+
+    // Skill Data Getter
+    public SkillData getSkillData() {
+        return this.skills;
+    }
+
+    // Skills Getter, a read-only view in SkillName order
+    public List<Skill> getSkills() {
+        return this.skills.asList();
+    }
+
+    // Skill by SkillName Accessor
+    public Skill getSkill(SkillName skillName) {
+        return this.skills.getSkill(skillName.ordinal());
+    }
+
+    // Goals Getter, a read-only view
+    public Map<SkillName, Goal> getGoals() {
+        return Collections.unmodifiableMap(this.goals);
+    }
+
+    // Specific Goal by SkillName Accessor
+    public Goal getGoal(SkillName skillName) {
+        return this.goals.get(skillName);
+    }
+
+    // Experience Rate by SkillName Accessor, null when not set
+    public Integer getExperienceRate(SkillName skillName) {
+        int rate = this.experienceRates[skillName.ordinal()];
+        return (rate == 0) ? null : rate;
+    }
+
+    /**
+     * Calculates the progress towards a specific Skill's Goal as the
+     * percentage of experience earned towards the goal's target experience.
+     *
+     * @param skillName The skill to calculate progress for
+     * @return an integer between 0 and 100. -1 if no Goal was set
+     */
+    public int getProgressToGoal(SkillName skillName) {
+        Goal goal = this.goals.get(skillName);
+
+        // Return -1 if no Goal for the skill was found
+        if (goal == null) {
+            return -1;
+        }
+
+        int currentExp = this.skills.getExperience(skillName.ordinal());
+        int targetExp = goal.getTargetExperience();
+
+        int progress = (int) ((currentExp * 100.0) / targetExp);
+
+        return Math.min(progress, 100);
+    }
+
+    /**
+     * Returns a copy of this snapshot with freshly fetched skills
+     *
+     * @param fetched     the fetched skills
+     * @param refreshedAt when the skills were fetched
+     * @return the new snapshot
+     */
+    PlayerSnapshot withSkills(SkillData fetched, LocalDateTime refreshedAt) {
+        return new PlayerSnapshot(refreshedAt, fetched, this.goals, this.experienceRates);
+    }
+
+    /**
+     * Returns a copy of this snapshot with a Goal replaced
+     *
+     * @param skillName the skill to set the Goal for
+     * @param goal      the new Goal
+     * @return the new snapshot
+     */
+    PlayerSnapshot withGoal(SkillName skillName, Goal goal) {
+        EnumMap<SkillName, Goal> newGoals = new EnumMap<>(this.goals);
+        newGoals.put(skillName, goal);
+        return new PlayerSnapshot(this.lastRefreshedAt, this.skills, newGoals, this.experienceRates);
+    }
+
+    /**
+     * Returns a copy of this snapshot with a level 99 Goal for every
+     * non-Overall skill, replacing any existing Goals
+     *
+     * @return the new snapshot
+     */
+    PlayerSnapshot withDefaultGoals() {
+        // Every skill shares the same interned LevelGoal instance
+        LevelGoal defaultGoal = LevelGoal.of();
+        EnumMap<SkillName, Goal> newGoals = new EnumMap<>(SkillName.class);
+        for (int i = 0; i < this.skills.getSkillCount(); i++) {
+            if (SKILL_NAMES[i] != SkillName.OVERALL) {
+                newGoals.put(SKILL_NAMES[i], defaultGoal);
+            }
+        }
+        return new PlayerSnapshot(this.lastRefreshedAt, this.skills, newGoals, this.experienceRates);
+    }
+
+    /**
+     * Returns a copy of this snapshot with an experience rate replaced
+     *
+     * @param skillName the skill to set the rate for
+     * @param rate      the new rate in exp/hour, 0 to clear it
+     * @return the new snapshot
+     */
+    PlayerSnapshot withExperienceRate(SkillName skillName, int rate) {
+        int[] newRates = this.experienceRates.clone();
+        newRates[skillName.ordinal()] = rate;
+        return new PlayerSnapshot(this.lastRefreshedAt, this.skills, this.goals, newRates);
+    }
+}
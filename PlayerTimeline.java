@@ -0,0 +1,110 @@
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A PlayerTimeline is every saved copy of one username, ordered from oldest
+ * to newest by lastRefreshedAt, as found by a BulkImporter. Copies without a
+ * lastRefreshedAt are ordered first.
+ *
+ * Timelines are immutable.
+ */
+public class PlayerTimeline {
+    // Orders Players by lastRefreshedAt, missing timestamps first
+    private static final Comparator<Player> BY_REFRESH_TIME = Comparator.comparing(Player::getLastRefreshedAt,
+            Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    // The username as saved in the newest copy
+    private final String username;
+    // The saved copies, oldest first
+    private final List<Player> players;
+
+    /**
+     * Creates a new PlayerTimeline from copies of the same username in any
+     * order.
+     *
+     * @param players the saved copies, at least one
+     * @throws IllegalArgumentException if players is empty
+     */
+    PlayerTimeline(List<Player> players) {
+        if (players.isEmpty()) {
+            throw new IllegalArgumentException("A timeline needs at least one Player");
+        }
+
+        List<Player> sorted = new ArrayList<>(players);
+        sorted.sort(BY_REFRESH_TIME);
+        this.players = Collections.unmodifiableList(sorted);
+        this.username = sorted.get(sorted.size() - 1).getUsername();
+    }
+
+    // Username Getter
+    public String getUsername() {
+        return this.username;
+    }
+
+    // Players Getter, oldest first
+    public List<Player> getPlayers() {
+        return this.players;
+    }
+
+    // Number of saved copies
+    public int size() {
+        return this.players.size();
+    }
+
+    // Oldest saved copy
+    public Player getFirst() {
+        return this.players.get(0);
+    }
+
+    // Newest saved copy
+    public Player getLatest() {
+        return this.players.get(this.players.size() - 1);
+    }
+
+    // When the oldest copy was refreshed, may be null
+    public LocalDateTime getStart() {
+        return getFirst().getLastRefreshedAt();
+    }
+
+    // When the newest copy was refreshed, may be null
+    public LocalDateTime getEnd() {
+        return getLatest().getLastRefreshedAt();
+    }
+
+    /**
+     * Calculates the experience gained in a skill between the oldest and the
+     * newest copy
+     *
+     * @param skillName the skill
+     * @return the experience gained, 0 if the skill is missing from a copy
+     */
+    public int getExperienceGained(SkillName skillName) {
+        SkillData first = getFirst().getSkillData();
+        SkillData latest = getLatest().getSkillData();
+        int ordinal = skillName.ordinal();
+        if (first == null || latest == null || ordinal >= first.getSkillCount() || ordinal >= latest.getSkillCount()) {
+            return 0;
+        }
+        return Math.max(0, latest.getExperience(ordinal) - first.getExperience(ordinal));
+    }
+
+    /**
+     * Converts every copy with skills and a timestamp to a SkillSnapshot, for
+     * history views or replaying into an ExperienceRateEstimator
+     *
+     * @return the snapshots, oldest first
+     */
+    public List<SkillSnapshot> toSnapshots() {
+        List<SkillSnapshot> snapshots = new ArrayList<>(this.players.size());
+        for (Player player : this.players) {
+            PlayerSnapshot state = player.getSnapshot();
+            if (state.getSkillData() != null && state.getLastRefreshedAt() != null) {
+                snapshots.add(SkillSnapshot.of(state.getLastRefreshedAt(), state.getSkillData()));
+            }
+        }
+        return snapshots;
+    }
+}
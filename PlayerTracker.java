@@ -0,0 +1,144 @@
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * PlayerTracker fetches a whole roster of Players at once. Every username is
+ * fetched on its own virtual thread, while a semaphore caps how many requests
+ * are in flight and a RateLimiter caps how many requests per second are sent
+ * to the hiscore API.
+ *
+ * All Players fetched in one batch share the same lastRefreshedAt, so they can
+ * be compared with each other directly.
+ *
+ * Usernames the API recently answered "not found" for, see
+ * MissingPlayerCache, are reported as known missing straight away without
+ * taking a permit or a request from the rate limiter.
+ */
+public class PlayerTracker {
+    // Default number of requests allowed in flight at once
+    public static final int DEFAULT_MAX_CONCURRENCY = 8;
+    // Default number of requests allowed per second
+    public static final double DEFAULT_REQUESTS_PER_SECOND = 5.0;
+
+    // Maximum number of requests in flight at once
+    private final int maxConcurrency;
+    // Limits the rate requests are sent to the hiscore API
+    private final RateLimiter rateLimiter;
+
+    // 0-arg constructor, uses the default concurrency and request rate
+    public PlayerTracker() {
+        this(DEFAULT_MAX_CONCURRENCY, DEFAULT_REQUESTS_PER_SECOND);
+    }
+
+    /**
+     * Creates a new PlayerTracker with the provided limits.
+     *
+     * @param maxConcurrency    the maximum number of requests in flight at once
+     * @param requestsPerSecond the maximum number of requests sent per second
+     * @throws IllegalArgumentException if either limit is not positive
+     */
+    public PlayerTracker(int maxConcurrency, double requestsPerSecond) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+
+        this.maxConcurrency = maxConcurrency;
+        this.rateLimiter = new RateLimiter(requestsPerSecond);
+    }
+
+    // Max Concurrency Getter
+    public int getMaxConcurrency() {
+        return this.maxConcurrency;
+    }
+
+    /**
+     * Fetches every username and returns the results in the order they
+     * completed.
+     *
+     * @param usernames the usernames to fetch
+     * @return one TrackingResult per username
+     * @throws InterruptedException if interrupted while waiting for results
+     */
+    public List<TrackingResult> trackAll(List<String> usernames) throws InterruptedException {
+        return trackAll(usernames, result -> {
+        });
+    }
+
+    /**
+     * Fetches every username concurrently. onResult is called on the calling
+     * thread with each TrackingResult as soon as it completes, so callers can
+     * show progress before the whole batch is done. A failed fetch, including
+     * a username that does not exist, does not stop the rest of the batch.
+     *
+     * @param usernames the usernames to fetch
+     * @param onResult  called with each result as it completes
+     * @return one TrackingResult per username, in the order they completed
+     * @throws InterruptedException if interrupted while waiting for results
+     */
+    public List<TrackingResult> trackAll(List<String> usernames, Consumer<TrackingResult> onResult)
+            throws InterruptedException {
+        // Every Player in the batch is stamped with the time the batch started
+        LocalDateTime batchTimestamp = LocalDateTime.now();
+        Semaphore permits = new Semaphore(this.maxConcurrency);
+        List<TrackingResult> results = new ArrayList<>(usernames.size());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<TrackingResult> completions = new ExecutorCompletionService<>(executor);
+            for (String username : usernames) {
+                completions.submit(() -> track(username, batchTimestamp, permits));
+            }
+
+            for (int i = 0; i < usernames.size(); i++) {
+                TrackingResult result = completions.take().get();
+                results.add(result);
+                onResult.accept(result);
+            }
+        } catch (ExecutionException e) {
+            // track catches every Exception, so only Errors can end up here
+            throw new IllegalStateException(e.getCause());
+        }
+
+        return results;
+    }
+
+    /**
+     * Fetches a single username, waiting for a concurrency permit and for the
+     * rate limiter first, unless it is known to be missing. Runs on its own
+     * virtual thread.
+     *
+     * @param username       the username to fetch
+     * @param batchTimestamp the timestamp shared by the batch
+     * @param permits        the semaphore limiting requests in flight
+     * @return the TrackingResult for username
+     */
+    private TrackingResult track(String username, LocalDateTime batchTimestamp, Semaphore permits) {
+        if (Player.getMissingPlayers().isKnownMissing(username)) {
+            return new TrackingResult(username, null, new PlayerNotFoundException(), batchTimestamp, true);
+        }
+
+        try {
+            permits.acquire();
+            try {
+                this.rateLimiter.acquire();
+                Player player = new Player(username, batchTimestamp);
+                return new TrackingResult(username, player, null, batchTimestamp);
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            // Keep the interrupt visible to the executor shutting down
+            Thread.currentThread().interrupt();
+            return new TrackingResult(username, null, e, batchTimestamp);
+        } catch (Exception e) {
+            return new TrackingResult(username, null, e, batchTimestamp);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A RateLimiter spaces out permits so that no more than permitsPerSecond are
+ * handed out on average. Each caller reserves the next free time slot and then
+ * sleeps until it arrives, so waiting never holds a lock. Sleeping is cheap on
+ * virtual threads, which is how PlayerTracker uses it.
+ */
+public class RateLimiter {
+    // Time between two permits, in nanoseconds
+    private final long intervalNanos;
+    // The earliest time the next permit can be handed out, from System.nanoTime
+    private long nextFreeNanos;
+
+    /**
+     * Creates a new RateLimiter handing out the given number of permits per
+     * second.
+     *
+     * @param permitsPerSecond how many permits to allow each second
+     * @throws IllegalArgumentException if permitsPerSecond is not positive
+     */
+    public RateLimiter(double permitsPerSecond) {
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        }
+
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * Blocks until a permit is available.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Reserves the next free slot and returns how long the caller has to wait
+     * for it.
+     *
+     * @return nanoseconds until the reserved slot
+     */
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        long slot = Math.max(now, this.nextFreeNanos);
+        this.nextFreeNanos = slot + this.intervalNanos;
+        return slot - now;
+    }
+}
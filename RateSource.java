@@ -0,0 +1,9 @@
+/**
+ * The RateSource enum selects which experience rate is used to estimate the
+ * time to reach a Goal:
+ * - MANUAL: The rate entered by the user
+ * - MEASURED: The rate measured from the Player's refreshes
+ */
+public enum RateSource {
+    MANUAL, MEASURED
+}
@@ -0,0 +1,404 @@
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RollupStore keeps the experience every Player gained per skill in hourly,
+ * daily and weekly buckets, so gains over any period are summed from a few
+ * buckets instead of rescanning every snapshot.
+ *
+ * Buckets are updated as each refreshed snapshot comes in: the experience
+ * gained since the Player's previous snapshot is added to the hour, day and
+ * week the new snapshot falls in. Gains are therefore only as precise as the
+ * refreshes, a gap of several hours is counted in the hour it ends in.
+ *
+ * Buckets start on local hours, midnights and Mondays in the store's time
+ * zone. Only buckets with some gain are kept.
+ *
+ * Old buckets are dropped the way a SnapshotCompactor thins old snapshots:
+ * hourly buckets are kept for 30 days and daily buckets for 365 days by
+ * default, weekly buckets for good. The ages are measured back from a
+ * Player's newest snapshot, and checked whenever a new bucket is started.
+ * Gains older than a window are summed from the coarser buckets only.
+ */
+public class RollupStore implements SnapshotListener {
+    /**
+     * The bucket sizes, from finest to coarsest
+     */
+    public enum Resolution {
+        HOUR, DAY, WEEK;
+
+        /**
+         * Returns the start of the bucket containing a time
+         *
+         * @param millis the time, in epoch millis
+         * @param zone   the time zone buckets are aligned to
+         * @return the start of the bucket, in epoch millis
+         */
+        public long start(long millis, ZoneId zone) {
+            ZonedDateTime time = Instant.ofEpochMilli(millis).atZone(zone);
+            switch (this) {
+                case HOUR:
+                    return time.truncatedTo(ChronoUnit.HOURS).toInstant().toEpochMilli();
+                case DAY:
+                    return startOfDay(time.toLocalDate(), zone);
+                default:
+                    return startOfDay(time.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)), zone);
+            }
+        }
+
+        /**
+         * Returns the start of the bucket after the one starting at a time
+         *
+         * @param start the start of a bucket, in epoch millis
+         * @param zone  the time zone buckets are aligned to
+         * @return the start of the next bucket, in epoch millis
+         */
+        public long next(long start, ZoneId zone) {
+            ZonedDateTime time = Instant.ofEpochMilli(start).atZone(zone);
+            switch (this) {
+                case HOUR:
+                    return time.plusHours(1).truncatedTo(ChronoUnit.HOURS).toInstant().toEpochMilli();
+                case DAY:
+                    return startOfDay(time.toLocalDate().plusDays(1), zone);
+                default:
+                    return startOfDay(time.toLocalDate().plusWeeks(1), zone);
+            }
+        }
+
+        /**
+         * Returns the first bucket start at or after a time
+         *
+         * @param millis the time, in epoch millis
+         * @param zone   the time zone buckets are aligned to
+         * @return the bucket start, in epoch millis
+         */
+        private long ceil(long millis, ZoneId zone) {
+            long start = start(millis, zone);
+            return (start == millis) ? millis : next(start, zone);
+        }
+
+        private static long startOfDay(LocalDate date, ZoneId zone) {
+            return date.atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+    }
+
+    // Cached copy of Resolution.values()
+    private static final Resolution[] RESOLUTIONS = Resolution.values();
+
+    // Time zone buckets are aligned to
+    private final ZoneId zone;
+    // How long buckets are kept, by resolution, null to keep them for good
+    private final EnumMap<Resolution, Duration> retention = new EnumMap<>(Resolution.class);
+    // Rollups of every Player, keyed by normalized username
+    private final ConcurrentHashMap<String, PlayerRollups> players = new ConcurrentHashMap<>();
+
+    // 0-arg constructor, aligns buckets to the system time zone
+    public RollupStore() {
+        this(ZoneId.systemDefault());
+    }
+
+    /**
+     * Creates a new RollupStore aligning buckets to a time zone, keeping
+     * buckets as long as a SnapshotCompactor keeps records by default
+     *
+     * @param zone the time zone days and weeks start in
+     */
+    public RollupStore(ZoneId zone) {
+        this(zone, SnapshotCompactor.DEFAULT_HOURLY, SnapshotCompactor.DEFAULT_DAILY);
+    }
+
+    /**
+     * Creates a new RollupStore
+     *
+     * @param zone   the time zone days and weeks start in
+     * @param hourly how long hourly buckets are kept
+     * @param daily  how long daily buckets are kept, weekly buckets are kept
+     *               for good
+     * @throws IllegalArgumentException if the ages are not increasing
+     */
+    public RollupStore(ZoneId zone, Duration hourly, Duration daily) {
+        if (hourly.isNegative() || daily.compareTo(hourly) < 0) {
+            throw new IllegalArgumentException("Ages must be increasing: " + hourly + ", " + daily);
+        }
+        this.zone = zone;
+        this.retention.put(Resolution.HOUR, hourly);
+        this.retention.put(Resolution.DAY, daily);
+    }
+
+    // Zone Getter
+    public ZoneId getZone() {
+        return this.zone;
+    }
+
+    /**
+     * Adds every refreshed snapshot to the Player's rollups
+     */
+    @Override
+    public void onSnapshot(String username, SkillSnapshot snapshot) {
+        add(username, snapshot);
+    }
+
+    /**
+     * Adds the experience gained since the username's previous snapshot to the
+     * buckets of this snapshot. The first snapshot of a username only sets the
+     * baseline. Snapshots older than the previous one are dropped.
+     *
+     * @param username the username the snapshot belongs to
+     * @param snapshot the snapshot to add
+     * @return true if the snapshot was added
+     */
+    public boolean add(String username, SkillSnapshot snapshot) {
+        PlayerRollups rollups = this.players.computeIfAbsent(HiscoreCache.normalize(username),
+                key -> new PlayerRollups());
+        return rollups.add(snapshot.getTimestampMillis(), experienceOf(snapshot));
+    }
+
+    /**
+     * Rebuilds a username's rollups from its recorded history, replacing any
+     * rollups it already had. Call it before the Player is refreshed, since a
+     * snapshot added while rebuilding is lost.
+     *
+     * @param username the username the history belongs to
+     * @param history  the recorded snapshots, oldest first
+     */
+    public void replay(String username, SnapshotRange history) {
+        PlayerRollups rollups = new PlayerRollups();
+        int[] experience = new int[history.getSkillCount()];
+        for (int i = 0; i < history.size(); i++) {
+            for (int ordinal = 0; ordinal < experience.length; ordinal++) {
+                experience[ordinal] = history.getExperience(i, ordinal);
+            }
+            rollups.add(history.getTimestampMillis(i), experience);
+        }
+        this.players.put(HiscoreCache.normalize(username), rollups);
+    }
+
+    /**
+     * Sums the experience gained in a skill between two times. The range is
+     * widened to whole hours and summed from the coarsest buckets that fit
+     * inside it: weeks in the middle, then days, then hours at the edges.
+     *
+     * @param username   the username to sum
+     * @param skillName  the skill to sum
+     * @param fromMillis the start of the range, in epoch millis, inclusive
+     * @param toMillis   the end of the range, in epoch millis, exclusive
+     * @return the experience gained, 0 if nothing is known
+     */
+    public long getGained(String username, SkillName skillName, long fromMillis, long toMillis) {
+        PlayerRollups rollups = this.players.get(HiscoreCache.normalize(username));
+        if (rollups == null || toMillis <= fromMillis) {
+            return 0;
+        }
+
+        long from = Resolution.HOUR.start(fromMillis, this.zone);
+        long to = Resolution.HOUR.ceil(toMillis, this.zone);
+        synchronized (rollups) {
+            return rollups.sum(Resolution.WEEK, skillName.ordinal(), from, to);
+        }
+    }
+
+    /**
+     * Returns the experience gained in a skill in each bucket of a resolution
+     * from the bucket containing fromMillis up to the one containing
+     * toMillis, for charting. Buckets without gains are included as 0.
+     *
+     * @param username   the username to read
+     * @param skillName  the skill to read
+     * @param resolution the bucket size
+     * @param fromMillis a time in the first bucket, in epoch millis
+     * @param toMillis   a time in the last bucket, in epoch millis
+     * @return the gain of each bucket by its start in epoch millis, in order
+     */
+    public Map<Long, Long> getSeries(String username, SkillName skillName, Resolution resolution,
+            long fromMillis, long toMillis) {
+        Map<Long, Long> series = new LinkedHashMap<>();
+        PlayerRollups rollups = this.players.get(HiscoreCache.normalize(username));
+        int ordinal = skillName.ordinal();
+
+        for (long start = resolution.start(fromMillis, this.zone); start <= toMillis;
+                start = resolution.next(start, this.zone)) {
+            long gained = 0;
+            if (rollups != null) {
+                synchronized (rollups) {
+                    int[] bucket = rollups.buckets.get(resolution).get(start);
+                    gained = (bucket == null || ordinal >= bucket.length) ? 0 : bucket[ordinal];
+                }
+            }
+            series.put(start, gained);
+        }
+        return series;
+    }
+
+    /**
+     * Returns the number of buckets kept for a username at a resolution
+     *
+     * @param username   the username
+     * @param resolution the bucket size
+     * @return the number of buckets with some gain
+     */
+    public int getBucketCount(String username, Resolution resolution) {
+        PlayerRollups rollups = this.players.get(HiscoreCache.normalize(username));
+        if (rollups == null) {
+            return 0;
+        }
+        synchronized (rollups) {
+            return rollups.buckets.get(resolution).size();
+        }
+    }
+
+    /**
+     * Copies the experience of every skill in a snapshot
+     *
+     * @param snapshot the snapshot
+     * @return experience indexed by SkillName ordinal
+     */
+    private static int[] experienceOf(SkillSnapshot snapshot) {
+        int[] experience = new int[snapshot.getSkillCount()];
+        for (int i = 0; i < experience.length; i++) {
+            experience[i] = snapshot.getExperience(i);
+        }
+        return experience;
+    }
+
+    /**
+     * The buckets of one Player and the snapshot gains are measured from.
+     * Guarded by its own lock.
+     */
+    private final class PlayerRollups {
+        // Gains per skill, by bucket start, per resolution
+        private final EnumMap<Resolution, TreeMap<Long, int[]>> buckets = new EnumMap<>(Resolution.class);
+        // Time of the previous snapshot, Long.MIN_VALUE before the first
+        private long lastTimestamp = Long.MIN_VALUE;
+        // Experience of the previous snapshot, null before the first
+        private int[] lastExperience;
+
+        private PlayerRollups() {
+            for (Resolution resolution : RESOLUTIONS) {
+                this.buckets.put(resolution, new TreeMap<>());
+            }
+        }
+
+        /**
+         * Adds the gains since the previous snapshot to the buckets of a new
+         * one. Unranked skills, shown as -1, and drops in experience count as
+         * no gain.
+         *
+         * @param timestamp  time of the new snapshot, in epoch millis
+         * @param experience experience of the new snapshot, not kept
+         * @return false if the snapshot is older than the previous one
+         */
+        private synchronized boolean add(long timestamp, int[] experience) {
+            if (timestamp < this.lastTimestamp) {
+                return false;
+            }
+
+            if (this.lastExperience != null) {
+                int count = Math.min(experience.length, this.lastExperience.length);
+                int[] gained = new int[count];
+                boolean anyGained = false;
+                for (int i = 0; i < count; i++) {
+                    if (this.lastExperience[i] >= 0 && experience[i] > this.lastExperience[i]) {
+                        gained[i] = experience[i] - this.lastExperience[i];
+                        anyGained = true;
+                    }
+                }
+
+                if (anyGained) {
+                    for (Resolution resolution : RESOLUTIONS) {
+                        TreeMap<Long, int[]> kept = this.buckets.get(resolution);
+                        long start = resolution.start(timestamp, RollupStore.this.zone);
+                        int[] bucket = kept.get(start);
+                        if (bucket == null) {
+                            bucket = new int[count];
+                            kept.put(start, bucket);
+                            prune(resolution, timestamp);
+                        }
+                        for (int i = 0; i < Math.min(count, bucket.length); i++) {
+                            bucket[i] += gained[i];
+                        }
+                    }
+                }
+            }
+
+            this.lastTimestamp = timestamp;
+            this.lastExperience = experience.clone();
+            return true;
+        }
+
+        /**
+         * Drops the buckets of a resolution that ended before its retention
+         *
+         * @param resolution the bucket size
+         * @param now        the time ages are measured from, in epoch millis
+         */
+        private void prune(Resolution resolution, long now) {
+            Duration kept = RollupStore.this.retention.get(resolution);
+            if (kept != null) {
+                // A bucket ends where the next one starts, so keep the one
+                // containing the cutoff
+                long cutoff = resolution.start(now - kept.toMillis(), RollupStore.this.zone);
+                this.buckets.get(resolution).headMap(cutoff).clear();
+            }
+        }
+
+        /**
+         * Sums a skill's gains between two hour-aligned times, using buckets of
+         * the given resolution for the whole buckets inside the range and
+         * finer ones for the remainder at each end.
+         *
+         * @param resolution the coarsest resolution to use
+         * @param ordinal    the skill's SkillName ordinal
+         * @param from       the start of the range, inclusive
+         * @param to         the end of the range, exclusive
+         * @return the experience gained
+         */
+        private long sum(Resolution resolution, int ordinal, long from, long to) {
+            if (from >= to) {
+                return 0;
+            }
+            if (resolution == Resolution.HOUR) {
+                return sumBuckets(resolution, ordinal, from, to);
+            }
+
+            Resolution finer = RESOLUTIONS[resolution.ordinal() - 1];
+            long first = resolution.ceil(from, RollupStore.this.zone);
+            long last = resolution.start(to, RollupStore.this.zone);
+            if (first >= last) {
+                return sum(finer, ordinal, from, to);
+            }
+            return sum(finer, ordinal, from, first)
+                    + sumBuckets(resolution, ordinal, first, last)
+                    + sum(finer, ordinal, last, to);
+        }
+
+        /**
+         * Sums a skill's gains in the buckets starting between two times
+         *
+         * @param resolution the bucket size
+         * @param ordinal    the skill's SkillName ordinal
+         * @param from       the earliest bucket start, inclusive
+         * @param to         the latest bucket start, exclusive
+         * @return the experience gained
+         */
+        private long sumBuckets(Resolution resolution, int ordinal, long from, long to) {
+            long total = 0;
+            for (int[] bucket : this.buckets.get(resolution).subMap(from, to).values()) {
+                if (ordinal < bucket.length) {
+                    total += bucket[ordinal];
+                }
+            }
+            return total;
+        }
+    }
+}
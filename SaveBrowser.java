@@ -0,0 +1,167 @@
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.Frame;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.ListSelectionModel;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * SaveBrowser is a dialog listing saved Player files by their metadata, so a
+ * folder of saves can be browsed and sorted without loading every Player.
+ * Only the file that is opened is loaded in full.
+ */
+public class SaveBrowser extends JDialog {
+    // Version for Serialization
+    private static final long serialVersionUID = 1L;
+
+    // The listed files, in the order they were read
+    private final List<PlayerMetadata> saves;
+    // Called with the file to open
+    private final transient Consumer<Path> onOpen;
+    // Table listing the files
+    private final JTable savesTable;
+
+    /**
+     * Creates a new SaveBrowser. Call setVisible to show it.
+     *
+     * @param owner  the frame the dialog belongs to
+     * @param title  the dialog title
+     * @param saves  the metadata of the files to list
+     * @param onOpen called with the file to open, after the dialog is closed
+     */
+    public SaveBrowser(Frame owner, String title, List<PlayerMetadata> saves, Consumer<Path> onOpen) {
+        super(owner, title, true);
+        this.saves = new ArrayList<>(saves);
+        this.onOpen = onOpen;
+        this.savesTable = new JTable(new SavesTableModel(this.saves));
+        this.savesTable.setAutoCreateRowSorter(true);
+        this.savesTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        // Double clicking a row opens it
+        this.savesTable.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2 && savesTable.rowAtPoint(e.getPoint()) >= 0) {
+                    openSelected();
+                }
+            }
+        });
+
+        JButton openButton = new JButton("Open");
+        openButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                openSelected();
+            }
+        });
+
+        JButton closeButton = new JButton("Close");
+        closeButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                dispose();
+            }
+        });
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 10));
+        buttonPanel.add(openButton);
+        buttonPanel.add(closeButton);
+
+        JScrollPane scrollPane = new JScrollPane(this.savesTable);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder(10, 10, 0, 10));
+
+        setLayout(new BorderLayout());
+        add(scrollPane, BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.SOUTH);
+        setSize(900, 500);
+        setLocationRelativeTo(owner);
+    }
+
+    /**
+     * Closes the dialog and opens the selected file. Does nothing if no row
+     * is selected.
+     */
+    private void openSelected() {
+        int viewRow = this.savesTable.getSelectedRow();
+        if (viewRow < 0) {
+            return;
+        }
+
+        Path path = this.saves.get(this.savesTable.convertRowIndexToModel(viewRow)).getPath();
+        dispose();
+        this.onOpen.accept(path);
+    }
+
+    /**
+     * Read-only table model with one row per saved file
+     */
+    private static class SavesTableModel extends AbstractTableModel {
+        private static final long serialVersionUID = 1L;
+        // Column headers, indexed by column
+        private static final String[] COLUMN_NAMES = {
+                "File", "Player", "Last Refreshed", "Rank", "Total Level", "Total Experience" };
+        // Column types, so the row sorter compares numbers and dates
+        private static final Class<?>[] COLUMN_CLASSES = {
+                String.class, String.class, LocalDateTime.class, Integer.class, Integer.class, Integer.class };
+
+        // The listed files
+        private final List<PlayerMetadata> saves;
+
+        private SavesTableModel(List<PlayerMetadata> saves) {
+            this.saves = saves;
+        }
+
+        @Override
+        public int getRowCount() {
+            return this.saves.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMN_NAMES.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMN_NAMES[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return COLUMN_CLASSES[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            PlayerMetadata save = this.saves.get(row);
+            switch (column) {
+                case 0:
+                    return String.valueOf(save.getPath().getFileName());
+                case 1:
+                    return save.getUsername();
+                case 2:
+                    return save.getLastRefreshedAt();
+                case 3:
+                    return save.getRank();
+                case 4:
+                    return save.getTotalLevel();
+                default:
+                    return save.getTotalExperience();
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SingleFlight coalesces concurrent calls for the same key: while one call is
+ * in flight, every other caller with an equal key waits for it and gets the
+ * same result, or the same exception, instead of doing the work again.
+ *
+ * Results are not kept once the call completes, so a call that starts after
+ * another finished always does the work itself. Pair it with a cache to also
+ * reuse recent results.
+ *
+ * @param <K> the type of the keys calls are coalesced by
+ * @param <V> the type of the results
+ */
+public class SingleFlight<K, V> {
+    // The calls in flight by key
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    // Number of calls that waited for another call instead of doing the work
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Work run by at most one caller per key at a time
+     *
+     * @param <V> the type of the result
+     */
+    @FunctionalInterface
+    public interface Call<V> {
+        V call() throws Exception;
+    }
+
+    /**
+     * Runs the call for a key, or waits for the call already in flight for an
+     * equal key. The call runs on the thread of the first caller.
+     *
+     * If the caller doing the work is interrupted or cancelled, that is not a
+     * failure of the work, so waiting callers run the call again themselves
+     * instead of getting an InterruptedException they were never sent.
+     *
+     * @param key  the key to coalesce by
+     * @param call the work to do if no call for the key is in flight
+     * @return the result of the call
+     * @throws Exception the exception the call threw, for every waiting caller
+     */
+    public V run(K key, Call<V> call) throws Exception {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing;
+        while ((existing = this.inFlight.putIfAbsent(key, future)) != null) {
+            this.coalesced.increment();
+            try {
+                return await(existing);
+            } catch (AbandonedException e) {
+                // Take over the call, unless another waiter already did
+                this.inFlight.remove(key, existing);
+            }
+        }
+
+        try {
+            V result = call.call();
+            future.complete(result);
+            return result;
+        } catch (Exception | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.inFlight.remove(key, future);
+        }
+    }
+
+    // Number of calls in flight
+    public int size() {
+        return this.inFlight.size();
+    }
+
+    // Coalesced Count Getter
+    public long getCoalescedCount() {
+        return this.coalesced.sum();
+    }
+
+    /**
+     * Waits for a call in flight, rethrowing its exception unwrapped
+     *
+     * @param future the call's future
+     * @return the call's result
+     * @throws AbandonedException if the caller doing the work was interrupted
+     *                            or cancelled
+     * @throws Exception          the exception the call threw
+     */
+    private V await(CompletableFuture<V> future) throws Exception {
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            throw new AbandonedException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof InterruptedException || cause instanceof CancellationException) {
+                throw new AbandonedException();
+            } else if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    /**
+     * Thrown to a waiting caller when the call it waited for was abandoned
+     * rather than failed
+     */
+    private static class AbandonedException extends Exception {
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -85,17 +85,30 @@ public class Skill implements Serializable {
      * @return a String representing the formatted level value
      */
     public String formattedLevelString() {
-        if (this.level == 99 && !isOverall()) {
-            return this.level + " (" + getVirtualLevel() + ")";
+        return formatLevel(this.name, this.level, this.experience);
+    }
+
+    /**
+     * Formats a level the same way as formattedLevelString, for callers that
+     * read the values without creating a Skill.
+     * 
+     * @param name       the skill
+     * @param level      the skill's level
+     * @param experience the skill's experience, used for the virtual level
+     * @return a String representing the formatted level value
+     */
+    public static String formatLevel(SkillName name, int level, int experience) {
+        if (level == 99 && name != SkillName.OVERALL) {
+            return level + " (" + Math.max(99, XpTable.getVirtualLevelForExperience(experience)) + ")";
         } else {
-            return String.valueOf(this.level);
+            return String.valueOf(level);
         }
     }
 
     /**
      * Calculates this skill's virtual level based on the experience value.
-     * To calculate, we find the necessary experience of each level above 99
-     * to determine what is our current virtual level.
+     * Uses the shared XpTable to find the highest level above 99 that the
+     * experience value has reached.
      * 
      * If the level is below 99, just return the raw level.
      * 
@@ -107,33 +120,7 @@ public class Skill implements Serializable {
             return this.level;
         }
 
-        // For level 99+, calculate virtual level
-        int currentLevel = 99;
-
-        while (currentLevel <= 126) {
-            int expForNextLevel = getExperienceForLevel(currentLevel + 1);
-            if (this.experience < expForNextLevel) {
-                break;
-            }
-            currentLevel++;
-        }
-
-        return currentLevel;
-    }
-
-    /**
-     * Helper used for calculating the necessary experience for the given
-     * level. Uses the formula in:
-     * https://oldschool.runescape.wiki/w/Experience#Formula
-     * 
-     * @param targetLevel the level to calculate the necessary experience for
-     * @return How many experience points are needed to reach targetLevel
-     */
-    private int getExperienceForLevel(int targetLevel) {
-        int sum = 0;
-        for (int l = 1; l < targetLevel; l++) {
-            sum += Math.floor(l + 300.0 * Math.pow(2.0, l / 7.0));
-        }
-        return (int) Math.floor(sum / 4);
+        // For level 99+, look up the virtual level in the table
+        return Math.max(99, XpTable.getVirtualLevelForExperience(this.experience));
     }
 }
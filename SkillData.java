@@ -0,0 +1,209 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * SkillData is the rank, level and experience of every skill of a Player,
+ * stored as three int arrays indexed by SkillName ordinal instead of one Skill
+ * object per skill. SkillData is immutable, so it can be shared freely, for
+ * example between a Player, the HiscoreCache and SkillSnapshots.
+ *
+ * Skill objects are created on demand by getSkill and asList for callers that
+ * want them.
+ *
+ * The hash of the values is computed once, so comparing a fresh fetch with
+ * the previous one usually fails fast. Refreshes that fetch unchanged values
+ * reuse the previous SkillData instead of allocating a new one.
+ */
+public final class SkillData {
+    // Cached copy of SkillName.values()
+    private static final SkillName[] SKILL_NAMES = SkillName.values();
+
+    // Rank per skill, -1 if unranked
+    private final int[] ranks;
+    // Level per skill
+    private final int[] levels;
+    // Experience per skill, -1 if unranked
+    private final int[] experience;
+    // Hash of the values, computed once
+    private final int hash;
+
+    /**
+     * Creates a new SkillData. The arrays are not copied, so callers must not
+     * modify them afterwards.
+     *
+     * @param ranks      rank per skill
+     * @param levels     level per skill
+     * @param experience experience per skill
+     * @throws IllegalArgumentException if the arrays differ in length or are
+     *                                  longer than SkillName
+     */
+    SkillData(int[] ranks, int[] levels, int[] experience) {
+        if (ranks.length != levels.length || ranks.length != experience.length
+                || ranks.length > SKILL_NAMES.length) {
+            throw new IllegalArgumentException("Invalid skill arrays");
+        }
+
+        this.ranks = ranks;
+        this.levels = levels;
+        this.experience = experience;
+        this.hash = 31 * (31 * Arrays.hashCode(experience) + Arrays.hashCode(ranks)) + Arrays.hashCode(levels);
+    }
+
+    /**
+     * Creates a SkillData from a list of Skills in SkillName order
+     *
+     * @param skills the skills
+     * @return the skills as SkillData
+     */
+    public static SkillData of(List<Skill> skills) {
+        int count = skills.size();
+        int[] ranks = new int[count];
+        int[] levels = new int[count];
+        int[] experience = new int[count];
+        for (int i = 0; i < count; i++) {
+            Skill skill = skills.get(i);
+            ranks[i] = skill.getRank();
+            levels[i] = skill.getLevel();
+            experience[i] = skill.getExperience();
+        }
+        return new SkillData(ranks, levels, experience);
+    }
+
+    /**
+     * Copies the skills out of a parser that has just parsed a response
+     *
+     * @param parser the parser
+     * @return the parsed skills as SkillData
+     */
+    static SkillData from(HiscoreParser parser) {
+        int count = parser.getSkillCount();
+        int[] ranks = new int[count];
+        int[] levels = new int[count];
+        int[] experience = new int[count];
+        for (int i = 0; i < count; i++) {
+            ranks[i] = parser.getRank(i);
+            levels[i] = parser.getLevel(i);
+            experience[i] = parser.getExperience(i);
+        }
+        return new SkillData(ranks, levels, experience);
+    }
+
+    /**
+     * Returns the skills a parser has just parsed, reusing a previous
+     * SkillData without allocating if the values are unchanged
+     *
+     * @param parser   the parser
+     * @param previous the previously fetched skills, may be null
+     * @return previous if it has the parsed values, otherwise a new SkillData
+     */
+    static SkillData from(HiscoreParser parser, SkillData previous) {
+        return (previous != null && previous.matches(parser)) ? previous : from(parser);
+    }
+
+    /**
+     * Whether a parser's last parse has exactly these values
+     *
+     * @param parser the parser
+     * @return true if every skill's rank, level and experience match
+     */
+    private boolean matches(HiscoreParser parser) {
+        int count = parser.getSkillCount();
+        if (count != this.ranks.length) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (parser.getExperience(i) != this.experience[i] || parser.getRank(i) != this.ranks[i]
+                    || parser.getLevel(i) != this.levels[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Number of skills
+    public int getSkillCount() {
+        return this.ranks.length;
+    }
+
+    // Rank by SkillName ordinal Accessor
+    public int getRank(int ordinal) {
+        return this.ranks[ordinal];
+    }
+
+    // Level by SkillName ordinal Accessor
+    public int getLevel(int ordinal) {
+        return this.levels[ordinal];
+    }
+
+    // Experience by SkillName ordinal Accessor
+    public int getExperience(int ordinal) {
+        return this.experience[ordinal];
+    }
+
+    /**
+     * Creates a Skill for one skill
+     *
+     * @param ordinal the SkillName ordinal
+     * @return a new Skill with the skill's values
+     */
+    public Skill getSkill(int ordinal) {
+        return new Skill(SKILL_NAMES[ordinal], this.levels[ordinal], this.experience[ordinal], this.ranks[ordinal]);
+    }
+
+    /**
+     * Returns a read-only list view of the skills in SkillName order. Skill
+     * objects are created as elements are read.
+     *
+     * @return the skills as a List
+     */
+    public List<Skill> asList() {
+        return new SkillList();
+    }
+
+    /**
+     * Creates a SkillSnapshot sharing this SkillData's arrays
+     *
+     * @param timestampMillis when the skills were fetched, in epoch millis
+     * @return a snapshot of the experience and ranks
+     */
+    SkillSnapshot toSnapshot(long timestampMillis) {
+        return new SkillSnapshot(timestampMillis, this.experience, this.ranks);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof SkillData)) {
+            return false;
+        }
+        SkillData data = (SkillData) other;
+        return this.hash == data.hash
+                && Arrays.equals(this.experience, data.experience)
+                && Arrays.equals(this.ranks, data.ranks)
+                && Arrays.equals(this.levels, data.levels);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    /**
+     * List view returned by asList
+     */
+    private final class SkillList extends AbstractList<Skill> implements RandomAccess {
+        @Override
+        public Skill get(int index) {
+            return getSkill(index);
+        }
+
+        @Override
+        public int size() {
+            return getSkillCount();
+        }
+    }
+}
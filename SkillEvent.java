@@ -0,0 +1,171 @@
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A SkillEvent is one change to one of a Player's skills found by comparing
+ * the skills before and after a refresh, such as experience gained or a level
+ * up. Events are published to the subscribers of Player.getSkillEvents().
+ *
+ * Every event carries the value before and after the change:
+ * - XP_GAINED, GOAL_REACHED: experience
+ * - LEVEL_UP: level
+ * - VIRTUAL_LEVEL_UP: virtual level, only past level 99
+ * - RANK_CHANGED: rank, -1 when unranked
+ */
+public final class SkillEvent {
+    // Cached copy of SkillName.values()
+    private static final SkillName[] SKILL_NAMES = SkillName.values();
+
+    /**
+     * The kinds of change a SkillEvent reports
+     */
+    public enum Type {
+        XP_GAINED,
+        LEVEL_UP,
+        VIRTUAL_LEVEL_UP,
+        RANK_CHANGED,
+        GOAL_REACHED
+    }
+
+    // The Player the skill belongs to
+    private final String username;
+    // The skill that changed
+    private final SkillName skillName;
+    // The kind of change
+    private final Type type;
+    // The value before and after the change
+    private final int previousValue;
+    private final int value;
+    // When the refresh that found the change happened
+    private final LocalDateTime refreshedAt;
+
+    /**
+     * Creates a new SkillEvent
+     *
+     * @param username      the Player the skill belongs to
+     * @param skillName     the skill that changed
+     * @param type          the kind of change
+     * @param previousValue the value before the change
+     * @param value         the value after the change
+     * @param refreshedAt   when the refresh that found the change happened
+     */
+    public SkillEvent(String username, SkillName skillName, Type type, int previousValue, int value,
+            LocalDateTime refreshedAt) {
+        this.username = username;
+        this.skillName = skillName;
+        this.type = type;
+        this.previousValue = previousValue;
+        this.value = value;
+        this.refreshedAt = refreshedAt;
+    }
+
+    /**
+     * Compares a Player's state before and after a refresh and returns an
+     * event for every change. Returns quickly when nothing changed.
+     *
+     * @param username the Player's username
+     * @param before   the state before the refresh
+     * @param after    the state after the refresh
+     * @return the events in SkillName order, empty if nothing changed
+     */
+    public static List<SkillEvent> diff(String username, PlayerSnapshot before, PlayerSnapshot after) {
+        SkillData old = before.getSkillData();
+        SkillData current = after.getSkillData();
+        if (old == null || current == null || old.equals(current)) {
+            return Collections.emptyList();
+        }
+
+        List<SkillEvent> events = new ArrayList<>();
+        LocalDateTime refreshedAt = after.getLastRefreshedAt();
+        int count = Math.min(old.getSkillCount(), current.getSkillCount());
+        for (int i = 0; i < count; i++) {
+            SkillName skillName = SKILL_NAMES[i];
+            int oldExp = old.getExperience(i);
+            int newExp = current.getExperience(i);
+
+            if (newExp > oldExp) {
+                events.add(new SkillEvent(username, skillName, Type.XP_GAINED, oldExp, newExp, refreshedAt));
+
+                int oldLevel = old.getLevel(i);
+                int newLevel = current.getLevel(i);
+                if (newLevel > oldLevel) {
+                    events.add(new SkillEvent(username, skillName, Type.LEVEL_UP, oldLevel, newLevel, refreshedAt));
+                }
+
+                int oldVirtual = virtualLevel(oldLevel, oldExp);
+                int newVirtual = virtualLevel(newLevel, newExp);
+                if (newVirtual > oldVirtual && newVirtual > XpTable.MAX_LEVEL) {
+                    events.add(new SkillEvent(username, skillName, Type.VIRTUAL_LEVEL_UP,
+                            oldVirtual, newVirtual, refreshedAt));
+                }
+
+                Goal goal = after.getGoal(skillName);
+                if (goal != null && oldExp < goal.getTargetExperience() && newExp >= goal.getTargetExperience()) {
+                    events.add(new SkillEvent(username, skillName, Type.GOAL_REACHED, oldExp, newExp, refreshedAt));
+                }
+            }
+
+            int oldRank = old.getRank(i);
+            int newRank = current.getRank(i);
+            if (newRank != oldRank) {
+                events.add(new SkillEvent(username, skillName, Type.RANK_CHANGED, oldRank, newRank, refreshedAt));
+            }
+        }
+        return events;
+    }
+
+    // Username Getter
+    public String getUsername() {
+        return this.username;
+    }
+
+    // Skill Name Getter
+    public SkillName getSkillName() {
+        return this.skillName;
+    }
+
+    // Type Getter
+    public Type getType() {
+        return this.type;
+    }
+
+    // Previous Value Getter
+    public int getPreviousValue() {
+        return this.previousValue;
+    }
+
+    // Value Getter
+    public int getValue() {
+        return this.value;
+    }
+
+    // refreshedAt Getter
+    public LocalDateTime getRefreshedAt() {
+        return this.refreshedAt;
+    }
+
+    /**
+     * Returns a short description of the event for logging.
+     * In the format: "username SKILL TYPE previous -> value"
+     */
+    @Override
+    public String toString() {
+        return this.username + " " + this.skillName + " " + this.type + " " + this.previousValue + " -> " + this.value;
+    }
+
+    /**
+     * Calculates a virtual level the same way Skill does
+     *
+     * @param level      the skill's level
+     * @param experience the skill's experience
+     * @return the virtual level, the level itself below 99
+     */
+    private static int virtualLevel(int level, int experience) {
+        if (level < XpTable.MAX_LEVEL) {
+            return level;
+        }
+        return Math.max(XpTable.MAX_LEVEL, XpTable.getVirtualLevelForExperience(experience));
+    }
+}
@@ -0,0 +1,105 @@
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.BiPredicate;
+
+/**
+ * SkillEventPublisher publishes SkillEvents to subscribers that each choose
+ * the event types they want. Events are filtered before they are buffered:
+ * every subscriber gets its own SubmissionPublisher, and an event is only
+ * offered to the subscribers wanting its type, so a buffer never fills up
+ * with events its subscriber would throw away.
+ *
+ * Subscribers that cancel are forgotten the next time an event is offered.
+ *
+ * SkillEventPublisher is thread safe.
+ */
+public class SkillEventPublisher implements Flow.Publisher<SkillEvent> {
+    // Delivers events to subscribers
+    private final Executor executor;
+    // Events buffered per subscriber before further events are dropped
+    private final int bufferSize;
+    // One publisher per subscriber, with the event types it wants
+    private final CopyOnWriteArrayList<Filtered> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a new SkillEventPublisher
+     *
+     * @param executor   delivers events to subscribers
+     * @param bufferSize the events buffered per subscriber
+     */
+    public SkillEventPublisher(Executor executor, int bufferSize) {
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Subscribes to events of every type
+     *
+     * @param subscriber the subscriber
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super SkillEvent> subscriber) {
+        subscribe(EnumSet.allOf(SkillEvent.Type.class), subscriber);
+    }
+
+    /**
+     * Subscribes to events of the given types only. Events of other types
+     * are never buffered for the subscriber.
+     *
+     * @param types      the event types to receive
+     * @param subscriber the subscriber
+     */
+    public void subscribe(Set<SkillEvent.Type> types, Flow.Subscriber<? super SkillEvent> subscriber) {
+        SubmissionPublisher<SkillEvent> publisher = new SubmissionPublisher<>(this.executor, this.bufferSize);
+        publisher.subscribe(subscriber);
+        this.subscribers.add(new Filtered(EnumSet.copyOf(types), publisher));
+    }
+
+    /**
+     * Returns whether anyone is subscribed, so callers can skip creating
+     * events nobody receives
+     *
+     * @return true if there is at least one subscriber
+     */
+    public boolean hasSubscribers() {
+        return !this.subscribers.isEmpty();
+    }
+
+    /**
+     * Offers an event to every subscriber wanting its type, without blocking.
+     *
+     * @param event  the event to publish
+     * @param onDrop called for each subscriber whose buffer is full, as by
+     *               SubmissionPublisher.offer
+     */
+    public void offer(SkillEvent event, BiPredicate<Flow.Subscriber<? super SkillEvent>, ? super SkillEvent> onDrop) {
+        for (Filtered filtered : this.subscribers) {
+            if (filtered.publisher.getNumberOfSubscribers() == 0) {
+                // The subscriber cancelled
+                filtered.publisher.close();
+                this.subscribers.remove(filtered);
+            } else if (filtered.types.contains(event.getType())) {
+                filtered.publisher.offer(event, onDrop);
+            }
+        }
+    }
+
+    /**
+     * A subscriber's publisher and the event types it is offered
+     */
+    private static final class Filtered {
+        // The event types the subscriber wants
+        private final Set<SkillEvent.Type> types;
+        // Buffers and delivers events to the one subscriber
+        private final SubmissionPublisher<SkillEvent> publisher;
+
+        private Filtered(Set<SkillEvent.Type> types, SubmissionPublisher<SkillEvent> publisher) {
+            this.types = types;
+            this.publisher = publisher;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * SkillEventSubscriber subscribes a callback to SkillEvents. It requests
+ * events a few at a time, so the publisher only buffers what this subscriber
+ * has not taken yet, and a subscriber that falls too far behind has events
+ * dropped rather than slowing down refreshes. Pick the event types when
+ * subscribing, with SkillEventPublisher.subscribe(types, subscriber).
+ *
+ * The callback is called on a publisher thread, one event at a time.
+ */
+public class SkillEventSubscriber implements Flow.Subscriber<SkillEvent> {
+    // Number of events requested at a time
+    private static final int BATCH_SIZE = 16;
+
+    // Called with every event received
+    private final Consumer<SkillEvent> onEvent;
+    // The subscription, null until subscribed
+    private volatile Flow.Subscription subscription;
+    // Events received since more were last requested
+    private int received;
+
+    /**
+     * Creates a new SkillEventSubscriber. Subscribe it with
+     * Player.getSkillEvents().subscribe.
+     *
+     * @param onEvent called with every event received
+     */
+    public SkillEventSubscriber(Consumer<SkillEvent> onEvent) {
+        this.onEvent = onEvent;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(BATCH_SIZE);
+    }
+
+    @Override
+    public void onNext(SkillEvent event) {
+        this.onEvent.accept(event);
+
+        if (++this.received == BATCH_SIZE) {
+            this.received = 0;
+            this.subscription.request(BATCH_SIZE);
+        }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        System.err.println("Skill event subscription failed: " + error.getMessage());
+    }
+
+    @Override
+    public void onComplete() {
+        // Nothing to clean up
+    }
+
+    /**
+     * Stops receiving events. Events already being delivered may still arrive.
+     */
+    public void cancel() {
+        Flow.Subscription current = this.subscription;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+}
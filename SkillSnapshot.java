@@ -0,0 +1,103 @@
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A SkillSnapshot is the experience and rank of every skill for one Player at
+ * one point in time. Snapshots are immutable and are what gets recorded each
+ * time a Player's skills are refreshed.
+ *
+ * Values are indexed by SkillName ordinal.
+ */
+public final class SkillSnapshot {
+    // When the snapshot was taken, in epoch millis
+    private final long timestampMillis;
+    // Experience per skill, indexed by SkillName ordinal
+    private final int[] experience;
+    // Rank per skill, indexed by SkillName ordinal
+    private final int[] ranks;
+
+    /**
+     * Creates a new SkillSnapshot. The arrays are not copied, so callers must
+     * not modify them afterwards.
+     *
+     * @param timestampMillis when the snapshot was taken, in epoch millis
+     * @param experience      experience per skill
+     * @param ranks           rank per skill
+     */
+    SkillSnapshot(long timestampMillis, int[] experience, int[] ranks) {
+        this.timestampMillis = timestampMillis;
+        this.experience = experience;
+        this.ranks = ranks;
+    }
+
+    /**
+     * Creates a SkillSnapshot from a list of Skills in SkillName order
+     *
+     * @param refreshedAt when the skills were fetched
+     * @param skills      the fetched skills
+     * @return a snapshot of the skills
+     */
+    public static SkillSnapshot of(LocalDateTime refreshedAt, List<Skill> skills) {
+        int[] experience = new int[skills.size()];
+        int[] ranks = new int[skills.size()];
+        for (int i = 0; i < skills.size(); i++) {
+            experience[i] = skills.get(i).getExperience();
+            ranks[i] = skills.get(i).getRank();
+        }
+        return new SkillSnapshot(PlayerFile.toEpochMillis(refreshedAt), experience, ranks);
+    }
+
+    /**
+     * Creates a SkillSnapshot sharing the arrays of a SkillData
+     *
+     * @param refreshedAt when the skills were fetched
+     * @param skills      the fetched skills
+     * @return a snapshot of the skills
+     */
+    public static SkillSnapshot of(LocalDateTime refreshedAt, SkillData skills) {
+        return skills.toSnapshot(PlayerFile.toEpochMillis(refreshedAt));
+    }
+
+    // Timestamp Getter, in epoch millis
+    public long getTimestampMillis() {
+        return this.timestampMillis;
+    }
+
+    // Number of skills in the snapshot
+    public int getSkillCount() {
+        return this.experience.length;
+    }
+
+    // Experience by SkillName ordinal Accessor
+    public int getExperience(int ordinal) {
+        return this.experience[ordinal];
+    }
+
+    // Experience by SkillName Accessor
+    public int getExperience(SkillName skillName) {
+        return this.experience[skillName.ordinal()];
+    }
+
+    // Rank by SkillName ordinal Accessor
+    public int getRank(int ordinal) {
+        return this.ranks[ordinal];
+    }
+
+    // Rank by SkillName Accessor
+    public int getRank(SkillName skillName) {
+        return this.ranks[skillName.ordinal()];
+    }
+
+    /**
+     * Returns whether another snapshot has the same experience and ranks,
+     * ignoring the timestamp.
+     *
+     * @param other the snapshot to compare with
+     * @return true if every skill's experience and rank match
+     */
+    public boolean sameValues(SkillSnapshot other) {
+        return Arrays.equals(this.experience, other.experience)
+                && Arrays.equals(this.ranks, other.ranks);
+    }
+}
@@ -0,0 +1,373 @@
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Font;
+import java.text.NumberFormat;
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JProgressBar;
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableCellRenderer;
+
+/**
+ * SkillTableModel backs the skills table of the GUI with the current Player.
+ * Cells are read from the Player when they are painted, so nothing is rebuilt
+ * on a refresh or edit. Instead the GUI tells the model which skills changed
+ * and only those rows are repainted.
+ *
+ * The renderers below are flyweights: each column shares one component that
+ * is reconfigured for every cell it paints.
+ */
+public class SkillTableModel extends AbstractTableModel {
+    // Version for Serialization
+    private static final long serialVersionUID = 1L;
+
+    // Column indexes
+    public static final int SKILL_COLUMN = 0;
+    public static final int RANK_COLUMN = 1;
+    public static final int LEVEL_COLUMN = 2;
+    public static final int EXPERIENCE_COLUMN = 3;
+    public static final int GOAL_COLUMN = 4;
+    public static final int UPDATE_GOAL_COLUMN = 5;
+    public static final int PROGRESS_COLUMN = 6;
+    public static final int RATE_COLUMN = 7;
+    public static final int UPDATE_RATE_COLUMN = 8;
+    public static final int MEASURED_RATE_COLUMN = 9;
+    public static final int TIME_TO_GOAL_COLUMN = 10;
+
+    // Column headers, indexed by column
+    private static final String[] COLUMN_NAMES = {
+            "Skill", "Rank", "Level", "Experience", "Goal", "", "Progress",
+            "Exp/Hour", "", "Measured/Hour", "Hours to Goal" };
+    // Relative column widths, indexed by column
+    private static final int[] COLUMN_WIDTHS = { 10, 10, 8, 12, 10, 8, 12, 10, 8, 10, 14 };
+    // Text shown in the update button columns
+    private static final String UPDATE_TEXT = "Update";
+    // Text shown when a value can't be calculated
+    private static final String NOT_AVAILABLE = "N/A";
+    // Cached copy of SkillName.values()
+    private static final SkillName[] SKILL_NAMES = SkillName.values();
+
+    // The Player being displayed, null before one is loaded
+    private Player player;
+    // Experience, rank and measured rate of each row when it was last fired,
+    // used to find which rows changed on a refresh
+    private final int[] shownExperience = new int[SKILL_NAMES.length];
+    private final int[] shownRanks = new int[SKILL_NAMES.length];
+    private final int[] shownMeasuredRates = new int[SKILL_NAMES.length];
+
+    /**
+     * Displays a different Player. Every row is repainted.
+     *
+     * @param player the Player to display
+     */
+    public void setPlayer(Player player) {
+        this.player = player;
+        rememberShownValues();
+        fireTableDataChanged();
+    }
+
+    // Player Getter
+    public Player getPlayer() {
+        return this.player;
+    }
+
+    /**
+     * Repaints only the rows whose experience, rank or measured rate changed
+     * since they were last shown. Called after the Player is refreshed.
+     */
+    public void playerRefreshed() {
+        SkillData skills = this.player.getSnapshot().getSkillData();
+        int rows = skills.getSkillCount();
+        for (int row = 0; row < rows; row++) {
+            int measuredRate = measuredRate(SKILL_NAMES[row]);
+
+            if (skills.getExperience(row) != this.shownExperience[row]
+                    || skills.getRank(row) != this.shownRanks[row]
+                    || measuredRate != this.shownMeasuredRates[row]) {
+                this.shownExperience[row] = skills.getExperience(row);
+                this.shownRanks[row] = skills.getRank(row);
+                this.shownMeasuredRates[row] = measuredRate;
+                fireTableRowsUpdated(row, row);
+            }
+        }
+    }
+
+    /**
+     * Repaints the row of a single skill. Called after its Goal or experience
+     * rate is edited.
+     *
+     * @param skillName the skill that changed
+     */
+    public void skillUpdated(SkillName skillName) {
+        int row = skillName.ordinal();
+        if (row < getRowCount()) {
+            fireTableRowsUpdated(row, row);
+        }
+    }
+
+    /**
+     * Returns the skill displayed in a row
+     *
+     * @param row the row index
+     * @return the Skill in that row
+     */
+    public Skill getSkillAt(int row) {
+        return this.player.getSkill(SKILL_NAMES[row]);
+    }
+
+    @Override
+    public int getRowCount() {
+        return (this.player == null) ? 0 : this.player.getSkillData().getSkillCount();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    /**
+     * Returns the raw value of a cell. Numbers are returned unformatted and
+     * formatted by the renderers. Cells that don't apply to Overall are null.
+     */
+    @Override
+    public Object getValueAt(int row, int column) {
+        // Every value in the cell comes from one consistent snapshot. Values
+        // are read straight from its SkillData, so repaints don't create Skills
+        PlayerSnapshot snapshot = this.player.getSnapshot();
+        SkillData skills = snapshot.getSkillData();
+        SkillName skillName = SKILL_NAMES[row];
+
+        switch (column) {
+            case SKILL_COLUMN:
+                return skillName.toString();
+            case RANK_COLUMN:
+                return skills.getRank(row);
+            case LEVEL_COLUMN:
+                return Skill.formatLevel(skillName, skills.getLevel(row), skills.getExperience(row));
+            case EXPERIENCE_COLUMN:
+                return skills.getExperience(row);
+            default:
+                break;
+        }
+
+        // No goals or rates for the overall skill
+        if (skillName == SkillName.OVERALL) {
+            return null;
+        }
+
+        switch (column) {
+            case GOAL_COLUMN:
+                Goal goal = snapshot.getGoal(skillName);
+                return (goal == null) ? "" : goal.toString();
+            case UPDATE_GOAL_COLUMN:
+            case UPDATE_RATE_COLUMN:
+                return UPDATE_TEXT;
+            case PROGRESS_COLUMN:
+                return snapshot.getProgressToGoal(skillName);
+            case RATE_COLUMN:
+                Integer rate = snapshot.getExperienceRate(skillName);
+                return (rate == null) ? NOT_AVAILABLE : rate;
+            case MEASURED_RATE_COLUMN:
+                Integer measured = this.player.getMeasuredExperienceRate(skillName);
+                return (measured == null) ? NOT_AVAILABLE : measured;
+            case TIME_TO_GOAL_COLUMN:
+                return timeToGoalText(snapshot, skillName);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Applies the column widths, shared renderers and header style to the
+     * table showing this model.
+     *
+     * @param table the table showing this model
+     */
+    public void configure(JTable table) {
+        NumberRenderer numberRenderer = new NumberRenderer();
+        table.setDefaultRenderer(Object.class, numberRenderer);
+        table.getColumnModel().getColumn(SKILL_COLUMN).setCellRenderer(new SkillNameRenderer());
+        table.getColumnModel().getColumn(UPDATE_GOAL_COLUMN).setCellRenderer(new ButtonRenderer());
+        table.getColumnModel().getColumn(UPDATE_RATE_COLUMN).setCellRenderer(new ButtonRenderer());
+        table.getColumnModel().getColumn(PROGRESS_COLUMN).setCellRenderer(new ProgressRenderer());
+
+        for (int column = 0; column < COLUMN_WIDTHS.length; column++) {
+            table.getColumnModel().getColumn(column).setPreferredWidth(COLUMN_WIDTHS[column] * 10);
+        }
+
+        table.getTableHeader().setFont(new Font("SansSerif", Font.BOLD, 14));
+        table.getTableHeader().setForeground(new Color(50, 50, 150));
+        table.getTableHeader().setReorderingAllowed(false);
+        table.setGridColor(Color.LIGHT_GRAY);
+        table.setRowHeight(26);
+        table.setRowSelectionAllowed(false);
+        table.setFillsViewportHeight(true);
+    }
+
+    /**
+     * Formats the time to reach a skill's Goal. Uses the manual experience
+     * rate if set, otherwise the measured rate, marked as such.
+     *
+     * @param snapshot  the Player state to format from
+     * @param skillName the skill
+     * @return the formatted time to goal
+     */
+    private String timeToGoalText(PlayerSnapshot snapshot, SkillName skillName) {
+        double timeToGoal = this.player.getTimeToGoal(snapshot, skillName);
+        if (timeToGoal < 0) {
+            return NOT_AVAILABLE;
+        } else if (snapshot.getExperienceRate(skillName) != null) {
+            return String.format("%.2f hours", timeToGoal);
+        } else {
+            return String.format("%.2f hours (measured)", timeToGoal);
+        }
+    }
+
+    /**
+     * Returns the measured rate of a skill for change detection
+     *
+     * @param skillName the skill
+     * @return the measured rate, -1 if unknown
+     */
+    private int measuredRate(SkillName skillName) {
+        Integer rate = this.player.getMeasuredExperienceRate(skillName);
+        return (rate == null) ? -1 : rate;
+    }
+
+    /**
+     * Remembers the values every row is shown with, so a later refresh can
+     * tell which rows changed.
+     */
+    private void rememberShownValues() {
+        if (this.player == null) {
+            return;
+        }
+        SkillData skills = this.player.getSnapshot().getSkillData();
+        for (int row = 0; row < skills.getSkillCount(); row++) {
+            this.shownExperience[row] = skills.getExperience(row);
+            this.shownRanks[row] = skills.getRank(row);
+            this.shownMeasuredRates[row] = measuredRate(SKILL_NAMES[row]);
+        }
+    }
+
+    /**
+     * Renders numbers with thousands separators and everything else as text.
+     * One NumberFormat is shared by every cell.
+     */
+    private static class NumberRenderer extends DefaultTableCellRenderer {
+        private static final long serialVersionUID = 1L;
+        // Shared formatter, the same as String.format("%,d")
+        private final NumberFormat format = NumberFormat.getIntegerInstance();
+
+        @Override
+        protected void setValue(Object value) {
+            if (value instanceof Number) {
+                setText(this.format.format(value));
+            } else {
+                setText((value == null) ? "" : value.toString());
+            }
+        }
+    }
+
+    /**
+     * Renders the skill name in bold
+     */
+    private static class SkillNameRenderer extends DefaultTableCellRenderer {
+        private static final long serialVersionUID = 1L;
+        // Bold font, reapplied since the superclass resets it for every cell
+        private final Font boldFont = new Font("SansSerif", Font.BOLD, 12);
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value,
+                boolean isSelected, boolean hasFocus, int row, int column) {
+            super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            setFont(this.boldFont);
+            return this;
+        }
+    }
+
+    /**
+     * Renders an "Update" button, or an empty cell for the overall skill.
+     * Clicks are handled by the table's mouse listener in the GUI.
+     */
+    private static class ButtonRenderer implements TableCellRenderer {
+        // The single button painted into every cell of the column
+        private final JButton button = new JButton(UPDATE_TEXT);
+        // Painted for cells without a button
+        private final JLabel empty = new JLabel();
+
+        private ButtonRenderer() {
+            this.button.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 1, Color.LIGHT_GRAY));
+        }
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value,
+                boolean isSelected, boolean hasFocus, int row, int column) {
+            return (value == null) ? this.empty : this.button;
+        }
+    }
+
+    /**
+     * Renders progress to a Goal as a colored progress bar, or an empty cell
+     * for the overall skill.
+     */
+    private static class ProgressRenderer implements TableCellRenderer {
+        // The single progress bar painted into every cell of the column
+        private final JProgressBar progressBar = new JProgressBar(0, 100);
+        // Painted for cells without progress
+        private final JLabel empty = new JLabel();
+        // Progress labels "0%" to "100%", built once
+        private final String[] labels = new String[101];
+
+        private ProgressRenderer() {
+            this.progressBar.setStringPainted(true);
+            this.progressBar.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 1, Color.LIGHT_GRAY));
+            for (int i = 0; i < this.labels.length; i++) {
+                this.labels[i] = i + "%";
+            }
+        }
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value,
+                boolean isSelected, boolean hasFocus, int row, int column) {
+            if (!(value instanceof Integer)) {
+                return this.empty;
+            }
+
+            int progress = (Integer) value;
+            this.progressBar.setValue(progress);
+            this.progressBar.setString(progress >= 0 ? this.labels[Math.min(progress, 100)] : NOT_AVAILABLE);
+            this.progressBar.setForeground(getProgressBarColor(progress));
+            return this.progressBar;
+        }
+
+        /**
+         * Returns the Color based on the given progress.
+         * RED > ORANGE > YELLOW > GREEN
+         *
+         * @param progress progress to Goal
+         * @return Color to color progress bar as
+         */
+        private Color getProgressBarColor(int progress) {
+            if (progress < 25) {
+                return Color.RED;
+            } else if (progress < 50) {
+                return Color.ORANGE;
+            } else if (progress < 75) {
+                return Color.YELLOW;
+            } else if (progress < 100) {
+                return Color.GREEN;
+            } else {
+                return Color.GREEN.darker();
+            }
+        }
+    }
+}
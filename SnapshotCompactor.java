@@ -0,0 +1,242 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SnapshotCompactor thins out old records of a SnapshotStore so history stays
+ * bounded in long running deployments. Records are kept at full resolution
+ * while recent, then only the last record of each hour, then of each day, and
+ * finally of each week. Since experience only goes up, the last record of a
+ * bucket still gives exact gains between buckets of that size. RollupStore
+ * rebuilds the same totals from a compacted log at the resolutions still
+ * kept: hours, days and weeks for records thinned to hourly, days and weeks
+ * for daily ones, but only weeks for weekly ones. Daily series replayed from
+ * weekly thinned history are approximate, each week's gains land on the day
+ * of its last record.
+ *
+ * The first and last record of every log are always kept, as are both sides
+ * of every level up, so the time of a level up stays known.
+ *
+ * Compaction runs on its own daemon thread, one log at a time, and only
+ * rewrites logs that have records to drop. See SnapshotStore.compact for how
+ * it runs alongside appends and reads.
+ */
+public class SnapshotCompactor implements Closeable {
+    // Default ages after which records are thinned to hourly, daily and weekly
+    public static final Duration DEFAULT_FULL_RESOLUTION = Duration.ofDays(2);
+    public static final Duration DEFAULT_HOURLY = Duration.ofDays(30);
+    public static final Duration DEFAULT_DAILY = Duration.ofDays(365);
+    // Number of records dropped by compaction
+    private static final Metrics.Counter DROPPED = Metrics.counter(
+            "snapshot_compaction_dropped_total", "Snapshot records dropped by compaction");
+    // Time spent compacting logs
+    private static final Metrics.Histogram COMPACT_TIME = Metrics.timer(
+            "snapshot_compaction_seconds", "Time compacting snapshot logs");
+
+    // The store whose logs are compacted
+    private final SnapshotStore store;
+    // Records younger than this are all kept
+    private final Duration fullResolution;
+    // Records younger than this are kept hourly, older ones daily
+    private final Duration hourly;
+    // Records younger than this are kept daily, older ones weekly
+    private final Duration daily;
+    // Time zone hours, days and weeks are aligned to
+    private final ZoneId zone;
+    // Runs compaction in the background. Daemon thread so it never keeps the
+    // app alive.
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // The scheduled compaction, null when stopped
+    private ScheduledFuture<?> scheduled;
+
+    /**
+     * Creates a new SnapshotCompactor with the default ages, aligned to the
+     * system time zone
+     *
+     * @param store the store whose logs are compacted
+     */
+    public SnapshotCompactor(SnapshotStore store) {
+        this(store, DEFAULT_FULL_RESOLUTION, DEFAULT_HOURLY, DEFAULT_DAILY, ZoneId.systemDefault());
+    }
+
+    /**
+     * Creates a new SnapshotCompactor
+     *
+     * @param store          the store whose logs are compacted
+     * @param fullResolution age until which every record is kept
+     * @param hourly         age until which hourly records are kept
+     * @param daily          age until which daily records are kept, weekly
+     *                       records are kept after that
+     * @param zone           time zone hours, days and weeks are aligned to
+     * @throws IllegalArgumentException if the ages are not increasing
+     */
+    public SnapshotCompactor(SnapshotStore store, Duration fullResolution, Duration hourly, Duration daily,
+            ZoneId zone) {
+        if (fullResolution.isNegative() || hourly.compareTo(fullResolution) < 0 || daily.compareTo(hourly) < 0) {
+            throw new IllegalArgumentException("Ages must be increasing: " + fullResolution + ", " + hourly
+                    + ", " + daily);
+        }
+        this.store = store;
+        this.fullResolution = fullResolution;
+        this.hourly = hourly;
+        this.daily = daily;
+        this.zone = zone;
+    }
+
+    /**
+     * Compacts every log now and then every interval, until stopped
+     *
+     * @param interval time between compactions
+     */
+    public synchronized void start(Duration interval) {
+        if (this.scheduled != null) {
+            return;
+        }
+        this.scheduled = this.executor.scheduleWithFixedDelay(this::compactAllQuietly,
+                0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops compacting. A compaction in progress finishes its current log.
+     */
+    @Override
+    public synchronized void close() {
+        if (this.scheduled != null) {
+            this.scheduled.cancel(false);
+            this.scheduled = null;
+        }
+        this.executor.shutdown();
+    }
+
+    /**
+     * Compacts every log in the store, one at a time. A log that fails is
+     * reported on stderr and the rest are still compacted.
+     *
+     * @return the number of records dropped
+     * @throws IOException if the store's directory can't be listed
+     */
+    public int compactAll() throws IOException {
+        int dropped = 0;
+        for (String username : this.store.listUsernames()) {
+            try {
+                dropped += compact(username);
+            } catch (IOException e) {
+                System.err.println("Could not compact history for " + username + ": " + e.getMessage());
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Compacts the log of one username
+     *
+     * @param username the username whose log to compact
+     * @return the number of records dropped
+     * @throws IOException if the log can't be rewritten
+     */
+    public int compact(String username) throws IOException {
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        int dropped = this.store.compact(username, records -> select(records, now));
+        DROPPED.add(dropped);
+        COMPACT_TIME.recordSince(start);
+        return dropped;
+    }
+
+    /**
+     * Chooses the records to keep at a given time. Records are in time order.
+     *
+     * @param records the records of a log
+     * @param now     the current time, in epoch millis
+     * @return whether to keep each record
+     */
+    boolean[] select(SnapshotRange records, long now) {
+        int count = records.size();
+        boolean[] keep = new boolean[count];
+        if (count == 0) {
+            return keep;
+        }
+        keep[0] = true;
+        keep[count - 1] = true;
+
+        for (int i = 0; i < count - 1; i++) {
+            long timestamp = records.getTimestampMillis(i);
+            RollupStore.Resolution resolution = resolutionAt(now - timestamp);
+            if (resolution == null) {
+                keep[i] = true;
+                continue;
+            }
+
+            // Keep the last record of each bucket
+            long next = records.getTimestampMillis(i + 1);
+            if (resolutionAt(now - next) != resolution
+                    || resolution.start(timestamp, this.zone) != resolution.start(next, this.zone)) {
+                keep[i] = true;
+            }
+
+            if (levelChanged(records, i, i + 1)) {
+                keep[i] = true;
+                keep[i + 1] = true;
+            }
+        }
+        return keep;
+    }
+
+    /**
+     * Returns the resolution records of an age are thinned to
+     *
+     * @param age the age of a record, in millis
+     * @return the resolution, null if every record of that age is kept
+     */
+    private RollupStore.Resolution resolutionAt(long age) {
+        if (age <= this.fullResolution.toMillis()) {
+            return null;
+        } else if (age <= this.hourly.toMillis()) {
+            return RollupStore.Resolution.HOUR;
+        } else if (age <= this.daily.toMillis()) {
+            return RollupStore.Resolution.DAY;
+        }
+        return RollupStore.Resolution.WEEK;
+    }
+
+    /**
+     * Whether any skill but Overall has a different level in two records
+     *
+     * @param records the records
+     * @param before  the earlier record
+     * @param after   the later record
+     * @return true if a level changed
+     */
+    private static boolean levelChanged(SnapshotRange records, int before, int after) {
+        for (int ordinal = 1; ordinal < records.getSkillCount(); ordinal++) {
+            int experienceBefore = records.getExperience(before, ordinal);
+            int experienceAfter = records.getExperience(after, ordinal);
+            if (experienceBefore != experienceAfter && XpTable.getVirtualLevelForExperience(experienceBefore)
+                    != XpTable.getVirtualLevelForExperience(experienceAfter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs compactAll on the background thread, reporting failures rather
+     * than stopping the schedule
+     */
+    private void compactAllQuietly() {
+        try {
+            compactAll();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Snapshot compaction failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+/**
+ * A SnapshotListener is notified every time a Player's skills are refreshed
+ * from the API. Register one with Player.addSnapshotListener.
+ *
+ * Listeners are called on the thread that did the refresh, which is usually a
+ * background thread, so implementations must be thread safe and should not
+ * block for long.
+ */
+public interface SnapshotListener {
+    /**
+     * Called after a Player's skills have been refreshed
+     *
+     * @param username the username of the refreshed Player
+     * @param snapshot the freshly fetched skill data
+     */
+    void onSnapshot(String username, SkillSnapshot snapshot);
+}
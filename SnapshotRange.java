@@ -0,0 +1,107 @@
+import java.nio.ByteBuffer;
+
+/**
+ * A SnapshotRange is a read-only view over consecutive records of a
+ * SnapshotStore log. Values are read straight from the memory-mapped file, so
+ * creating a range copies nothing. Use get to materialize a SkillSnapshot when
+ * a copy is actually needed.
+ *
+ * Ranges are safe to read from multiple threads.
+ */
+public final class SnapshotRange {
+    // The records in the range, starting at index 0 of the buffer
+    private final ByteBuffer records;
+    // Number of records in the range
+    private final int count;
+    // Number of skills in each record
+    private final int skillCount;
+    // Size of each record in bytes
+    private final int recordSize;
+
+    /**
+     * Creates a new SnapshotRange over the given records
+     *
+     * @param records    buffer whose first byte is the first record
+     * @param count      number of records in the range
+     * @param skillCount number of skills in each record
+     */
+    SnapshotRange(ByteBuffer records, int count, int skillCount) {
+        this.records = records;
+        this.count = count;
+        this.skillCount = skillCount;
+        this.recordSize = recordSize(skillCount);
+    }
+
+    /**
+     * Returns the size in bytes of one record for the given number of skills:
+     * a long timestamp followed by an int of experience and an int of rank
+     * per skill.
+     *
+     * @param skillCount number of skills in each record
+     * @return the record size in bytes
+     */
+    static int recordSize(int skillCount) {
+        return Long.BYTES + 2 * skillCount * Integer.BYTES;
+    }
+
+    // Number of records in the range
+    public int size() {
+        return this.count;
+    }
+
+    // Whether the range has no records
+    public boolean isEmpty() {
+        return this.count == 0;
+    }
+
+    // Number of skills in each record
+    public int getSkillCount() {
+        return this.skillCount;
+    }
+
+    // Timestamp of the record at index Accessor, in epoch millis
+    public long getTimestampMillis(int index) {
+        return this.records.getLong(offset(index));
+    }
+
+    // Experience of a skill in the record at index Accessor
+    public int getExperience(int index, int ordinal) {
+        return this.records.getInt(offset(index) + Long.BYTES + ordinal * Integer.BYTES);
+    }
+
+    // Rank of a skill in the record at index Accessor
+    public int getRank(int index, int ordinal) {
+        return this.records.getInt(offset(index) + Long.BYTES
+                + (this.skillCount + ordinal) * Integer.BYTES);
+    }
+
+    /**
+     * Copies the record at index into a SkillSnapshot
+     *
+     * @param index the record index within the range
+     * @return a SkillSnapshot holding a copy of the record
+     */
+    public SkillSnapshot get(int index) {
+        int[] experience = new int[this.skillCount];
+        int[] ranks = new int[this.skillCount];
+        for (int i = 0; i < this.skillCount; i++) {
+            experience[i] = getExperience(index, i);
+            ranks[i] = getRank(index, i);
+        }
+        return new SkillSnapshot(getTimestampMillis(index), experience, ranks);
+    }
+
+    /**
+     * Returns the byte offset of the record at index
+     *
+     * @param index the record index within the range
+     * @return the byte offset into the records buffer
+     * @throws IndexOutOfBoundsException if index is outside of the range
+     */
+    private int offset(int index) {
+        if (index < 0 || index >= this.count) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + this.count);
+        }
+        return index * this.recordSize;
+    }
+}
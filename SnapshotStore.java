@@ -0,0 +1,620 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * SnapshotStore keeps the history of every Player as an append-only log file
+ * per username. Each refresh appends one fixed-size record of the timestamp
+ * and the experience and rank of every skill, instead of saving a whole copy
+ * of the Player.
+ *
+ * Reads memory-map the log, and range queries return a SnapshotRange view
+ * over the mapped records without copying them. Since records are appended in
+ * time order, a range is found with two binary searches.
+ *
+ * Logs can be compacted by dropping records, see compact and
+ * SnapshotCompactor. Compaction rewrites the log to a new file and swaps it in
+ * while appends and reads go on; ranges read before the swap keep reading the
+ * old file.
+ *
+ * A snapshot with the same values as the last record is not appended.
+ * Instead its time is written over the "unchanged until" field of the header,
+ * so idle Players cost one small in-place write per refresh rather than a
+ * record each.
+ *
+ * Each log file starts with a 16 byte header:
+ * - int magic "OSRH" and short format version
+ * - short number of skills per record
+ * - long unchanged until, the latest time the last record's values were
+ *   fetched again, in epoch millis. 0 if they never were.
+ * followed by records as described in SnapshotRange.recordSize.
+ */
+public class SnapshotStore implements SnapshotListener, Closeable {
+    // File extension of the per-player logs
+    public static final String EXTENSION = ".osrh";
+    // Magic number at the start of every log, "OSRH" in ASCII
+    static final int MAGIC = 0x4F535248;
+    // Current version of the log format
+    static final short VERSION = 1;
+    // Size of the header at the start of every log
+    static final int HEADER_SIZE = 16;
+    // Offset of the unchanged until field in the header
+    private static final int UNCHANGED_UNTIL_OFFSET = 8;
+
+    // Directory holding one log per username
+    private final Path directory;
+    // Open logs, keyed by file name
+    private final ConcurrentHashMap<String, PlayerLog> logs = new ConcurrentHashMap<>();
+    // Number of records appended since the store was opened
+    private final LongAdder appends = new LongAdder();
+    // Number of snapshots that could not be written
+    private final LongAdder writeErrors = new LongAdder();
+    // Number of snapshots recorded as unchanged instead of appended
+    private final LongAdder unchanged = new LongAdder();
+
+    /**
+     * Creates a new SnapshotStore keeping its logs in the given directory.
+     * The directory is created if it does not exist, and logs named by an
+     * older version of the username key are renamed to their current name.
+     *
+     * @param directory the directory for the logs
+     * @throws IOException if the directory can't be created or listed
+     */
+    public SnapshotStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        renameLegacyLogs();
+    }
+
+    // Directory Getter
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    // Append Count Getter
+    public long getAppendCount() {
+        return this.appends.sum();
+    }
+
+    // Write Error Count Getter
+    public long getWriteErrorCount() {
+        return this.writeErrors.sum();
+    }
+
+    // Unchanged Count Getter
+    public long getUnchangedCount() {
+        return this.unchanged.sum();
+    }
+
+    /**
+     * Appends every refreshed snapshot to the Player's log. Failures are
+     * counted and reported on stderr rather than failing the refresh.
+     */
+    @Override
+    public void onSnapshot(String username, SkillSnapshot snapshot) {
+        try {
+            append(username, snapshot);
+        } catch (IOException e) {
+            this.writeErrors.increment();
+            System.err.println("Could not record snapshot for " + username + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends a snapshot to the log of the given username. Snapshots older
+     * than the last one in the log are dropped, since logs are kept in time
+     * order. Snapshots with the same values as the last record only update
+     * the log's unchanged until time.
+     *
+     * @param username the username the snapshot belongs to
+     * @param snapshot the snapshot to append
+     * @return true if the snapshot was appended as a new record
+     * @throws IOException if the log can't be written
+     */
+    public boolean append(String username, SkillSnapshot snapshot) throws IOException {
+        PlayerLog log = log(username);
+        if (log.markUnchanged(snapshot)) {
+            this.unchanged.increment();
+            return false;
+        }
+
+        boolean appended = log.append(snapshot);
+        if (appended) {
+            this.appends.increment();
+        }
+        return appended;
+    }
+
+    /**
+     * Returns every snapshot recorded for a username
+     *
+     * @param username the username to read
+     * @return a view over all records, empty if there are none
+     * @throws IOException if the log can't be read
+     */
+    public SnapshotRange readAll(String username) throws IOException {
+        return query(username, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns the snapshots recorded for a username between two times,
+     * inclusive.
+     *
+     * @param username   the username to read
+     * @param fromMillis the earliest timestamp, in epoch millis
+     * @param toMillis   the latest timestamp, in epoch millis
+     * @return a view over the matching records, empty if there are none
+     * @throws IOException if the log can't be read
+     */
+    public SnapshotRange query(String username, long fromMillis, long toMillis) throws IOException {
+        // Don't create an empty log just to read from it
+        String fileName = fileName(username);
+        if (!this.logs.containsKey(fileName) && !Files.exists(this.directory.resolve(fileName))) {
+            return new SnapshotRange(ByteBuffer.allocate(0), 0, HiscoreParser.SKILL_COUNT);
+        }
+        return log(username).query(fromMillis, toMillis);
+    }
+
+    /**
+     * Returns the latest time a username's recorded values were fetched: the
+     * time of the last record, or of a later refresh that found them
+     * unchanged
+     *
+     * @param username the username to read
+     * @return the time in epoch millis, Long.MIN_VALUE if nothing is recorded
+     * @throws IOException if the log can't be read
+     */
+    public long getLastSeenMillis(String username) throws IOException {
+        String fileName = fileName(username);
+        if (!this.logs.containsKey(fileName) && !Files.exists(this.directory.resolve(fileName))) {
+            return Long.MIN_VALUE;
+        }
+        return log(username).getLastSeenMillis();
+    }
+
+    /**
+     * Rewrites a username's log keeping only the records chosen by a filter.
+     * The filter sees every record at the time compaction starts; records
+     * appended while it runs are always kept. Appends and reads are only held
+     * up while the new file is swapped in.
+     *
+     * @param username the username whose log to compact
+     * @param keep     given the log's records, returns whether to keep each one
+     * @return the number of records dropped
+     * @throws IOException if the log can't be read or rewritten
+     */
+    public int compact(String username, Function<SnapshotRange, boolean[]> keep) throws IOException {
+        String fileName = fileName(username);
+        if (!this.logs.containsKey(fileName) && !Files.exists(this.directory.resolve(fileName))) {
+            return 0;
+        }
+        return log(username).compact(keep);
+    }
+
+    /**
+     * Lists the usernames that have a log in the directory, normalized and
+     * with spaces in place of underscores
+     *
+     * @return the usernames, in file name order
+     * @throws IOException if the directory can't be listed
+     */
+    public List<String> listUsernames() throws IOException {
+        List<String> usernames = new ArrayList<>();
+        try (Stream<Path> files = Files.list(this.directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(EXTENSION))
+                    .sorted()
+                    .forEach(name -> usernames.add(
+                            name.substring(0, name.length() - EXTENSION.length()).replace('_', ' ')));
+        }
+        return usernames;
+    }
+
+    /**
+     * Closes every open log
+     *
+     * @throws IOException if a log can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        for (PlayerLog log : this.logs.values()) {
+            log.close();
+        }
+        this.logs.clear();
+    }
+
+    /**
+     * Renames logs whose file name is not the current one for their
+     * username. Logs used to be named by the lower cased username only, so
+     * names with hyphens or repeated spaces would otherwise lose their
+     * history. A log whose current name is already taken is left alone and
+     * reported on stderr.
+     *
+     * @throws IOException if the directory can't be listed
+     */
+    private void renameLegacyLogs() throws IOException {
+        List<Path> logs;
+        try (Stream<Path> files = Files.list(this.directory)) {
+            logs = files.filter(path -> path.getFileName().toString().endsWith(EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        for (Path log : logs) {
+            String name = log.getFileName().toString();
+            String current = fileName(name.substring(0, name.length() - EXTENSION.length()));
+            if (current.equals(name)) {
+                continue;
+            }
+
+            Path target = this.directory.resolve(current);
+            try {
+                if (Files.exists(target)) {
+                    System.err.println("Not renaming history " + name + ", " + current + " already exists");
+                } else {
+                    Files.move(log, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException e) {
+                System.err.println("Could not rename history " + name + " to " + current + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns the open log for a username, opening or creating it if needed
+     *
+     * @param username the username of the log
+     * @return the log
+     * @throws IOException if the log can't be opened
+     */
+    private PlayerLog log(String username) throws IOException {
+        String fileName = fileName(username);
+        PlayerLog log = this.logs.get(fileName);
+        if (log != null) {
+            return log;
+        }
+
+        synchronized (this.logs) {
+            log = this.logs.get(fileName);
+            if (log == null) {
+                log = new PlayerLog(this.directory.resolve(fileName));
+                this.logs.put(fileName, log);
+            }
+            return log;
+        }
+    }
+
+    /**
+     * Returns the log file name for a username. Usernames that differ only in
+     * case or spacing share a log.
+     *
+     * @param username the username
+     * @return the log file name
+     */
+    static String fileName(String username) {
+        return HiscoreCache.normalize(username).replace(' ', '_') + EXTENSION;
+    }
+
+    /**
+     * A single Player's log file. Appends are serialized, reads use a shared
+     * read-only mapping of the file that is extended as the log grows.
+     */
+    private static final class PlayerLog implements Closeable {
+        // The log file
+        private final Path path;
+        // Channel used for appending and mapping, replaced by compaction
+        private FileChannel channel;
+        // Number of skills per record
+        private final int skillCount;
+        // Size of each record in bytes
+        private final int recordSize;
+        // Size of the log up to the last complete record
+        private long size;
+        // Timestamp of the last record, Long.MIN_VALUE if there are none
+        private long lastTimestamp = Long.MIN_VALUE;
+        // The last record, null if there are none
+        private SkillSnapshot lastRecord;
+        // Latest time the last record's values were fetched again, 0 if never
+        private long unchangedUntil;
+        // Read-only mapping of the log and the size it covers
+        private MappedByteBuffer mapped;
+        private long mappedSize;
+
+        /**
+         * Opens the log at path, creating it with a header if it is new
+         *
+         * @param path the log file
+         * @throws IOException if the file can't be opened or is not a log
+         */
+        private PlayerLog(Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            try {
+                if (this.channel.size() == 0) {
+                    this.skillCount = HiscoreParser.SKILL_COUNT;
+                    writeHeader(this.channel);
+                } else {
+                    this.skillCount = readHeader(path);
+                }
+                this.recordSize = SnapshotRange.recordSize(this.skillCount);
+
+                // Ignore a partial record left behind by a crash mid-append
+                long records = (this.channel.size() - HEADER_SIZE) / this.recordSize;
+                this.size = HEADER_SIZE + records * this.recordSize;
+                this.channel.truncate(this.size);
+                if (records > 0) {
+                    ByteBuffer last = ByteBuffer.allocate(this.recordSize);
+                    while (last.hasRemaining()) {
+                        this.channel.read(last, this.size - this.recordSize + last.position());
+                    }
+                    this.lastRecord = new SnapshotRange(last, 1, this.skillCount).get(0);
+                    this.lastTimestamp = this.lastRecord.getTimestampMillis();
+                }
+            } catch (IOException e) {
+                this.channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Writes the header of a new log
+         *
+         * @param channel the new log file
+         * @throws IOException if the header can't be written
+         */
+        private void writeHeader(FileChannel channel) throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putShort(VERSION);
+            header.putShort((short) this.skillCount);
+            header.putLong(this.unchangedUntil);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+
+        /**
+         * Validates the header of an existing log
+         *
+         * @param path the log file, for error messages
+         * @return the number of skills per record
+         * @throws IOException if the file is not a valid log
+         */
+        private int readHeader(Path path) throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && this.channel.read(header, header.position()) != -1) {
+                // Keep reading until the whole header is in the buffer
+            }
+            header.flip();
+
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("Not a snapshot log: " + path);
+            }
+            short version = header.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot log version " + version + ": " + path);
+            }
+            int skillCount = header.getShort();
+            this.unchangedUntil = header.getLong();
+            return skillCount;
+        }
+
+        /**
+         * Records a snapshot with the same values as the last record by
+         * writing its time over the header's unchanged until field
+         *
+         * @param snapshot the snapshot
+         * @return false if the snapshot has new values, or is not newer than
+         *         the log, and must be appended instead
+         * @throws IOException if the header can't be written
+         */
+        private synchronized boolean markUnchanged(SkillSnapshot snapshot) throws IOException {
+            long timestamp = snapshot.getTimestampMillis();
+            if (this.lastRecord == null || timestamp < getLastSeenMillis() || !snapshot.sameValues(this.lastRecord)) {
+                return false;
+            }
+
+            ByteBuffer until = ByteBuffer.allocate(Long.BYTES).putLong(0, timestamp);
+            while (until.hasRemaining()) {
+                this.channel.write(until, UNCHANGED_UNTIL_OFFSET + until.position());
+            }
+            this.unchangedUntil = timestamp;
+            return true;
+        }
+
+        // Time of the last record or the unchanged until time, if later
+        private synchronized long getLastSeenMillis() {
+            return Math.max(this.lastTimestamp, this.unchangedUntil == 0 ? Long.MIN_VALUE : this.unchangedUntil);
+        }
+
+        /**
+         * Appends a record for the snapshot at the end of the log
+         *
+         * @param snapshot the snapshot to append
+         * @return false if the snapshot is older than the last record or the
+         *         unchanged until time
+         * @throws IOException if the record can't be written
+         */
+        private synchronized boolean append(SkillSnapshot snapshot) throws IOException {
+            if (snapshot.getTimestampMillis() < getLastSeenMillis()) {
+                return false;
+            }
+
+            ByteBuffer record = ByteBuffer.allocate(this.recordSize);
+            record.putLong(snapshot.getTimestampMillis());
+            for (int i = 0; i < this.skillCount; i++) {
+                record.putInt(i < snapshot.getSkillCount() ? snapshot.getExperience(i) : -1);
+            }
+            for (int i = 0; i < this.skillCount; i++) {
+                record.putInt(i < snapshot.getSkillCount() ? snapshot.getRank(i) : -1);
+            }
+            record.flip();
+
+            long position = this.size;
+            while (record.hasRemaining()) {
+                position += this.channel.write(record, position);
+            }
+
+            this.size = position;
+            this.lastTimestamp = snapshot.getTimestampMillis();
+            this.lastRecord = snapshot;
+            return true;
+        }
+
+        /**
+         * Returns the records with timestamps between fromMillis and toMillis
+         *
+         * @param fromMillis the earliest timestamp, inclusive
+         * @param toMillis   the latest timestamp, inclusive
+         * @return a view over the matching records
+         * @throws IOException if the log can't be mapped
+         */
+        private SnapshotRange query(long fromMillis, long toMillis) throws IOException {
+            ByteBuffer records = mapRecords();
+            int count = records.capacity() / this.recordSize;
+
+            int from = firstAtOrAfter(records, count, fromMillis);
+            int to = (toMillis == Long.MAX_VALUE) ? count : firstAtOrAfter(records, count, toMillis + 1);
+            if (to <= from) {
+                return new SnapshotRange(records.slice(0, 0), 0, this.skillCount);
+            }
+
+            ByteBuffer slice = records.slice(from * this.recordSize, (to - from) * this.recordSize);
+            return new SnapshotRange(slice, to - from, this.skillCount);
+        }
+
+        /**
+         * Rewrites the log to a temporary file with only the records the
+         * filter keeps, then moves it over the log. Only the final copy of
+         * records appended meanwhile and the swap hold the lock.
+         *
+         * @param keep given the records, returns whether to keep each one
+         * @return the number of records dropped
+         * @throws IOException if the log can't be rewritten
+         */
+        private int compact(Function<SnapshotRange, boolean[]> keep) throws IOException {
+            ByteBuffer records = mapRecords();
+            long end = HEADER_SIZE + (long) records.capacity();
+            int count = records.capacity() / this.recordSize;
+            boolean[] kept = keep.apply(new SnapshotRange(records, count, this.skillCount));
+
+            int dropped = 0;
+            for (int i = 0; i < count; i++) {
+                if (!kept[i]) {
+                    dropped++;
+                }
+            }
+            if (dropped == 0) {
+                return 0;
+            }
+
+            Path temporary = this.path.resolveSibling(this.path.getFileName() + ".compact");
+            FileChannel compacted = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                writeHeader(compacted);
+                compacted.position(HEADER_SIZE);
+                // Copy each run of kept records in one write
+                int run = 0;
+                while (run < count) {
+                    if (!kept[run]) {
+                        run++;
+                        continue;
+                    }
+                    int runEnd = run;
+                    while (runEnd < count && kept[runEnd]) {
+                        runEnd++;
+                    }
+                    ByteBuffer slice = records.slice(run * this.recordSize, (runEnd - run) * this.recordSize);
+                    while (slice.hasRemaining()) {
+                        compacted.write(slice);
+                    }
+                    run = runEnd;
+                }
+
+                synchronized (this) {
+                    long appended = this.size - end;
+                    long copied = 0;
+                    while (copied < appended) {
+                        copied += this.channel.transferTo(end + copied, appended - copied, compacted);
+                    }
+                    // Again for an unchanged until time marked meanwhile
+                    writeHeader(compacted);
+                    compacted.force(false);
+                    compacted.close();
+
+                    Files.move(temporary, this.path, StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING);
+                    FileChannel reopened = FileChannel.open(this.path, StandardOpenOption.READ,
+                            StandardOpenOption.WRITE);
+                    this.channel.close();
+                    this.channel = reopened;
+                    this.size = reopened.size();
+                    this.mapped = null;
+                }
+                return dropped;
+            } finally {
+                compacted.close();
+                Files.deleteIfExists(temporary);
+            }
+        }
+
+        /**
+         * Returns a read-only view of all complete records, remapping the file
+         * if it has grown since the last mapping.
+         *
+         * @return the records, starting at index 0 of the buffer
+         * @throws IOException if the log can't be mapped
+         */
+        private synchronized ByteBuffer mapRecords() throws IOException {
+            if (this.mapped == null || this.mappedSize != this.size) {
+                this.mapped = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, this.size);
+                this.mappedSize = this.size;
+            }
+            return this.mapped.slice(HEADER_SIZE, (int) (this.mappedSize - HEADER_SIZE));
+        }
+
+        /**
+         * Binary searches the records for the first one at or after a time
+         *
+         * @param records     the records
+         * @param count       the number of records
+         * @param timestamp   the time to search for, in epoch millis
+         * @return the index of the first matching record, count if none match
+         */
+        private int firstAtOrAfter(ByteBuffer records, int count, long timestamp) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (records.getLong(mid * this.recordSize) < timestamp) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            this.mapped = null;
+            this.channel.close();
+        }
+    }
+}
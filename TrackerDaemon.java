@@ -0,0 +1,732 @@
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TrackerDaemon runs the tracker without a GUI. It keeps a set of Players
+ * refreshed with AutoRefreshSchedulers and serves them over HTTP on the
+ * loopback interface:
+ * - GET /players lists every tracked Player
+ * - GET /players/{username} returns a Player's skills, goals, progress and
+ *   time to goal as JSON
+ * - GET /events streams every Player as Server-Sent Events when it refreshes,
+ *   optionally only one Player with ?player={username}
+ * - GET /gains/{username} returns a Player's experience gained per hour, day
+ *   or week, from a RollupStore
+ * - GET /metrics returns the Metrics in the Prometheus text format
+ *
+ * Every refresh bumps the Player's version. JSON is rendered at most once per
+ * version and the bytes are reused for every request and event until the
+ * next refresh, so frequent polling costs no serialization. Responses carry
+ * the version as an ETag, so pollers sending If-None-Match get a 304. ETags
+ * include the time the daemon started, since versions restart with it.
+ *
+ * Every event stream is written by its own virtual thread from a bounded
+ * queue, so a stalled client only delays itself. A client that falls so far
+ * behind that its queue fills up is disconnected.
+ *
+ * Nothing here uses javax.swing or java.awt, so the daemon runs on machines
+ * without a display and starts without loading them.
+ */
+public class TrackerDaemon implements Closeable {
+    // Default port to serve on
+    public static final int DEFAULT_PORT = 8765;
+    // Directory where the history of refreshed Players is recorded
+    private static final String HISTORY_DIRECTORY = "history";
+    // Time between compactions of the history
+    private static final Duration HISTORY_COMPACTION_INTERVAL = Duration.ofHours(6);
+    // Seconds between keepalive comments sent to event streams, so dead
+    // connections are noticed
+    private static final long KEEPALIVE_SECONDS = 15;
+    // Comment line sent to event streams as a keepalive
+    private static final byte[] KEEPALIVE = ": keepalive\n\n".getBytes(StandardCharsets.UTF_8);
+    // Most events queued for one stream before its client is dropped
+    private static final int STREAM_QUEUE_SIZE = 64;
+    // Identifies this run of the daemon in ETags, since versions restart at 1
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+    // Number of event streams dropped for falling behind
+    private static final Metrics.Counter STREAMS_DROPPED = Metrics.counter(
+            "daemon_event_streams_dropped_total", "Event streams disconnected for falling behind");
+    // Time spent rendering Players as JSON
+    private static final Metrics.Histogram RENDER_TIME = Metrics.timer(
+            "daemon_render_seconds", "Time rendering Players as JSON");
+    // Number of requests answered from previously rendered JSON
+    private static final Metrics.Counter RENDER_REUSED = Metrics.counter(
+            "daemon_render_reused_total", "Responses served from previously rendered JSON");
+
+    // The HTTP server
+    private final HttpServer server;
+    // Tracked Players, keyed by normalized username
+    private final ConcurrentHashMap<String, TrackedPlayer> players = new ConcurrentHashMap<>();
+    // Open event streams
+    private final CopyOnWriteArrayList<EventStream> streams = new CopyOnWriteArrayList<>();
+    // Single thread that queues events for the streams, so a refresh never
+    // waits for it and every stream gets events in order
+    private final ScheduledExecutorService events = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "daemon-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Bumped whenever any Player is added or refreshed
+    private final AtomicLong indexVersion = new AtomicLong();
+    // Rendered /players list and the index version it was rendered for
+    private volatile Rendered index;
+    // Records the history of refreshed Players. null if history is disabled.
+    private SnapshotStore snapshotStore;
+    // Thins out old history in the background. null if history is disabled.
+    private SnapshotCompactor compactor;
+    // Experience gained by every Player per hour, day and week
+    private final RollupStore rollups = new RollupStore();
+
+    /**
+     * Creates a new TrackerDaemon. Nothing is served until start is called.
+     *
+     * @param address          the address to serve on
+     * @param historyDirectory where to record Player history, null to disable
+     * @throws IOException if the server can't be bound
+     */
+    public TrackerDaemon(InetSocketAddress address, Path historyDirectory) throws IOException {
+        this.server = HttpServer.create(address, 0);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext("/players", this::handlePlayers);
+        this.server.createContext("/events", this::handleEvents);
+        this.server.createContext("/metrics", this::handleMetrics);
+        this.server.createContext("/gains", this::handleGains);
+
+        if (historyDirectory != null) {
+            try {
+                this.snapshotStore = new SnapshotStore(historyDirectory);
+                Player.addSnapshotListener(this.snapshotStore);
+                this.compactor = new SnapshotCompactor(this.snapshotStore);
+            } catch (IOException e) {
+                System.err.println("Skill history disabled: " + e.getMessage());
+            }
+        }
+        // Registered after the SnapshotStore so a snapshot is in the log by
+        // the time it is rolled up
+        Player.addSnapshotListener(this.rollups);
+    }
+
+    /**
+     * Starts serving requests and sending keepalives to event streams
+     */
+    public void start() {
+        this.server.start();
+        if (this.compactor != null) {
+            this.compactor.start(HISTORY_COMPACTION_INTERVAL);
+        }
+        this.events.scheduleAtFixedRate(() -> broadcast(null, KEEPALIVE),
+                KEEPALIVE_SECONDS, KEEPALIVE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // Address Getter, the port is filled in if 0 was requested
+    public InetSocketAddress getAddress() {
+        return this.server.getAddress();
+    }
+
+    /**
+     * Starts keeping a Player refreshed and serving it. Its recorded history
+     * is replayed into its measured rates and its rollups first. A Player
+     * whose username is already tracked is ignored.
+     *
+     * @param player the Player to track
+     * @return true if the Player is now tracked
+     */
+    public boolean track(Player player) {
+        String key = HiscoreCache.normalize(player.getUsername());
+        if (this.players.containsKey(key)) {
+            return false;
+        }
+
+        if (this.snapshotStore != null) {
+            try {
+                SnapshotRange history = this.snapshotStore.readAll(player.getUsername());
+                player.replayHistory(history);
+                this.rollups.replay(player.getUsername(), history);
+            } catch (IOException e) {
+                System.err.println("Could not read history for " + player.getUsername() + ": " + e.getMessage());
+            }
+        }
+
+        TrackedPlayer tracked = new TrackedPlayer(player);
+        if (this.players.putIfAbsent(key, tracked) != null) {
+            return false;
+        }
+        this.indexVersion.incrementAndGet();
+        tracked.scheduler.start();
+        return true;
+    }
+
+    /**
+     * Stops refreshing every Player, closes all event streams and stops the
+     * server.
+     *
+     * @throws IOException if the history can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        for (TrackedPlayer tracked : this.players.values()) {
+            tracked.scheduler.stop();
+        }
+        this.server.stop(0);
+        this.events.shutdownNow();
+        for (EventStream stream : this.streams) {
+            stream.close();
+        }
+        this.streams.clear();
+        Player.removeSnapshotListener(this.rollups);
+        if (this.snapshotStore != null) {
+            this.compactor.close();
+            Player.removeSnapshotListener(this.snapshotStore);
+            this.snapshotStore.close();
+        }
+    }
+
+    /**
+     * Handles GET /players and GET /players/{username}
+     *
+     * @param exchange the request
+     * @throws IOException if the response can't be written
+     */
+    private void handlePlayers(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            String username = path.startsWith("/players/") ? path.substring("/players/".length()) : "";
+            if (username.isEmpty()) {
+                sendJson(exchange, renderIndex());
+                return;
+            }
+
+            TrackedPlayer tracked = this.players.get(HiscoreCache.normalize(username));
+            if (tracked == null) {
+                sendError(exchange, 404, "Player is not tracked: " + username);
+                return;
+            }
+            sendJson(exchange, tracked.render());
+        }
+    }
+
+    /**
+     * Handles GET /gains/{username}?skill={skill}&resolution={hour|day|week}&count={n}
+     * with the experience gained in a skill in each of the last n buckets,
+     * including the current one, and their total. Defaults to Overall over the
+     * last 12 weeks. Rendered for every request from the rollups.
+     *
+     * @param exchange the request
+     * @throws IOException if the response can't be written
+     */
+    private void handleGains(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            String username = path.startsWith("/gains/") ? path.substring("/gains/".length()) : "";
+            TrackedPlayer tracked = this.players.get(HiscoreCache.normalize(username));
+            if (tracked == null) {
+                sendError(exchange, 404, "Player is not tracked: " + username);
+                return;
+            }
+
+            URI uri = exchange.getRequestURI();
+            SkillName skillName;
+            RollupStore.Resolution resolution;
+            int count;
+            try {
+                String skill = queryParameter(uri, "skill");
+                String bucket = queryParameter(uri, "resolution");
+                String buckets = queryParameter(uri, "count");
+                skillName = (skill == null) ? SkillName.OVERALL : SkillName.valueOf(skill.toUpperCase(Locale.ROOT));
+                resolution = (bucket == null) ? RollupStore.Resolution.WEEK
+                        : RollupStore.Resolution.valueOf(bucket.toUpperCase(Locale.ROOT));
+                count = (buckets == null) ? 12 : Integer.parseInt(buckets);
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, "Invalid parameter: " + e.getMessage());
+                return;
+            }
+            if (count < 1 || count > 1000) {
+                sendError(exchange, 400, "count must be between 1 and 1000");
+                return;
+            }
+
+            // Step back count - 1 buckets from the current one
+            long now = System.currentTimeMillis();
+            long from = resolution.start(now, this.rollups.getZone());
+            for (int i = 1; i < count; i++) {
+                from = resolution.start(from - 1, this.rollups.getZone());
+            }
+            String name = tracked.player.getUsername();
+            Map<Long, Long> series = this.rollups.getSeries(name, skillName, resolution, from, now);
+
+            StringBuilder json = new StringBuilder("{\"username\":");
+            PlayerJson.appendString(json, name);
+            json.append(",\"skill\":\"").append(skillName).append("\",\"resolution\":\"").append(resolution)
+                    .append("\",\"gained\":").append(this.rollups.getGained(name, skillName, from, now))
+                    .append(",\"buckets\":[");
+            boolean first = true;
+            for (Map.Entry<Long, Long> bucket : series.entrySet()) {
+                if (!first) {
+                    json.append(',');
+                }
+                json.append("{\"start\":\"")
+                        .append(LocalDateTime.ofInstant(Instant.ofEpochMilli(bucket.getKey()), this.rollups.getZone()))
+                        .append("\",\"gained\":").append(bucket.getValue()).append('}');
+                first = false;
+            }
+            json.append("]}");
+
+            byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Handles GET /metrics. Metrics change constantly, so they are rendered for
+     * every request.
+     *
+     * @param exchange the request
+     * @throws IOException if the response can't be written
+     */
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+
+            byte[] bytes = Metrics.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Handles GET /events by opening a Server-Sent Events stream. The current
+     * state of every matching Player is sent straight away, then again after
+     * each of its refreshes.
+     *
+     * @param exchange the request
+     * @throws IOException if the response can't be written
+     */
+    private void handleEvents(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            try (exchange) {
+                sendError(exchange, 405, "Method not allowed");
+            }
+            return;
+        }
+
+        String filter = queryParameter(exchange.getRequestURI(), "player");
+        String key = (filter == null) ? null : HiscoreCache.normalize(filter);
+        if (key != null && !this.players.containsKey(key)) {
+            try (exchange) {
+                sendError(exchange, 404, "Player is not tracked: " + filter);
+            }
+            return;
+        }
+
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", "text/event-stream; charset=utf-8");
+        headers.set("Cache-Control", "no-cache");
+        // Length 0 streams the response until the exchange is closed
+        exchange.sendResponseHeaders(200, 0);
+
+        EventStream stream = new EventStream(exchange, key);
+        // Registered on the events thread so the initial state can't be sent
+        // after a newer refresh event
+        this.events.execute(() -> {
+            for (TrackedPlayer tracked : this.players.values()) {
+                if (stream.accepts(tracked) && !stream.offer(tracked.render().event)) {
+                    return;
+                }
+            }
+            this.streams.add(stream);
+        });
+    }
+
+    /**
+     * Called on a scheduler thread after a tracked Player refreshed. Bumps its
+     * version and sends it to the event streams.
+     *
+     * @param tracked the refreshed Player
+     */
+    private void refreshed(TrackedPlayer tracked) {
+        tracked.version.incrementAndGet();
+        this.indexVersion.incrementAndGet();
+        if (!this.streams.isEmpty()) {
+            this.events.execute(() -> broadcast(tracked, tracked.render().event));
+        }
+    }
+
+    /**
+     * Queues bytes for every event stream accepting the given Player, dropping
+     * streams whose client has gone away or fallen behind. Runs on the events
+     * thread and never blocks on a client.
+     *
+     * @param tracked the Player the bytes are about, null for every stream
+     * @param bytes   the bytes to send
+     */
+    private void broadcast(TrackedPlayer tracked, byte[] bytes) {
+        for (EventStream stream : this.streams) {
+            if ((tracked == null || stream.accepts(tracked)) && !stream.offer(bytes)) {
+                this.streams.remove(stream);
+            }
+        }
+    }
+
+    /**
+     * Returns the /players list, rendering it again only if a Player was added
+     * or refreshed since it was last rendered.
+     *
+     * @return the rendered list
+     */
+    private Rendered renderIndex() {
+        long version = this.indexVersion.get();
+        Rendered rendered = this.index;
+        if (rendered != null && rendered.version == version) {
+            return rendered;
+        }
+
+        StringBuilder json = new StringBuilder("{\"players\":[");
+        boolean first = true;
+        for (TrackedPlayer tracked : this.players.values()) {
+            if (!first) {
+                json.append(',');
+            }
+            PlayerJson.appendSummary(json, tracked.player, tracked.version.get());
+            first = false;
+        }
+        json.append("]}");
+
+        rendered = new Rendered(version, json.toString().getBytes(StandardCharsets.UTF_8), "players");
+        this.index = rendered;
+        return rendered;
+    }
+
+    /**
+     * Sends pre-rendered JSON, or 304 if the client already has this version
+     *
+     * @param exchange the request
+     * @param rendered the JSON to send
+     * @throws IOException if the response can't be written
+     */
+    private void sendJson(HttpExchange exchange, Rendered rendered) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("ETag", rendered.etag);
+        headers.set("Cache-Control", "no-cache");
+
+        if (rendered.etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+
+        headers.set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, rendered.json.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(rendered.json);
+        }
+    }
+
+    /**
+     * Sends a JSON error response
+     *
+     * @param exchange the request
+     * @param status   the HTTP status code
+     * @param message  the error message
+     * @throws IOException if the response can't be written
+     */
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        PlayerJson.appendString(json, message);
+        json.append('}');
+        byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    /**
+     * Returns the value of a query parameter
+     *
+     * @param uri  the request URI
+     * @param name the parameter name
+     * @return the decoded value, null if the parameter is missing
+     */
+    private static String queryParameter(URI uri, String name) {
+        String query = uri.getQuery();
+        if (query == null) {
+            return null;
+        }
+
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0 && parameter.substring(0, equals).equals(name)) {
+                return URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Starts the daemon from the command line:
+     * [--headless] [--port PORT] USERNAME|FILE.osrs...
+     * Usernames are fetched from the API, .osrs files are loaded with their
+     * Goals and Experience Rates.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        List<String> usernames = new ArrayList<>();
+        List<String> files = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--headless")) {
+                continue;
+            } else if (args[i].equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if (args[i].endsWith(".osrs")) {
+                files.add(args[i]);
+            } else {
+                usernames.add(args[i]);
+            }
+        }
+
+        if (usernames.isEmpty() && files.isEmpty()) {
+            System.err.println("Usage: java ExperienceTracker --headless [--port PORT] USERNAME|FILE.osrs...");
+            System.exit(2);
+        }
+
+        try {
+            TrackerDaemon daemon = new TrackerDaemon(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                    Path.of(HISTORY_DIRECTORY));
+
+            for (String file : files) {
+                try {
+                    daemon.track(Player.loadFromFile(file));
+                } catch (Exception e) {
+                    System.err.println("Could not load " + file + ": " + e.getMessage());
+                }
+            }
+            new PlayerTracker().trackAll(usernames, result -> {
+                if (result.isSuccess()) {
+                    daemon.track(result.getPlayer());
+                } else {
+                    System.err.println(result);
+                }
+            });
+
+            daemon.start();
+            InetSocketAddress address = daemon.getAddress();
+            System.out.println("Serving " + daemon.players.size() + " players on http://"
+                    + address.getHostString() + ":" + address.getPort() + "/players");
+        } catch (IOException e) {
+            System.err.println("Could not start the daemon: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * JSON rendered for one version of the data, with the matching
+     * Server-Sent Event. Immutable, so it can be shared between requests.
+     */
+    private static final class Rendered {
+        // Version the JSON was rendered for
+        private final long version;
+        // The JSON as UTF-8 bytes
+        private final byte[] json;
+        // The JSON as a complete Server-Sent Event
+        private final byte[] event;
+        // ETag identifying this version
+        private final String etag;
+
+        private Rendered(long version, byte[] json, String name) {
+            this.version = version;
+            this.json = json;
+            this.etag = "\"" + name + "-" + EPOCH + "-" + version + "\"";
+
+            byte[] prefix = ("event: player\nid: " + version + "\ndata: ").getBytes(StandardCharsets.UTF_8);
+            this.event = new byte[prefix.length + json.length + 2];
+            System.arraycopy(prefix, 0, this.event, 0, prefix.length);
+            System.arraycopy(json, 0, this.event, prefix.length, json.length);
+            this.event[this.event.length - 2] = '\n';
+            this.event[this.event.length - 1] = '\n';
+        }
+    }
+
+    /**
+     * A Player being kept refreshed, with its current version and the JSON
+     * rendered for it.
+     */
+    private final class TrackedPlayer {
+        // The tracked Player
+        private final Player player;
+        // Refreshes the Player in the background
+        private final AutoRefreshScheduler scheduler;
+        // Bumped after every refresh
+        private final AtomicLong version = new AtomicLong(1);
+        // Most recently rendered JSON, may be for an older version
+        private volatile Rendered rendered;
+
+        private TrackedPlayer(Player player) {
+            this.player = player;
+            this.scheduler = new AutoRefreshScheduler(player,
+                    refreshedPlayer -> refreshed(this),
+                    error -> System.err.println("Refresh of " + player.getUsername() + " failed: " + error.getMessage()));
+        }
+
+        /**
+         * Returns the JSON for the current version, rendering it only if the
+         * Player refreshed since it was last rendered. Concurrent requests may
+         * both render a new version, which is harmless.
+         *
+         * @return the rendered Player
+         */
+        private Rendered render() {
+            long current = this.version.get();
+            Rendered last = this.rendered;
+            if (last != null && last.version == current) {
+                RENDER_REUSED.increment();
+                return last;
+            }
+
+            long start = System.nanoTime();
+            last = new Rendered(current, PlayerJson.render(this.player, current),
+                    HiscoreCache.normalize(this.player.getUsername()).replace(' ', '_'));
+            RENDER_TIME.recordSince(start);
+            this.rendered = last;
+            return last;
+        }
+    }
+
+    /**
+     * An open Server-Sent Events connection, written by its own virtual
+     * thread from a bounded queue
+     */
+    private static final class EventStream {
+        // The exchange kept open for the stream
+        private final HttpExchange exchange;
+        // The response body events are written to
+        private final OutputStream body;
+        // Normalized username of the only Player to send, null for all
+        private final String key;
+        // Events waiting to be written
+        private final ArrayBlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(STREAM_QUEUE_SIZE);
+        // Writes queued events to the client
+        private final Thread writer;
+        // Set once the stream is closed, by either side
+        private volatile boolean closed;
+
+        private EventStream(HttpExchange exchange, String key) {
+            this.exchange = exchange;
+            this.body = exchange.getResponseBody();
+            this.key = key;
+            this.writer = Thread.ofVirtual().name("daemon-event-stream").start(this::write);
+        }
+
+        /**
+         * Whether events about the Player should be sent to this stream
+         *
+         * @param tracked the Player
+         * @return true if the stream wants the Player's events
+         */
+        private boolean accepts(TrackedPlayer tracked) {
+            return this.key == null || this.key.equals(HiscoreCache.normalize(tracked.player.getUsername()));
+        }
+
+        /**
+         * Queues bytes to be written to the stream. Closes the stream if its
+         * queue is full, since the client has stopped keeping up.
+         *
+         * @param bytes the bytes to write
+         * @return false if the stream is closed
+         */
+        private boolean offer(byte[] bytes) {
+            if (this.closed) {
+                return false;
+            }
+            if (!this.queue.offer(bytes)) {
+                STREAMS_DROPPED.increment();
+                close();
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Writes queued events until the stream is closed or the client has
+         * gone away. Runs on the stream's writer thread.
+         */
+        private void write() {
+            try {
+                while (!this.closed) {
+                    this.body.write(this.queue.take());
+                    this.body.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // Client gone or stream closed, stop writing
+            } finally {
+                this.closed = true;
+                // Closed here rather than by close, since closing flushes and
+                // could block the caller on a stalled client
+                this.exchange.close();
+            }
+        }
+
+        /**
+         * Closes the stream. Its writer thread stops and closes the exchange.
+         */
+        private void close() {
+            this.closed = true;
+            // Null if the writer failed before the constructor finished, in
+            // which case it is already closing the exchange
+            Thread thread = this.writer;
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+import java.time.LocalDateTime;
+
+/**
+ * TrackingResult is the outcome of fetching one username in a PlayerTracker
+ * batch. It either holds the fetched Player or the exception that stopped it,
+ * such as a PlayerNotFoundException. Usernames skipped because they were
+ * already known not to exist are reported as known missing.
+ */
+public class TrackingResult {
+    // The username that was requested
+    private final String username;
+    // The fetched Player, null if the fetch failed
+    private final Player player;
+    // The reason the fetch failed, null if it succeeded
+    private final Exception error;
+    // The timestamp shared by every Player in the batch
+    private final LocalDateTime batchTimestamp;
+    // Whether the username was skipped as known missing, without a request
+    private final boolean knownMissing;
+
+    /**
+     * Creates a new TrackingResult. Exactly one of player and error should be
+     * non-null.
+     *
+     * @param username       the requested username
+     * @param player         the fetched Player, or null on failure
+     * @param error          the failure, or null on success
+     * @param batchTimestamp the timestamp of the batch
+     */
+    TrackingResult(String username, Player player, Exception error, LocalDateTime batchTimestamp) {
+        this(username, player, error, batchTimestamp, false);
+    }
+
+    /**
+     * Creates a new TrackingResult. Exactly one of player and error should be
+     * non-null.
+     *
+     * @param username       the requested username
+     * @param player         the fetched Player, or null on failure
+     * @param error          the failure, or null on success
+     * @param batchTimestamp the timestamp of the batch
+     * @param knownMissing   whether the username was skipped as known missing
+     */
+    TrackingResult(String username, Player player, Exception error, LocalDateTime batchTimestamp,
+            boolean knownMissing) {
+        this.username = username;
+        this.player = player;
+        this.error = error;
+        this.batchTimestamp = batchTimestamp;
+        this.knownMissing = knownMissing;
+    }
+
+    // Username Getter
+    public String getUsername() {
+        return this.username;
+    }
+
+    // Player Getter. null if the fetch failed
+    public Player getPlayer() {
+        return this.player;
+    }
+
+    // Error Getter. null if the fetch succeeded
+    public Exception getError() {
+        return this.error;
+    }
+
+    // Batch Timestamp Getter
+    public LocalDateTime getBatchTimestamp() {
+        return this.batchTimestamp;
+    }
+
+    /**
+     * Returns whether the Player was fetched successfully
+     *
+     * @return true if getPlayer() holds the fetched Player
+     */
+    public boolean isSuccess() {
+        return this.error == null;
+    }
+
+    /**
+     * Returns whether the fetch failed because the username does not exist
+     *
+     * @return true if the failure was a PlayerNotFoundException
+     */
+    public boolean isPlayerNotFound() {
+        return this.error instanceof PlayerNotFoundException;
+    }
+
+    /**
+     * Returns whether the username was skipped without a request because the
+     * API recently answered "not found" for it. Such results are also
+     * isPlayerNotFound.
+     *
+     * @return true if the username was known to be missing
+     */
+    public boolean isKnownMissing() {
+        return this.knownMissing;
+    }
+
+    /**
+     * Returns a short description of the result for logging.
+     * In the format: "username: OK", "username: known missing" or
+     * "username: PlayerNotFoundException"
+     */
+    @Override
+    public String toString() {
+        if (isSuccess()) {
+            return this.username + ": OK";
+        } else if (this.knownMissing) {
+            return this.username + ": known missing";
+        }
+        return this.username + ": " + this.error.getClass().getSimpleName();
+    }
+}
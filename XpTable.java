@@ -0,0 +1,88 @@
+/**
+ * XpTable holds the experience required for every level from 1 to 127,
+ * computed once from the formula on the wiki page:
+ * https://oldschool.runescape.wiki/w/Experience#Formula
+ *
+ * The table is immutable and shared by Skill, LevelGoal and Player so the
+ * formula is never re-evaluated at runtime. Experience to level lookups use
+ * a binary search over the table.
+ */
+public final class XpTable {
+    // The lowest level in the table
+    public static final int MIN_LEVEL = 1;
+    // The highest real level a Skill can reach
+    public static final int MAX_LEVEL = 99;
+    // The highest virtual level in the table
+    public static final int MAX_VIRTUAL_LEVEL = 127;
+
+    // Experience needed for each level, indexed by level. Index 0 is unused.
+    private static final int[] EXPERIENCE = buildTable();
+
+    // Not instantiable, all lookups are static
+    private XpTable() {
+    }
+
+    /**
+     * Builds the experience table by accumulating the formula once for every
+     * level, instead of re-summing all lower levels for each lookup.
+     *
+     * @return array of experience values indexed by level
+     */
+    private static int[] buildTable() {
+        int[] table = new int[MAX_VIRTUAL_LEVEL + 1];
+        int sum = 0;
+        for (int level = MIN_LEVEL; level <= MAX_VIRTUAL_LEVEL; level++) {
+            table[level] = sum / 4;
+            sum += (int) Math.floor(level + 300.0 * Math.pow(2.0, level / 7.0));
+        }
+        return table;
+    }
+
+    /**
+     * Returns the experience needed to reach the given level.
+     *
+     * @param level a level between 1 and 127 inclusive
+     * @return How many experience points are needed to reach level
+     * @throws IllegalArgumentException if level is outside of the table
+     */
+    public static int getExperienceForLevel(int level) {
+        if (level < MIN_LEVEL || level > MAX_VIRTUAL_LEVEL) {
+            throw new IllegalArgumentException("Level out of range: " + level);
+        }
+        return EXPERIENCE[level];
+    }
+
+    /**
+     * Returns the real level (capped at 99) for the given experience value.
+     *
+     * @param experience the experience value to look up
+     * @return the level between 1 and 99 for the experience value
+     */
+    public static int getLevelForExperience(int experience) {
+        return Math.min(getVirtualLevelForExperience(experience), MAX_LEVEL);
+    }
+
+    /**
+     * Returns the virtual level (capped at 127) for the given experience value.
+     * Finds the highest level whose required experience is at most experience.
+     *
+     * @param experience the experience value to look up
+     * @return the level between 1 and 127 for the experience value
+     */
+    public static int getVirtualLevelForExperience(int experience) {
+        int low = MIN_LEVEL;
+        int high = MAX_VIRTUAL_LEVEL;
+
+        while (low < high) {
+            // Round up so the search always makes progress
+            int mid = (low + high + 1) >>> 1;
+            if (EXPERIENCE[mid] <= experience) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return low;
+    }
+}
@@ -0,0 +1,85 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Fixtures gives the benchmarks access to the saved Players in saved_players,
+ * and builds canned hiscore API responses from them so parsing can be
+ * benchmarked without the network.
+ */
+final class Fixtures {
+    // Directory holding the saved Players, relative to the repository root
+    static final Path DIRECTORY = Path.of(System.getProperty("fixtures.dir", "saved_players"));
+    // Number of activity rows (clue scrolls, bosses, ...) the API returns after
+    // the skills. They have no level column and are skipped by the parsers.
+    private static final int ACTIVITY_ROWS = 80;
+
+    // Static methods only
+    private Fixtures() {
+    }
+
+    /**
+     * Returns every saved Player file, in a stable order
+     *
+     * @return the paths of all .osrs fixtures
+     * @throws IOException if the fixtures directory can't be read
+     */
+    static List<Path> all() throws IOException {
+        try (Stream<Path> files = Files.walk(DIRECTORY)) {
+            return files.filter(path -> path.toString().endsWith(".osrs"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Returns the first saved Player file with the given name
+     *
+     * @param name the file name without the .osrs extension
+     * @return the path of the fixture
+     * @throws IOException if no fixture has that name
+     */
+    static Path find(String name) throws IOException {
+        for (Path path : all()) {
+            if (path.getFileName().toString().equals(name + ".osrs")) {
+                return path;
+            }
+        }
+        throw new IOException("No fixture named " + name + " in " + DIRECTORY.toAbsolutePath());
+    }
+
+    /**
+     * Loads the first saved Player with the given name
+     *
+     * @param name the file name without the .osrs extension
+     * @return the saved Player
+     * @throws Exception if the fixture can't be loaded
+     */
+    static Player load(String name) throws Exception {
+        return Player.loadFromFile(find(name).toString());
+    }
+
+    /**
+     * Builds the body the index_lite API would return for the Player: a
+     * "rank,level,experience" row per skill followed by the activity rows.
+     *
+     * @param player the Player to describe
+     * @return the response body as bytes
+     */
+    static byte[] response(Player player) {
+        StringBuilder body = new StringBuilder(2048);
+        for (Skill skill : player.getSkills()) {
+            body.append(skill.getRank()).append(',')
+                    .append(skill.getLevel()).append(',')
+                    .append(skill.getExperience()).append('\n');
+        }
+        for (int i = 0; i < ACTIVITY_ROWS; i++) {
+            body.append("-1,-1\n");
+        }
+        return body.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+}
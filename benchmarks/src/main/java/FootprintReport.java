@@ -0,0 +1,94 @@
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.openjdk.jol.info.GraphLayout;
+import org.openjdk.jol.vm.VM;
+
+/**
+ * FootprintReport prints the retained heap size of every saved Player, next to
+ * the size the same data took in the original representation: an ArrayList
+ * of Skill objects plus HashMaps of Goals and boxed experience rates.
+ *
+ * Objects shared by every Player, such as the SkillName constants, their Class
+ * and the cached Goals, are not counted. The Player object itself is counted
+ * at its current shallow size in both.
+ *
+ * Run with gradle :benchmarks:footprint
+ */
+public final class FootprintReport {
+    private static final SkillName[] SKILL_NAMES = SkillName.values();
+
+    // Run through main only
+    private FootprintReport() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-48s %10s %10s %8s%n", "fixture", "legacy", "current", "saved");
+
+        long legacyTotal = 0;
+        long currentTotal = 0;
+        for (Path path : Fixtures.all()) {
+            Player player = Player.loadFromFile(path.toString());
+            GraphLayout legacyLayout = legacyLayout(player);
+            GraphLayout currentLayout = GraphLayout.parseInstance(player);
+            // Laid out last, since walking a Class can populate its caches
+            GraphLayout shared = sharedLayout(player);
+            long legacy = VM.current().sizeOf(player) + legacyLayout.subtract(shared).totalSize();
+            long current = currentLayout.subtract(shared).totalSize();
+            legacyTotal += legacy;
+            currentTotal += current;
+            print(Fixtures.DIRECTORY.relativize(path).toString(), legacy, current);
+        }
+        print("total", legacyTotal, currentTotal);
+    }
+
+    /**
+     * Lays out the Player's data the way Player used to hold it, without the
+     * Player object itself
+     *
+     * @param player the Player to measure
+     * @return the layout of the legacy fields
+     */
+    private static GraphLayout legacyLayout(Player player) {
+        ArrayList<Skill> skills = new ArrayList<>(player.getSkills());
+        HashMap<SkillName, Goal> goals = new HashMap<>();
+        HashMap<SkillName, Integer> rates = new HashMap<>();
+        for (int i = 0; i < skills.size(); i++) {
+            Goal goal = player.getGoal(SKILL_NAMES[i]);
+            if (goal != null) {
+                goals.put(SKILL_NAMES[i], goal);
+            }
+            Integer rate = player.getExperienceRate(SKILL_NAMES[i]);
+            if (rate != null) {
+                rates.put(SKILL_NAMES[i], Integer.valueOf(rate));
+            }
+        }
+
+        return GraphLayout.parseInstance(player.getUsername(), player.getLastRefreshedAt(), skills, goals, rates);
+    }
+
+    /**
+     * Lays out the objects every Player shares: the SkillName constants and
+     * their Class, and the Player's Goals, which are cached and reused.
+     *
+     * @param player the Player whose Goals to include
+     * @return the layout of the shared objects
+     */
+    private static GraphLayout sharedLayout(Player player) {
+        ArrayList<Object> roots = new ArrayList<>();
+        roots.add(SkillName.class);
+        for (SkillName skillName : SKILL_NAMES) {
+            roots.add(skillName);
+            if (player.getGoal(skillName) != null) {
+                roots.add(player.getGoal(skillName));
+            }
+        }
+        return GraphLayout.parseInstance(roots.toArray());
+    }
+
+    private static void print(String name, long legacy, long current) {
+        System.out.printf("%-48s %10d %10d %7.1f%%%n", name, legacy, current,
+                100.0 * (legacy - current) / legacy);
+    }
+}
@@ -0,0 +1,16 @@
+/**
+ * LevelGoal lookups for benchmarks.GoalBenchmark
+ */
+public class GoalBenchmarkTarget implements benchmarks.GoalBenchmark.Target {
+    private Goal goal;
+
+    @Override
+    public void setup(int targetLevel) throws InvalidGoalException {
+        this.goal = LevelGoal.of(targetLevel);
+    }
+
+    @Override
+    public int targetExperience() {
+        return this.goal.getTargetExperience();
+    }
+}
@@ -0,0 +1,38 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Response parsing for benchmarks.HiscoreParseBenchmark
+ */
+public class HiscoreParseBenchmarkTarget implements benchmarks.HiscoreParseBenchmark.Target {
+    private static final SkillName[] SKILL_NAMES = SkillName.values();
+
+    private byte[] response;
+
+    @Override
+    public void setup(String fixture) throws Exception {
+        this.response = Fixtures.response(Fixtures.load(fixture));
+    }
+
+    @Override
+    public Object hiscoreParser() throws IOException {
+        HiscoreParser parser = HiscoreParser.acquire();
+        try {
+            parser.parse(new ByteArrayInputStream(this.response));
+
+            ArrayList<Skill> skills = new ArrayList<>(parser.getSkillCount());
+            for (int i = 0; i < parser.getSkillCount(); i++) {
+                skills.add(new Skill(SKILL_NAMES[i], parser.getLevel(i), parser.getExperience(i), parser.getRank(i)));
+            }
+            return skills;
+        } finally {
+            HiscoreParser.release(parser);
+        }
+    }
+
+    @Override
+    public Object legacySplit() throws IOException {
+        return LegacyHiscoreParser.parse(this.response);
+    }
+}
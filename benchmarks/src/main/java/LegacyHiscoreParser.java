@@ -0,0 +1,50 @@
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+
+/**
+ * The response parsing from Player.refreshSkills as it was before
+ * HiscoreParser: every line is decoded to a String, split on commas and
+ * parsed with Integer.parseInt. Kept only to benchmark against.
+ */
+final class LegacyHiscoreParser {
+    // Static methods only
+    private LegacyHiscoreParser() {
+    }
+
+    /**
+     * Parses a response body into Skills
+     *
+     * @param response the index_lite response body
+     * @return the Skills in SkillName order
+     * @throws IOException if the body can't be read
+     */
+    static ArrayList<Skill> parse(byte[] response) throws IOException {
+        ArrayList<Skill> skills = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(response)));
+        String line;
+
+        do {
+            line = reader.readLine();
+            if (line != null) {
+                // API returns skill data as a CSV
+                String[] parts = line.split(",");
+                // Skill rows have a length of >= 3, this is the only way to
+                // determine whether the current line is for a skill
+                if (parts.length >= 3) {
+                    Skill s = new Skill(
+                            SkillName.values()[skills.size()],
+                            Integer.parseInt(parts[1]), // Level
+                            Integer.parseInt(parts[2]), // Experience
+                            Integer.parseInt(parts[0])); // Rank
+                    skills.add(s);
+                }
+            }
+        } while (line != null);
+
+        reader.close();
+        return skills;
+    }
+}
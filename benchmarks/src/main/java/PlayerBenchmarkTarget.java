@@ -0,0 +1,29 @@
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-skill Player calculations for benchmarks.PlayerBenchmark
+ */
+public class PlayerBenchmarkTarget implements benchmarks.PlayerBenchmark.Target {
+    private static final SkillName[] SKILL_NAMES = SkillName.values();
+
+    private Player player;
+
+    @Override
+    public void setup(String fixture) throws Exception {
+        this.player = Fixtures.load(fixture);
+    }
+
+    @Override
+    public void progressToGoal(Blackhole blackhole) {
+        for (SkillName skillName : SKILL_NAMES) {
+            blackhole.consume(this.player.getProgressToGoal(skillName));
+        }
+    }
+
+    @Override
+    public void timeToGoal(Blackhole blackhole) {
+        for (SkillName skillName : SKILL_NAMES) {
+            blackhole.consume(this.player.getTimeToGoal(skillName));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Saving and loading Players for benchmarks.PlayerFileBenchmark
+ */
+public class PlayerFileBenchmarkTarget implements benchmarks.PlayerFileBenchmark.Target {
+    private Player player;
+    // The fixture with a different Attack experience rate, so saving it over
+    // the fixture's file rewrites the whole file
+    private Player changedPlayer;
+    // The Player last saved to saveFile
+    private Player saved;
+    // Scratch file saves are written to
+    private Path saveFile;
+    // Scratch file already holding the fixture, for unchanged saves
+    private Path unchangedFile;
+    // The fixture saved in each format
+    private Path binaryFile;
+    private Path legacyFile;
+
+    @Override
+    public void setup(String fixture) throws Exception {
+        this.player = Fixtures.load(fixture);
+        this.changedPlayer = Fixtures.load(fixture);
+        Integer rate = this.changedPlayer.getExperienceRate(SkillName.ATTACK);
+        this.changedPlayer.updateExperienceRate(SkillName.ATTACK, (rate == null) ? 1 : rate + 1);
+        this.saveFile = Files.createTempFile("bench-save", ".osrs");
+        this.unchangedFile = Files.createTempFile("bench-unchanged", ".osrs");
+        this.player.saveToFile(this.unchangedFile.toString());
+        this.binaryFile = Files.createTempFile("bench-binary", ".osrs");
+        this.player.saveToFile(this.binaryFile.toString());
+        // The fixtures were written with Java serialization
+        this.legacyFile = Fixtures.find(fixture);
+    }
+
+    @Override
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.saveFile);
+        Files.deleteIfExists(this.unchangedFile);
+        Files.deleteIfExists(this.binaryFile);
+    }
+
+    @Override
+    public void saveToFile() throws IOException {
+        // Alternates between the two Players, so the file never already
+        // holds what is saved and every save is a full write
+        Player next = (this.saved == this.player) ? this.changedPlayer : this.player;
+        next.saveToFile(this.saveFile.toString());
+        this.saved = next;
+    }
+
+    @Override
+    public void saveToFileUnchanged() throws IOException {
+        this.player.saveToFile(this.unchangedFile.toString());
+    }
+
+    @Override
+    public void saveToFileLegacy() throws IOException {
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(this.saveFile.toFile()))) {
+            out.writeObject(this.player);
+        }
+    }
+
+    @Override
+    public Object loadFromFile() throws Exception {
+        return Player.loadFromFile(this.binaryFile.toString());
+    }
+
+    @Override
+    public Object loadFromFileLegacy() throws Exception {
+        return Player.loadFromFile(this.legacyFile.toString());
+    }
+}
@@ -0,0 +1,23 @@
+/**
+ * Skill construction for benchmarks.SkillBenchmark
+ */
+public class SkillBenchmarkTarget implements benchmarks.SkillBenchmark.Target {
+    private int experience;
+    private int level;
+
+    @Override
+    public void setup(int experience) {
+        this.experience = experience;
+        this.level = XpTable.getLevelForExperience(experience);
+    }
+
+    @Override
+    public Object construct() {
+        return new Skill(SkillName.ATTACK, this.level, this.experience, 1000);
+    }
+
+    @Override
+    public int virtualLevel() {
+        return XpTable.getVirtualLevelForExperience(this.experience);
+    }
+}
@@ -0,0 +1,305 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * BenchmarkDiff compares two JMH JSON result files, such as a saved baseline
+ * and the latest run, and prints the change of every benchmark. It exits with
+ * status 1 if any benchmark got slower by more than the threshold, so it can
+ * gate a build.
+ *
+ * Usage: BenchmarkDiff BASELINE.json RESULTS.json [THRESHOLD_PERCENT]
+ */
+public final class BenchmarkDiff {
+    // Default regression allowed before failing, in percent
+    private static final double DEFAULT_THRESHOLD = 10.0;
+
+    // Static methods only
+    private BenchmarkDiff() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkDiff BASELINE.json RESULTS.json [THRESHOLD_PERCENT]");
+            System.exit(2);
+        }
+
+        Path baselinePath = Path.of(args[0]);
+        Path resultsPath = Path.of(args[1]);
+        double threshold = (args.length > 2) ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        if (!Files.exists(baselinePath)) {
+            System.err.println("No baseline at " + baselinePath + ", run :benchmarks:jmhBaseline first");
+            System.exit(2);
+        }
+
+        Map<String, Score> baseline = readScores(baselinePath);
+        Map<String, Score> results = readScores(resultsPath);
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Score> entry : results.entrySet()) {
+            Score current = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %9s%n", entry.getKey(), "-", current.value, "new");
+                continue;
+            }
+
+            // Positive change is always worse, whichever way the mode counts
+            double change = (current.value - before.value) / before.value * 100;
+            if (current.higherIsBetter) {
+                change = -change;
+            }
+            boolean regressed = change > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%% %s%s%n", entry.getKey(), before.value,
+                    current.value, change, current.unit, regressed ? "  REGRESSION" : "");
+        }
+        for (String name : baseline.keySet()) {
+            if (!results.containsKey(name)) {
+                System.out.printf("%-70s %14.3f %14s %9s%n", name, baseline.get(name).value, "-", "missing");
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed by more than " + threshold + "%");
+            System.exit(1);
+        }
+        System.out.println("No regressions over " + threshold + "%");
+    }
+
+    /**
+     * Reads the score of every benchmark in a JMH JSON result file
+     *
+     * @param path the result file
+     * @return scores keyed by benchmark name, mode and parameters
+     * @throws IOException if the file can't be read or is not JMH JSON
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Score> readScores(Path path) throws IOException {
+        Object json = new JsonReader(Files.readString(path)).read();
+        if (!(json instanceof List)) {
+            throw new IOException("Not a JMH result file: " + path);
+        }
+
+        Map<String, Score> scores = new TreeMap<>();
+        for (Object item : (List<Object>) json) {
+            Map<String, Object> run = (Map<String, Object>) item;
+            Map<String, Object> metric = (Map<String, Object>) run.get("primaryMetric");
+            String mode = (String) run.get("mode");
+
+            StringBuilder name = new StringBuilder((String) run.get("benchmark"));
+            name.append(" [").append(mode);
+            Object params = run.get("params");
+            if (params instanceof Map) {
+                for (Map.Entry<String, Object> param : ((Map<String, Object>) params).entrySet()) {
+                    name.append(", ").append(param.getKey()).append('=').append(param.getValue());
+                }
+            }
+            name.append(']');
+
+            scores.put(name.toString(), new Score(((Number) metric.get("score")).doubleValue(),
+                    (String) metric.get("scoreUnit"), "thrpt".equals(mode)));
+        }
+        return scores;
+    }
+
+    /**
+     * The primary score of one benchmark
+     */
+    private static final class Score {
+        private final double value;
+        private final String unit;
+        // Throughput counts operations, so a lower score is worse
+        private final boolean higherIsBetter;
+
+        private Score(double value, String unit, boolean higherIsBetter) {
+            this.value = value;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+        }
+    }
+
+    /**
+     * Minimal JSON reader for JMH result files, producing Maps, Lists,
+     * Strings, Doubles, Booleans and nulls. JMH writes non-finite numbers as
+     * the strings "NaN" and "Infinity", which are read as strings.
+     */
+    private static final class JsonReader {
+        private final String text;
+        private int position;
+
+        private JsonReader(String text) {
+            this.text = text;
+        }
+
+        private Object read() throws IOException {
+            skipWhitespace();
+            if (this.position >= this.text.length()) {
+                throw error("Unexpected end of JSON");
+            }
+
+            char c = this.text.charAt(this.position);
+            switch (c) {
+                case '{':
+                    return readObject();
+                case '[':
+                    return readArray();
+                case '"':
+                    return readString();
+                case 't':
+                    expect("true");
+                    return Boolean.TRUE;
+                case 'f':
+                    expect("false");
+                    return Boolean.FALSE;
+                case 'n':
+                    expect("null");
+                    return null;
+                default:
+                    return readNumber();
+            }
+        }
+
+        private Map<String, Object> readObject() throws IOException {
+            Map<String, Object> object = new LinkedHashMap<>();
+            this.position++;
+            skipWhitespace();
+            if (peek() == '}') {
+                this.position++;
+                return object;
+            }
+
+            while (true) {
+                skipWhitespace();
+                String key = readString();
+                skipWhitespace();
+                expect(":");
+                object.put(key, read());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') {
+                    return object;
+                } else if (c != ',') {
+                    throw error("Expected , or }");
+                }
+            }
+        }
+
+        private List<Object> readArray() throws IOException {
+            List<Object> array = new ArrayList<>();
+            this.position++;
+            skipWhitespace();
+            if (peek() == ']') {
+                this.position++;
+                return array;
+            }
+
+            while (true) {
+                array.add(read());
+                skipWhitespace();
+                char c = next();
+                if (c == ']') {
+                    return array;
+                } else if (c != ',') {
+                    throw error("Expected , or ]");
+                }
+            }
+        }
+
+        private String readString() throws IOException {
+            expect("\"");
+            StringBuilder string = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return string.toString();
+                } else if (c != '\\') {
+                    string.append(c);
+                    continue;
+                }
+
+                char escaped = next();
+                switch (escaped) {
+                    case 'n':
+                        string.append('\n');
+                        break;
+                    case 't':
+                        string.append('\t');
+                        break;
+                    case 'r':
+                        string.append('\r');
+                        break;
+                    case 'b':
+                        string.append('\b');
+                        break;
+                    case 'f':
+                        string.append('\f');
+                        break;
+                    case 'u':
+                        if (this.position + 4 > this.text.length()) {
+                            throw error("Bad unicode escape");
+                        }
+                        string.append((char) Integer.parseInt(
+                                this.text.substring(this.position, this.position + 4), 16));
+                        this.position += 4;
+                        break;
+                    default:
+                        string.append(escaped);
+                }
+            }
+        }
+
+        private Double readNumber() throws IOException {
+            int start = this.position;
+            while (this.position < this.text.length()
+                    && "+-0123456789.eE".indexOf(this.text.charAt(this.position)) >= 0) {
+                this.position++;
+            }
+            try {
+                return Double.valueOf(this.text.substring(start, this.position));
+            } catch (NumberFormatException e) {
+                throw error("Bad number");
+            }
+        }
+
+        private void expect(String literal) throws IOException {
+            if (!this.text.startsWith(literal, this.position)) {
+                throw error("Expected " + literal);
+            }
+            this.position += literal.length();
+        }
+
+        private char peek() throws IOException {
+            if (this.position >= this.text.length()) {
+                throw error("Unexpected end of JSON");
+            }
+            return this.text.charAt(this.position);
+        }
+
+        private char next() throws IOException {
+            char c = peek();
+            this.position++;
+            return c;
+        }
+
+        private void skipWhitespace() {
+            while (this.position < this.text.length() && Character.isWhitespace(this.text.charAt(this.position))) {
+                this.position++;
+            }
+        }
+
+        private IOException error(String message) {
+            return new IOException(message + " at offset " + this.position);
+        }
+    }
+}
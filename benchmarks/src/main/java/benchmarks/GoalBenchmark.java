@@ -0,0 +1,52 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks looking up the target experience of a LevelGoal
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GoalBenchmark {
+    @Param({ "2", "50", "99", "126" })
+    public int targetLevel;
+
+    private Target target;
+
+    @Setup
+    public void setup() throws Exception {
+        this.target = Targets.create(Target.class);
+        this.target.setup(this.targetLevel);
+    }
+
+    @Benchmark
+    public int targetExperience() {
+        return this.target.targetExperience();
+    }
+
+    /**
+     * Implemented by GoalBenchmarkTarget
+     */
+    public interface Target {
+        // Prepares the LevelGoal for the target level
+        void setup(int targetLevel) throws Exception;
+
+        // Returns the LevelGoal's target experience
+        int targetExperience();
+    }
+}
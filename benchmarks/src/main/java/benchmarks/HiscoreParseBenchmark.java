@@ -0,0 +1,58 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks turning a canned index_lite response into Skills, the parsing
+ * half of a refresh. HiscoreParser is compared against the split/parseInt
+ * parsing it replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HiscoreParseBenchmark {
+    private Target target;
+
+    @Setup
+    public void setup() throws Exception {
+        this.target = Targets.create(Target.class);
+        this.target.setup("B0aty");
+    }
+
+    @Benchmark
+    public Object hiscoreParser() throws Exception {
+        return this.target.hiscoreParser();
+    }
+
+    @Benchmark
+    public Object legacySplit() throws Exception {
+        return this.target.legacySplit();
+    }
+
+    /**
+     * Implemented by HiscoreParseBenchmarkTarget
+     */
+    public interface Target {
+        // Builds the canned response from the fixture Player
+        void setup(String fixture) throws Exception;
+
+        // Parses the response the way Player.downloadSkills does
+        Object hiscoreParser() throws Exception;
+
+        // Parses the response the way Player.refreshSkills used to
+        Object legacySplit() throws Exception;
+    }
+}
@@ -0,0 +1,63 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the calculations the GUI and daemon make for every skill of a
+ * Player: progress to goal and time to goal, over all skills.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerBenchmark {
+    // Players with goals, with and without manual experience rates
+    @Param({ "IronSushi_lvl95_goals", "IronSushi_no_exp_rates_lvl95" })
+    public String fixture;
+
+    private Target target;
+
+    @Setup
+    public void setup() throws Exception {
+        this.target = Targets.create(Target.class);
+        this.target.setup(this.fixture);
+    }
+
+    @Benchmark
+    public void progressToGoal(Blackhole blackhole) {
+        this.target.progressToGoal(blackhole);
+    }
+
+    @Benchmark
+    public void timeToGoal(Blackhole blackhole) {
+        this.target.timeToGoal(blackhole);
+    }
+
+    /**
+     * Implemented by PlayerBenchmarkTarget
+     */
+    public interface Target {
+        // Loads the fixture Player
+        void setup(String fixture) throws Exception;
+
+        // Calculates the progress to goal of every skill
+        void progressToGoal(Blackhole blackhole);
+
+        // Calculates the time to goal of every skill
+        void timeToGoal(Blackhole blackhole);
+    }
+}
@@ -0,0 +1,96 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks saving and loading the saved_players fixtures, in both the
+ * binary format and the legacy Java serialization format. saveToFile writes
+ * a whole file every time, saveToFileUnchanged saves over a file already
+ * holding the same Player, which only rewrites its refresh time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerFileBenchmark {
+    @Param({ "B0aty", "IronSushi_lvl95_goals" })
+    public String fixture;
+
+    private Target target;
+
+    @Setup
+    public void setup() throws Exception {
+        this.target = Targets.create(Target.class);
+        this.target.setup(this.fixture);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.target.tearDown();
+    }
+
+    @Benchmark
+    public void saveToFile() throws Exception {
+        this.target.saveToFile();
+    }
+
+    @Benchmark
+    public void saveToFileUnchanged() throws Exception {
+        this.target.saveToFileUnchanged();
+    }
+
+    @Benchmark
+    public void saveToFileLegacy() throws Exception {
+        this.target.saveToFileLegacy();
+    }
+
+    @Benchmark
+    public Object loadFromFile() throws Exception {
+        return this.target.loadFromFile();
+    }
+
+    @Benchmark
+    public Object loadFromFileLegacy() throws Exception {
+        return this.target.loadFromFileLegacy();
+    }
+
+    /**
+     * Implemented by PlayerFileBenchmarkTarget
+     */
+    public interface Target {
+        // Loads the fixture Player and prepares the files
+        void setup(String fixture) throws Exception;
+
+        // Deletes the files created by setup
+        void tearDown() throws Exception;
+
+        // Saves in the binary format, writing the whole file
+        void saveToFile() throws Exception;
+
+        // Saves in the binary format over a file with the same content
+        void saveToFileUnchanged() throws Exception;
+
+        // Saves with Java serialization, as saveToFile used to
+        void saveToFileLegacy() throws Exception;
+
+        // Loads a file in the binary format
+        Object loadFromFile() throws Exception;
+
+        // Loads the fixture, saved with Java serialization
+        Object loadFromFileLegacy() throws Exception;
+    }
+}
@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks Skill construction, which calculates the virtual level, and the
+ * XpTable lookup behind it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SkillBenchmark {
+    // Experience below 99, at 99, mid-way to 126 and at the maximum
+    @Param({ "1000000", "13034431", "50000000", "200000000" })
+    public int experience;
+
+    private Target target;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        this.target = Targets.create(Target.class);
+        this.target.setup(this.experience);
+    }
+
+    @Benchmark
+    public Object construct() {
+        return this.target.construct();
+    }
+
+    @Benchmark
+    public int virtualLevel() {
+        return this.target.virtualLevel();
+    }
+
+    /**
+     * Implemented by SkillBenchmarkTarget
+     */
+    public interface Target {
+        // Prepares a Skill with the given experience
+        void setup(int experience);
+
+        // Creates a new Skill
+        Object construct();
+
+        // Looks up the virtual level for the experience
+        int virtualLevel();
+    }
+}
@@ -0,0 +1,28 @@
+package benchmarks;
+
+/**
+ * Creates the code under benchmark. JMH only runs benchmarks in a named
+ * package, but the tracker lives in the default package, which named
+ * packages can't refer to. So every benchmark declares a Target interface
+ * for the operations it measures, implemented by a default package class
+ * named after the benchmark, e.g. SkillBenchmarkTarget for
+ * SkillBenchmark.Target. Calls go through a monomorphic interface, which the
+ * JIT inlines.
+ */
+final class Targets {
+    // Static methods only
+    private Targets() {
+    }
+
+    /**
+     * Creates the default package implementation of a benchmark's Target
+     *
+     * @param type the Target interface nested in a benchmark
+     * @return a new instance of the implementation
+     * @throws ReflectiveOperationException if the implementation is missing
+     */
+    static <T> T create(Class<T> type) throws ReflectiveOperationException {
+        String name = type.getEnclosingClass().getSimpleName() + "Target";
+        return type.cast(Class.forName(name).getDeclaredConstructor().newInstance());
+    }
+}